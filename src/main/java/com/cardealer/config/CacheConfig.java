@@ -10,6 +10,6 @@ public class CacheConfig {
 
     @Bean
     public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager("latestCars", "activeDealers");
+        return new ConcurrentMapCacheManager("latestCars", "featureVocabulary");
     }
 }
@@ -0,0 +1,27 @@
+package com.cardealer.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers the PostgreSQL array containment operator used by CarSpecification to filter
+ * on the GIN-indexed features array of car_search. The wanted features are passed as one
+ * string joined with {@link #SEPARATOR}, since criteria queries cannot bind a text[] directly.
+ * Registered through META-INF/services.
+ */
+public class FeatureSetFunctions implements FunctionContributor {
+
+    public static final String CONTAINS_ALL = "feature_set_contains_all";
+    public static final String SEPARATOR = "\u001F";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicType<Boolean> booleanType = functionContributions.getTypeConfiguration()
+            .getBasicTypeRegistry().resolve(StandardBasicTypes.BOOLEAN);
+
+        functionContributions.getFunctionRegistry()
+            .registerPattern(CONTAINS_ALL, "(?1 @> string_to_array(?2, chr(31)))", booleanType);
+    }
+}
@@ -0,0 +1,30 @@
+package com.cardealer.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers the PostgreSQL full-text operators used by CarSpecification, so criteria
+ * queries can match and rank against the GIN-indexed search_vector of car_search.
+ * Registered through META-INF/services.
+ */
+public class FullTextSearchFunctions implements FunctionContributor {
+
+    public static final String MATCH = "fts_match";
+    public static final String RANK = "fts_rank";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicType<Boolean> booleanType = functionContributions.getTypeConfiguration()
+            .getBasicTypeRegistry().resolve(StandardBasicTypes.BOOLEAN);
+        BasicType<Double> doubleType = functionContributions.getTypeConfiguration()
+            .getBasicTypeRegistry().resolve(StandardBasicTypes.DOUBLE);
+
+        functionContributions.getFunctionRegistry()
+            .registerPattern(MATCH, "(?1 @@ to_tsquery('spanish', ?2))", booleanType);
+        functionContributions.getFunctionRegistry()
+            .registerPattern(RANK, "ts_rank(?1, to_tsquery('spanish', ?2))", doubleType);
+    }
+}
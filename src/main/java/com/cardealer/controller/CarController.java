@@ -2,21 +2,36 @@ package com.cardealer.controller;
 
 import com.cardealer.dto.CarFilterDTO;
 import com.cardealer.dto.BreadcrumbItem;
+import com.cardealer.dto.CarCard;
+import com.cardealer.dto.CarDetailView;
+import com.cardealer.dto.CarSlice;
+import com.cardealer.dto.CommentPage;
+import com.cardealer.dto.FacetCounts;
 import com.cardealer.dto.MessageDTO;
+import com.cardealer.dto.Suggestion;
 import com.cardealer.model.Car;
-import com.cardealer.model.Comment;
 import com.cardealer.model.enums.BodyType;
 import com.cardealer.model.enums.CarCondition;
 import com.cardealer.model.enums.FuelType;
 import com.cardealer.model.enums.TransmissionType;
+import com.cardealer.search.TrendingScores;
+import com.cardealer.service.CarDetailAssembler;
 import com.cardealer.service.CarService;
 import com.cardealer.service.CommentService;
-import com.cardealer.service.FavoriteService;
-import com.cardealer.service.UserService;
+import com.cardealer.service.CompareService;
+import com.cardealer.service.InventoryExportService;
+import com.cardealer.service.PageVersionService;
+import com.cardealer.service.PageVersionService.PageVersion;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -25,31 +40,52 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.regex.Pattern;
 
 @Controller
 @RequestMapping("/cars")
 @RequiredArgsConstructor
 public class CarController {
 
+    private static final Pattern BOT_AGENT = Pattern.compile("(?i)bot|crawl|spider|slurp|curl|wget|headless");
+    private static final int MAX_LISTING_PAGE_SIZE = 48;
+
     private final CarService carService;
+    private final CarDetailAssembler carDetailAssembler;
+    private final PageVersionService pageVersionService;
+    private final CompareService compareService;
     private final CommentService commentService;
-    private final FavoriteService favoriteService;
-    private final UserService userService;
+    private final InventoryExportService inventoryExportService;
 
     /**
-     * List cars with filters and pagination
+     * List cars with filters and pagination.
+     * Passing a cursor parameter (empty for the first page) switches to keyset pagination,
+     * which returns next/prev cursors and only counts the total when withTotal is set.
      */
     @GetMapping
     public String listCars(
             @ModelAttribute CarFilterDTO filters,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size,
-            Model model) {
-        buildCarsListing(filters, page, size, model);
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            Model model,
+            Authentication authentication,
+            WebRequest request) {
+        // The popular order moves with every view, so it gets no validator
+        if (ConditionalGet.isAnonymous(authentication)
+                && !TrendingScores.SORT_POPULAR.equalsIgnoreCase(filters.getSortBy())
+                && ConditionalGet.notModified(request, pageVersionService.listing())) {
+            return null;
+        }
+        buildCarsListing(filters, page, size, cursor, withTotal, model);
         model.addAttribute("pageDescription", "Explora el inventario completo de coches disponibles en Portal de Coches.");
         model.addAttribute("pageKeywords", "inventario coches, coches segunda mano, coches ocasión");
         model.addAttribute("ogTitle", "Inventario de Coches");
@@ -61,21 +97,77 @@ public class CarController {
             @ModelAttribute CarFilterDTO filters,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size,
-            Model model) {
-        buildCarsListing(filters, page, size, model);
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            Model model,
+            Authentication authentication,
+            WebRequest request) {
+        // The popular order moves with every view, so it gets no validator
+        if (ConditionalGet.isAnonymous(authentication)
+                && !TrendingScores.SORT_POPULAR.equalsIgnoreCase(filters.getSortBy())
+                && ConditionalGet.notModified(request, pageVersionService.listing())) {
+            return null;
+        }
+        buildCarsListing(filters, page, size, cursor, withTotal, model);
         model.addAttribute("pageDescription", "Consulta el inventario en formato lista para comparar rápidamente vehículos disponibles.");
         model.addAttribute("pageKeywords", "lista coches, catálogo coches, vehículos disponibles");
         model.addAttribute("ogTitle", "Inventario en Lista");
         return "inventory-list";
     }
 
+    /**
+     * Download the cars matching the listing filters as CSV or NDJSON (streamed, capped at
+     * inventory.export.search-max-rows)
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCars(
+            @ModelAttribute CarFilterDTO filters,
+            @RequestParam(defaultValue = "csv") String format) {
+        InventoryExportService.Format exportFormat = InventoryExportService.Format.fromParam(format);
+        return ResponseEntity.ok()
+            .contentType(exportFormat.getMediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("coches." + exportFormat.getExtension()).build().toString())
+            .body(out -> inventoryExportService.exportSearch(filters, exportFormat, out));
+    }
+
+    /**
+     * Typeahead completions for make and model (JSON)
+     */
+    @GetMapping("/suggest")
+    @ResponseBody
+    public ResponseEntity<List<Suggestion>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(carService.suggest(q, limit));
+    }
+
     /**
      * Car detail page
      */
     @GetMapping("/{id}")
-    public String carDetail(@PathVariable Long id, Model model, Authentication authentication) {
-        // Get car and increment views
-        Car car = carService.getCarById(id);
+    public String carDetail(@PathVariable Long id, Model model, Authentication authentication,
+                            WebRequest request, HttpServletRequest servletRequest) {
+        String visitor = visitorKey(servletRequest);
+        // Repeat visitors and crawlers revalidate against a version lookup instead of a render
+        if (ConditionalGet.isAnonymous(authentication)) {
+            Optional<PageVersion> version = pageVersionService.carDetail(id);
+            if (version.isPresent() && ConditionalGet.notModified(request, version.get())) {
+                carService.recordView(id);
+                if (visitor != null) {
+                    carService.recordVisitor(id, visitor);
+                }
+                return null;
+            }
+        }
+
+        // Load the car, then related cars, comments and the favourite flag in parallel
+        String email = authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+        CarDetailView detail = carDetailAssembler.assemble(id, email);
+        Car car = detail.getCar();
+        if (visitor != null) {
+            carService.recordVisitor(id, visitor);
+        }
         model.addAttribute("car", car);
         model.addAttribute("breadcrumbItems", List.of(
             new BreadcrumbItem("Inicio", "/", false),
@@ -92,14 +184,14 @@ public class CarController {
             ? "/uploads/" + car.getImages().get(0)
             : "/img/car/01.jpg");
         
-        // Get related cars (same brand)
-        List<Car> relatedCars = carService.getRelatedCars(id);
-        model.addAttribute("relatedCars", relatedCars);
-        
-        // Get comments for this car
-        List<Comment> comments = commentService.getCarComments(id);
-        model.addAttribute("comments", comments);
-        model.addAttribute("commentCount", commentService.getCommentCount(id));
+        // Blocks that missed the deadline render a notice instead of looking empty
+        model.addAttribute("relatedCars", detail.getRelatedCars());
+        model.addAttribute("relatedCarsAvailable", detail.isRelatedCarsAvailable());
+        model.addAttribute("comments", detail.getComments().getComments());
+        model.addAttribute("commentsAvailable", detail.isCommentsAvailable());
+        model.addAttribute("nextCommentsCursor", detail.getComments().getNextCursor());
+        model.addAttribute("reviews", detail.getReviews());
+        model.addAttribute("commentCount", detail.getReviews().getCommentCount());
         
         // Add message DTO for contact form
         MessageDTO messageDTO = new MessageDTO();
@@ -109,19 +201,24 @@ public class CarController {
         }
         model.addAttribute("messageDTO", messageDTO);
         
-        // Check if car is in user's favorites (if authenticated)
-        if (authentication != null && authentication.isAuthenticated()) {
-            String email = authentication.getName();
-            var user = userService.getUserByEmail(email);
-            boolean isFavorite = favoriteService.isFavorite(user.getId(), id);
-            model.addAttribute("isFavorite", isFavorite);
-        } else {
-            model.addAttribute("isFavorite", false);
-        }
+        model.addAttribute("isFavorite", detail.isFavorite());
         
         return "inventory-single";
     }
 
+    /**
+     * One page of a car's comments, newest first (JSON); pass the nextCursor of the
+     * previous page to continue
+     */
+    @GetMapping("/{id}/comments")
+    @ResponseBody
+    public ResponseEntity<CommentPage> comments(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(commentService.getCommentPage(id, cursor, size));
+    }
+
     /**
      * Compare cars page
      */
@@ -132,17 +229,8 @@ public class CarController {
             return "redirect:/cars";
         }
         
-        // Limit to maximum 3 cars
-        if (ids.size() > 3) {
-            ids = ids.subList(0, 3);
-        }
-        
-        // Get cars by IDs
-        List<Car> carsToCompare = ids.stream()
-            .map(carService::getCarById)
-            .collect(Collectors.toList());
-        
-        model.addAttribute("cars", carsToCompare);
+        // Up to 3 cars, loaded in one query with the differing specs precomputed
+        model.addAttribute("comparison", compareService.compare(ids));
         model.addAttribute("pageDescription", "Compara varios coches en paralelo para tomar una mejor decisión de compra.");
         model.addAttribute("pageKeywords", "comparar coches, comparativa vehículos");
         model.addAttribute("ogTitle", "Comparador de Coches");
@@ -150,20 +238,55 @@ public class CarController {
         return "compare";
     }
 
-    private Page<Car> buildCarsListing(CarFilterDTO filters, int page, int size, Model model) {
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Car> carsPage = carService.findCarsWithFilters(filters, pageable);
+    /**
+     * Identity of a visitor for unique visitor counting: the session when there is one,
+     * otherwise the remote address; null for crawlers, which are not counted. The user agent
+     * only screens out crawlers: adding it to the key would count every browser of one
+     * visitor, and any client that rotates it, as a new visitor.
+     */
+    private static String visitorKey(HttpServletRequest request) {
+        String userAgent = request.getHeader("User-Agent");
+        if (userAgent == null || BOT_AGENT.matcher(userAgent).find()) {
+            return null;
+        }
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            return "s:" + session.getId();
+        }
+        // X-Forwarded-For is client-controlled; behind a proxy set server.forward-headers-strategy
+        // so the container resolves the remote address
+        return "a:" + request.getRemoteAddr();
+    }
+
+    private void buildCarsListing(CarFilterDTO filters, int page, int size, String cursor, boolean withTotal, Model model) {
+        page = Math.max(page, 0);
+        size = Math.max(1, Math.min(size, MAX_LISTING_PAGE_SIZE));
+        if (cursor != null) {
+            CarSlice slice = carService.findCarsByCursor(filters, cursor, size, withTotal);
+            model.addAttribute("cars", new SliceImpl<>(slice.getContent(), PageRequest.of(0, size), slice.getNextCursor() != null));
+            model.addAttribute("keysetMode", true);
+            model.addAttribute("nextCursor", slice.getNextCursor());
+            model.addAttribute("prevCursor", slice.getPrevCursor());
+            model.addAttribute("currentPage", 0);
+            model.addAttribute("totalPages", 0);
+            model.addAttribute("totalItems", slice.getTotalElements());
+        } else {
+            Pageable pageable = PageRequest.of(page, size);
+            Page<CarCard> carsPage = carService.findCarsWithFilters(filters, pageable);
+            model.addAttribute("cars", carsPage);
+            model.addAttribute("currentPage", page);
+            model.addAttribute("totalPages", carsPage.getTotalPages());
+            model.addAttribute("totalItems", carsPage.getTotalElements());
+        }
 
-        model.addAttribute("cars", carsPage);
+        FacetCounts facets = carService.getFacetCounts(filters);
         model.addAttribute("filters", filters);
-        model.addAttribute("availableBrands", carService.getAvailableBrands());
+        model.addAttribute("facets", facets);
+        model.addAttribute("availableBrands", List.copyOf(facets.getBrands().keySet()));
+        model.addAttribute("availableFeatures", carService.getAvailableFeatures());
         model.addAttribute("fuelTypes", Arrays.asList(FuelType.values()));
         model.addAttribute("transmissionTypes", Arrays.asList(TransmissionType.values()));
         model.addAttribute("bodyTypes", Arrays.asList(BodyType.values()));
         model.addAttribute("conditions", Arrays.asList(CarCondition.values()));
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", carsPage.getTotalPages());
-        model.addAttribute("totalItems", carsPage.getTotalElements());
-        return carsPage;
     }
 }
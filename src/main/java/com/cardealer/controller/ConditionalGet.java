@@ -0,0 +1,39 @@
+package com.cardealer.controller;
+
+import com.cardealer.service.PageVersionService.PageVersion;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Conditional GET for public pages. Only anonymous visitors get validators: pages rendered
+ * for a signed-in user carry personal data (account menu, unread messages, favourites).
+ */
+final class ConditionalGet {
+
+    private static final String CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    private ConditionalGet() {
+    }
+
+    static boolean isAnonymous(Authentication authentication) {
+        return authentication == null
+            || authentication instanceof AnonymousAuthenticationToken
+            || !authentication.isAuthenticated();
+    }
+
+    /**
+     * Send the validators of a page; true when the client's copy is still current, in which
+     * case the response is a 304 and the handler must return null without rendering
+     */
+    static boolean notModified(WebRequest request, PageVersion version) {
+        // Let browsers keep the page but revalidate it on every use
+        if (request instanceof ServletWebRequest servletRequest && servletRequest.getResponse() != null) {
+            servletRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        }
+        return request.checkNotModified(version.etag(), version.lastModified());
+    }
+}
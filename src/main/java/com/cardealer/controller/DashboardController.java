@@ -1,8 +1,18 @@
 package com.cardealer.controller;
 
+import com.cardealer.dto.BulkListingRequest;
+import com.cardealer.dto.BulkListingResult;
+import com.cardealer.dto.BulkPriceRequest;
 import com.cardealer.dto.CarDTO;
 import com.cardealer.dto.BreadcrumbItem;
 import com.cardealer.dto.DashboardStats;
+import com.cardealer.dto.DealerListingFilter;
+import com.cardealer.dto.DealerListingPage;
+import com.cardealer.dto.ImportReport;
+import com.cardealer.dto.ViewTrend;
+import com.cardealer.dto.VisitorEstimate;
+import com.cardealer.exception.ResourceNotFoundException;
+import com.cardealer.exception.UnauthorizedException;
 import com.cardealer.model.Car;
 import com.cardealer.model.Dealer;
 import com.cardealer.model.User;
@@ -13,11 +23,18 @@ import com.cardealer.model.enums.TransmissionType;
 import com.cardealer.service.CarService;
 import com.cardealer.service.DealerService;
 import com.cardealer.service.FavoriteService;
+import com.cardealer.service.InventoryExportService;
+import com.cardealer.service.InventoryImportService;
 import com.cardealer.service.MessageService;
 import com.cardealer.service.UserService;
+import com.cardealer.service.ViewStatsService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.data.domain.Page;
@@ -26,6 +43,7 @@ import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.io.IOException;
@@ -43,6 +61,11 @@ public class DashboardController {
     private final UserService userService;
     private final MessageService messageService;
     private final FavoriteService favoriteService;
+    private final ViewStatsService viewStatsService;
+    private final InventoryImportService inventoryImportService;
+    private final InventoryExportService inventoryExportService;
+
+    private static final int MAX_LISTINGS_PAGE_SIZE = 100;
 
     /**
      * Show dashboard
@@ -60,6 +83,8 @@ public class DashboardController {
             model.addAttribute("activeListings", stats.getActiveListings());
             model.addAttribute("totalViews", stats.getTotalViews());
             model.addAttribute("totalListings", stats.getTotalListings());
+            model.addAttribute("messagesReceived", stats.getMessages());
+            model.addAttribute("favoritesReceived", stats.getFavorites());
             model.addAttribute("recentListings", stats.getRecentListings());
             model.addAttribute("breadcrumbItems", List.of(
                 new BreadcrumbItem("Inicio", "/", false),
@@ -96,6 +121,8 @@ public class DashboardController {
         model.addAttribute("activeListings", stats.getActiveListings());
         model.addAttribute("totalViews", stats.getTotalViews());
         model.addAttribute("totalListings", stats.getTotalListings());
+        model.addAttribute("messagesReceived", stats.getMessages());
+        model.addAttribute("favoritesReceived", stats.getFavorites());
         model.addAttribute("recentListings", stats.getRecentListings());
         model.addAttribute("breadcrumbItems", List.of(
             new BreadcrumbItem("Inicio", "/", false),
@@ -110,40 +137,81 @@ public class DashboardController {
     }
 
     /**
-     * Show my listings
+     * Daily views of all the dealer's cars over the last 7, 30 or 90 days (JSON)
+     */
+    @GetMapping("/stats/views")
+    @ResponseBody
+    public ResponseEntity<ViewTrend> viewTrend(@RequestParam(defaultValue = "30") int days, Authentication authentication) {
+        Dealer dealer = requireDealer(authentication);
+        return ResponseEntity.ok(viewStatsService.getDealerTrend(dealer.getId(), days));
+    }
+
+    /**
+     * Daily views of one of the dealer's cars over the last 7, 30 or 90 days (JSON)
+     */
+    @GetMapping("/stats/views/{carId}")
+    @ResponseBody
+    public ResponseEntity<ViewTrend> carViewTrend(
+            @PathVariable Long carId,
+            @RequestParam(defaultValue = "30") int days,
+            Authentication authentication) {
+        Dealer dealer = requireDealer(authentication);
+        return ResponseEntity.ok(viewStatsService.getCarTrend(carId, dealer.getId(), days));
+    }
+
+    /**
+     * Approximate unique visitors of one of the dealer's cars over the last 7, 30 or 90 days (JSON)
+     */
+    @GetMapping("/stats/visitors/{carId}")
+    @ResponseBody
+    public ResponseEntity<VisitorEstimate> carVisitors(
+            @PathVariable Long carId,
+            @RequestParam(defaultValue = "30") int days,
+            Authentication authentication) {
+        Dealer dealer = requireDealer(authentication);
+        return ResponseEntity.ok(viewStatsService.getUniqueVisitors(carId, dealer.getId(), days));
+    }
+
+    /**
+     * Show my listings, a keyset-paginated page at a time (cursor empty or absent for the first page)
      */
     @GetMapping("/listings")
-    public String myListings(Model model, Authentication authentication) {
-        // TEMPORARY: For development without authentication, use first dealer
-        if (authentication == null) {
-            log.info("Loading listings without authentication (development mode)");
-            Dealer dealer = dealerService.getDealerById(1L);
-            model.addAttribute("cars", carService.getCarsByDealer(dealer.getId()));
-            model.addAttribute("dealer", dealer);
-            return "profile-listing";
-        }
-        
-        log.info("Loading listings for user: {}", authentication.getName());
-        
-        // Get authenticated user
-        String email = authentication.getName();
-        User user = userService.getUserByEmail(email);
-        
-        // Get dealer associated with user
-        Dealer dealer = dealerService.getDealerByUserId(user.getId());
-        
+    public String myListings(
+            @ModelAttribute("filters") DealerListingFilter filters,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Model model,
+            Authentication authentication) {
+        Dealer dealer = currentDealer(authentication);
         if (dealer == null) {
-            log.error("No dealer found for user: {}", email);
+            log.error("No dealer found for user: {}", authentication.getName());
             return "redirect:/";
         }
-        
-        // Get all cars for this dealer
-        model.addAttribute("cars", carService.getCarsByDealer(dealer.getId()));
+        log.info("Loading listings for dealer: {}", dealer.getId());
+
+        DealerListingPage listings = carService.findDealerListings(dealer.getId(), filters, cursor, pageSize(size));
+        model.addAttribute("cars", listings.getContent());
+        model.addAttribute("listings", listings);
+        model.addAttribute("brands", carService.getAvailableBrands());
         model.addAttribute("dealer", dealer);
-        
+
         return "profile-listing";
     }
 
+    /**
+     * A page of my listings with the per-status counts (JSON)
+     */
+    @GetMapping("/listings/page")
+    @ResponseBody
+    public ResponseEntity<DealerListingPage> myListingsPage(
+            @ModelAttribute DealerListingFilter filters,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+        Dealer dealer = requireDealer(authentication);
+        return ResponseEntity.ok(carService.findDealerListings(dealer.getId(), filters, cursor, pageSize(size)));
+    }
+
     /**
      * Show messages
      */
@@ -505,8 +573,94 @@ public class DashboardController {
         return "redirect:/dashboard/listings";
     }
 
+    /**
+     * Deactivate a selection of my listings in one operation (JSON)
+     */
+    @PostMapping("/listings/bulk/deactivate")
+    @ResponseBody
+    public ResponseEntity<BulkListingResult> bulkDeactivate(@RequestBody BulkListingRequest request, Authentication authentication) {
+        return ResponseEntity.ok(carService.deactivateCars(request.getIds(), requireDealer(authentication).getId()));
+    }
+
+    /**
+     * Reactivate a selection of my listings in one operation (JSON)
+     */
+    @PostMapping("/listings/bulk/reactivate")
+    @ResponseBody
+    public ResponseEntity<BulkListingResult> bulkReactivate(@RequestBody BulkListingRequest request, Authentication authentication) {
+        return ResponseEntity.ok(carService.reactivateCars(request.getIds(), requireDealer(authentication).getId()));
+    }
+
+    /**
+     * Change the price of a selection of my listings by a percentage or an amount (JSON)
+     */
+    @PostMapping("/listings/bulk/price")
+    @ResponseBody
+    public ResponseEntity<BulkListingResult> bulkAdjustPrices(@RequestBody BulkPriceRequest request, Authentication authentication) {
+        return ResponseEntity.ok(carService.adjustPrices(request, requireDealer(authentication).getId()));
+    }
+
+    /**
+     * Import listings from a CSV or NDJSON file whose images are already uploaded (JSON report);
+     * with dryRun the file is only validated
+     */
+    @PostMapping("/listings/import")
+    @ResponseBody
+    public ResponseEntity<ImportReport> importListings(@RequestParam("file") MultipartFile file,
+                                                       @RequestParam(defaultValue = "false") boolean dryRun,
+                                                       Authentication authentication) throws IOException {
+        return ResponseEntity.ok(inventoryImportService.importListings(file, dryRun, requireDealer(authentication).getId()));
+    }
+
+    /**
+     * Download all my listings, active and inactive, as CSV or NDJSON (streamed)
+     */
+    @GetMapping("/listings/export")
+    public ResponseEntity<StreamingResponseBody> exportListings(@RequestParam(defaultValue = "csv") String format,
+                                                                Authentication authentication) {
+        Long dealerId = requireDealer(authentication).getId();
+        InventoryExportService.Format exportFormat = InventoryExportService.Format.fromParam(format);
+        return ResponseEntity.ok()
+            .contentType(exportFormat.getMediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("inventario." + exportFormat.getExtension()).build().toString())
+            .body(out -> inventoryExportService.exportDealerInventory(dealerId, exportFormat, out));
+    }
+
     // Helper methods
 
+    private static int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_LISTINGS_PAGE_SIZE));
+    }
+
+    /**
+     * Dealer of the authenticated user (the first dealer in development mode, without authentication)
+     */
+    private Dealer currentDealer(Authentication authentication) {
+        if (authentication == null) {
+            return dealerService.getDealerById(1L);
+        }
+        User user = userService.getUserByEmail(authentication.getName());
+        return dealerService.getDealerByUserId(user.getId());
+    }
+
+    /**
+     * Dealer of the authenticated user, for JSON endpoints that cannot redirect. Unlike
+     * currentDealer, an anonymous caller never falls back to a development dealer.
+     */
+    private Dealer requireDealer(Authentication authentication) {
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken
+                || !authentication.isAuthenticated()) {
+            throw new UnauthorizedException("Debes iniciar sesión como concesionario");
+        }
+        User user = userService.getUserByEmail(authentication.getName());
+        try {
+            return dealerService.getDealerByUserId(user.getId());
+        } catch (ResourceNotFoundException e) {
+            throw new UnauthorizedException("No tienes un concesionario asociado", e);
+        }
+    }
+
     /**
      * Add enums to model for dropdowns
      */
@@ -1,19 +1,28 @@
 package com.cardealer.controller;
 
 import com.cardealer.dto.BreadcrumbItem;
-import com.cardealer.model.Car;
+import com.cardealer.dto.CarCard;
+import com.cardealer.dto.DealerDirectoryFilter;
+import com.cardealer.dto.DealerDirectoryPage;
 import com.cardealer.model.Dealer;
 import com.cardealer.service.CarService;
 import com.cardealer.service.DealerService;
+import com.cardealer.service.PageVersionService;
+import com.cardealer.service.PageVersionService.PageVersion;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Optional;
 
 @Slf4j
 @Controller
@@ -23,24 +32,32 @@ public class DealerController {
 
     private final DealerService dealerService;
     private final CarService carService;
+    private final PageVersionService pageVersionService;
+
+    private static final int MAX_DIRECTORY_PAGE_SIZE = 48;
 
     /**
-     * List all active dealers
+     * Directory of active dealers, paged, filterable by city and sortable by name or listings
      */
     @GetMapping
-    public String listDealers(Model model) {
-        log.info("Loading dealers list");
+    public String listDealers(@ModelAttribute("filters") DealerDirectoryFilter filters,
+                              @RequestParam(defaultValue = "0") int page,
+                              @RequestParam(defaultValue = "12") int size,
+                              Model model) {
+        log.info("Loading dealers directory: {} page {}", filters, page);
         
         try {
-            // Get all active dealers
-            List<Dealer> dealers = dealerService.getAllActiveDealers();
+            DealerDirectoryPage directory = dealerService.getDealerDirectory(
+                filters, Math.max(page, 0), Math.max(1, Math.min(size, MAX_DIRECTORY_PAGE_SIZE)));
             
-            model.addAttribute("dealers", dealers);
+            model.addAttribute("directory", directory);
+            model.addAttribute("dealers", directory.getContent());
+            model.addAttribute("cities", dealerService.getDirectoryCities());
             model.addAttribute("pageDescription", "Conoce los concesionarios registrados y explora sus vehículos activos.");
             model.addAttribute("pageKeywords", "concesionarios, vendedores coches, dealers");
             model.addAttribute("ogTitle", "Concesionarios");
             
-            log.info("Loaded {} dealers", dealers.size());
+            log.info("Loaded {} of {} dealers", directory.getContent().size(), directory.getTotalElements());
             return "dealer";
             
         } catch (Exception e) {
@@ -54,15 +71,22 @@ public class DealerController {
      * Show dealer detail page
      */
     @GetMapping("/{id}")
-    public String dealerDetail(@PathVariable Long id, Model model) {
+    public String dealerDetail(@PathVariable Long id, Model model, Authentication authentication, WebRequest request) {
         log.info("Loading dealer detail for id: {}", id);
+
+        if (ConditionalGet.isAnonymous(authentication)) {
+            Optional<PageVersion> version = pageVersionService.dealerDetail(id);
+            if (version.isPresent() && ConditionalGet.notModified(request, version.get())) {
+                return null;
+            }
+        }
         
         try {
             // Get dealer
             Dealer dealer = dealerService.getDealerById(id);
             
             // Get dealer's cars
-            List<Car> dealerCars = carService.getCarsByDealer(id);
+            List<CarCard> dealerCars = carService.getCarsByDealer(id);
             
             model.addAttribute("dealer", dealer);
             model.addAttribute("dealerCars", dealerCars);
@@ -21,6 +21,7 @@ public class HomeController {
     public String home(Model model) {
         // Load latest 8 cars
         model.addAttribute("latestCars", carService.getLatestCars());
+        model.addAttribute("trendingCars", carService.getTrendingCars());
         model.addAttribute("totalCars", carService.getTotalCarCount());
         model.addAttribute("availableBrands", carService.getAvailableBrands());
         
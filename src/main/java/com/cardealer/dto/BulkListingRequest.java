@@ -0,0 +1,18 @@
+package com.cardealer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Selection of the dealer's listings for a bulk deactivate or reactivate
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkListingRequest {
+
+    private List<Long> ids;
+}
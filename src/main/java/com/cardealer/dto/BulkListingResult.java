@@ -0,0 +1,18 @@
+package com.cardealer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a bulk listing operation: cars selected and cars actually changed
+ * (a car already in the requested state is left as is)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkListingResult {
+
+    private int selected;
+    private int updated;
+}
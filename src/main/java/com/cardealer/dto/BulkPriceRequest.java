@@ -0,0 +1,22 @@
+package com.cardealer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Price change for a selection of the dealer's listings: mode "percent" applies value as a
+ * percentage (-10 lowers prices by 10%), mode "amount" adds value in euros
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkPriceRequest {
+
+    private List<Long> ids;
+    private String mode;
+    private BigDecimal value;
+}
@@ -0,0 +1,33 @@
+package com.cardealer.dto;
+
+import com.cardealer.model.enums.CarCondition;
+import com.cardealer.model.enums.FuelType;
+import com.cardealer.model.enums.TransmissionType;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable read model of a car as shown on listing cards (inventory, home page, related cars).
+ * Loaded with a fixed number of queries per page instead of hydrating Car entities and their
+ * lazy images, features and dealer. summary is the first characters of the description.
+ */
+@Value
+public class CarCard {
+
+    Long id;
+    String make;
+    String model;
+    Integer year;
+    BigDecimal price;
+    Integer mileage;
+    FuelType fuelType;
+    TransmissionType transmission;
+    CarCondition condition;
+    LocalDateTime createdAt;
+    String summary;
+    String image;
+    String dealerName;
+    String dealerCity;
+}
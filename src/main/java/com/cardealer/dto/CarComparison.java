@@ -0,0 +1,45 @@
+package com.cardealer.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Side-by-side comparison of a few cars, precomputed for the compare page: one column per
+ * car, and rows of display values in column order, each flagged when the cars differ.
+ */
+@Value
+public class CarComparison {
+
+    List<Column> cars;
+    List<SpecRow> specs;
+    List<FeatureRow> features;
+
+    @Value
+    public static class Column {
+        Long id;
+        String title;
+        String image;
+    }
+
+    /**
+     * One specification; key names the spec for templates that format some of them specially
+     */
+    @Value
+    public static class SpecRow {
+        String key;
+        String label;
+        List<String> values;
+        boolean differs;
+    }
+
+    /**
+     * One feature out of the union of the compared cars' features
+     */
+    @Value
+    public static class FeatureRow {
+        String feature;
+        List<Boolean> present;
+        boolean differs;
+    }
+}
@@ -30,6 +30,7 @@ public class CarDTO {
     @Min(value = 0, message = "El precio debe ser positivo")
     private BigDecimal price;
     
+    @NotNull(message = "El kilometraje es obligatorio")
     @Min(value = 0, message = "El kilometraje debe ser positivo")
     private Integer mileage;
     
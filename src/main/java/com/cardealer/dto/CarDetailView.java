@@ -0,0 +1,26 @@
+package com.cardealer.dto;
+
+import com.cardealer.model.Car;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Everything the car detail page shows besides the car itself.
+ * Optional blocks that missed the page deadline are empty, and the flags say which.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CarDetailView {
+
+    private Car car;
+    private List<CarCard> relatedCars;
+    private CommentPage comments;
+    private ReviewSummary reviews;
+    private boolean favorite;
+    private boolean relatedCarsAvailable;
+    private boolean commentsAvailable;
+}
@@ -0,0 +1,22 @@
+package com.cardealer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One keyset-paginated page of car cards with opaque cursors to its neighbours.
+ * totalElements is only filled when the caller asked for totals.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CarSlice {
+
+    private List<CarCard> content;
+    private String nextCursor;
+    private String prevCursor;
+    private Long totalElements;
+}
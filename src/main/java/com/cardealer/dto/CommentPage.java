@@ -0,0 +1,20 @@
+package com.cardealer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One keyset-paginated page of a car's comments, newest first.
+ * nextCursor is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentPage {
+
+    private List<CommentView> comments;
+    private String nextCursor;
+}
@@ -0,0 +1,23 @@
+package com.cardealer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A comment as shown on the car detail page and returned by the comments endpoint
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentView {
+
+    private Long id;
+    private Long userId;
+    private String authorName;
+    private String content;
+    private Integer rating;
+    private LocalDateTime createdAt;
+}
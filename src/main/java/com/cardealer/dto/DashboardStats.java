@@ -1,6 +1,5 @@
 package com.cardealer.dto;
 
-import com.cardealer.model.Car;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -15,5 +14,7 @@ public class DashboardStats {
     private Long activeListings;
     private Long totalViews;
     private Long totalListings;
-    private List<Car> recentListings;
+    private Long messages;
+    private Long favorites;
+    private List<ListingSummary> recentListings;
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.cardealer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Dealer as shown in the directory, with the precomputed figures of its active listings
+ * (price range and newest listing date are null without active listings)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DealerCard {
+
+    private Long id;
+    private String name;
+    private String email;
+    private String phone;
+    private String address;
+    private String city;
+    private String logoUrl;
+    private long activeListings;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private LocalDateTime lastListingAt;
+}
@@ -0,0 +1,18 @@
+package com.cardealer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Filters of the dealer directory. sortBy is "name" (default) or "listings"
+ * (most active listings first).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DealerDirectoryFilter {
+
+    private String city;
+    private String sortBy;
+}
@@ -0,0 +1,30 @@
+package com.cardealer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of the dealer directory
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DealerDirectoryPage {
+
+    private List<DealerCard> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+
+    public boolean hasPrevious() {
+        return page > 0;
+    }
+
+    public boolean hasNext() {
+        return page + 1 < totalPages;
+    }
+}
@@ -0,0 +1,23 @@
+package com.cardealer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Filters of the dealer's own inventory (my listings).
+ * status is "active", "inactive" or empty for both; sortBy takes the listing sort keys.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DealerListingFilter {
+
+    private String status;
+    private String brand;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private String sortBy;
+}
@@ -0,0 +1,24 @@
+package com.cardealer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One keyset-paginated page of a dealer's listings with opaque cursors to its neighbours.
+ * activeCount and inactiveCount count the listings matching the brand and price filters,
+ * whatever the selected status.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DealerListingPage {
+
+    private List<ListingSummary> content;
+    private String nextCursor;
+    private String prevCursor;
+    private long activeCount;
+    private long inactiveCount;
+}
@@ -0,0 +1,26 @@
+package com.cardealer.dto;
+
+import com.cardealer.model.enums.BodyType;
+import com.cardealer.model.enums.CarCondition;
+import com.cardealer.model.enums.FuelType;
+import com.cardealer.model.enums.TransmissionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCounts {
+
+    private Map<String, Long> brands = new TreeMap<>();
+    private Map<FuelType, Long> fuelTypes = new EnumMap<>(FuelType.class);
+    private Map<TransmissionType, Long> transmissions = new EnumMap<>(TransmissionType.class);
+    private Map<BodyType, Long> bodyTypes = new EnumMap<>(BodyType.class);
+    private Map<CarCondition, Long> conditions = new EnumMap<>(CarCondition.class);
+    private Map<String, Long> features = new TreeMap<>();
+}
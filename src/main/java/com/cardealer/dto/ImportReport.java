@@ -0,0 +1,25 @@
+package com.cardealer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of an inventory import: rows read, rows that passed validation and rows saved
+ * (none in a dry run), with the first errors; omittedErrors counts the ones not listed
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportReport {
+
+    private boolean dryRun;
+    private long rows;
+    private long valid;
+    private long imported;
+    private List<ImportRowError> errors = new ArrayList<>();
+    private long omittedErrors;
+}
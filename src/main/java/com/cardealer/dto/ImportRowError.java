@@ -0,0 +1,17 @@
+package com.cardealer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A rejected row of an inventory import: line of the file where it starts and the reasons
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRowError {
+
+    private long line;
+    private String message;
+}
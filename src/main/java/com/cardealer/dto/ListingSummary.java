@@ -0,0 +1,29 @@
+package com.cardealer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A row of the dealer's listing tables (dashboard, my listings), active or not; image is the
+ * first image
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListingSummary {
+
+    private Long id;
+    private String make;
+    private String model;
+    private BigDecimal price;
+    private Integer mileage;
+    private Integer year;
+    private Integer views;
+    private Boolean active;
+    private LocalDateTime createdAt;
+    private String image;
+}
@@ -0,0 +1,26 @@
+package com.cardealer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Review aggregates of a car. averageRating is null while no comment has a rating;
+ * ratingHistogram holds the number of 1 to 5 star ratings, in that order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewSummary {
+
+    private long commentCount;
+    private long ratingCount;
+    private Double averageRating;
+    private List<Long> ratingHistogram;
+
+    public static ReviewSummary empty() {
+        return new ReviewSummary(0, 0, null, List.of(0L, 0L, 0L, 0L, 0L));
+    }
+}
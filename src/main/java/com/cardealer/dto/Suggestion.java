@@ -0,0 +1,19 @@
+package com.cardealer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Typeahead completion for the inventory search box.
+ * type is MAKE or MODEL; count is the number of active cars it matches.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Suggestion {
+
+    private String text;
+    private String type;
+    private long count;
+}
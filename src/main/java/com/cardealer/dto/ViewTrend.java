@@ -0,0 +1,23 @@
+package com.cardealer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Daily views over the last {@code days} days, oldest first, with days without views as 0.
+ * dates and views are parallel lists, ready to feed a chart.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ViewTrend {
+
+    private int days;
+    private long totalViews;
+    private List<LocalDate> dates;
+    private List<Long> views;
+}
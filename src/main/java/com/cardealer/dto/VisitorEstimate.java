@@ -0,0 +1,19 @@
+package com.cardealer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Approximate number of distinct visitors of a car over the last {@code days} days
+ * (HyperLogLog estimate, about 2.3% standard error)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VisitorEstimate {
+
+    private Long carId;
+    private int days;
+    private long uniqueVisitors;
+}
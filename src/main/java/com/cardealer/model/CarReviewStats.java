@@ -0,0 +1,44 @@
+package com.cardealer.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Comment and rating aggregates of one car: comment count, rating count and sum, and the
+ * histogram of 1 to 5 star ratings. Written only by CarReviewStatsRepository's atomic
+ * increments, never through this entity.
+ */
+@Entity
+@Immutable
+@Table(name = "car_review_stats")
+@Getter
+@NoArgsConstructor
+public class CarReviewStats {
+
+    @Id
+    @Column(name = "car_id")
+    private Long carId;
+
+    private int commentCount;
+
+    private int ratingCount;
+
+    private int ratingSum;
+
+    @Column(name = "rating_1")
+    private int rating1;
+
+    @Column(name = "rating_2")
+    private int rating2;
+
+    @Column(name = "rating_3")
+    private int rating3;
+
+    @Column(name = "rating_4")
+    private int rating4;
+
+    @Column(name = "rating_5")
+    private int rating5;
+}
@@ -0,0 +1,78 @@
+package com.cardealer.model;
+
+import com.cardealer.model.enums.BodyType;
+import com.cardealer.model.enums.CarCondition;
+import com.cardealer.model.enums.FuelType;
+import com.cardealer.model.enums.TransmissionType;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only row of the car_search read model: one flat row per active car.
+ * Written with set-based SQL by CarSearchRepository, never through this entity.
+ * Attribute names match {@link Car} so CarSpecification and sort keys apply to both.
+ */
+@Entity
+@Immutable
+@Table(name = "car_search")
+@Getter
+@NoArgsConstructor
+public class CarSearch {
+
+    @Id
+    @Column(name = "car_id")
+    private Long id;
+
+    @Column(name = "dealer_id")
+    private Long dealerId;
+
+    private String make;
+
+    private String model;
+
+    @Column(name = "car_year")
+    private Integer year;
+
+    private BigDecimal price;
+
+    private Integer mileage;
+
+    @Enumerated(EnumType.STRING)
+    private FuelType fuelType;
+
+    @Enumerated(EnumType.STRING)
+    private TransmissionType transmission;
+
+    @Enumerated(EnumType.STRING)
+    private BodyType bodyType;
+
+    @Enumerated(EnumType.STRING)
+    private CarCondition condition;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    @Column(name = "primary_image")
+    private String primaryImage;
+
+    @Column(name = "features", columnDefinition = "text[]")
+    private String[] featureSet;
+
+    @Column(name = "dealer_name")
+    private String dealerName;
+
+    @Column(name = "dealer_city")
+    private String dealerCity;
+
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "search_vector", columnDefinition = "tsvector")
+    private String searchVector;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,47 @@
+package com.cardealer.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only row of the dealer_directory read model: an active dealer's profile fields and
+ * aggregates of its active listings (count, price range, newest listing date). Written only
+ * by DealerDirectoryRepository's set-based refresh, never through this entity.
+ */
+@Entity
+@Immutable
+@Table(name = "dealer_directory")
+@Getter
+@NoArgsConstructor
+public class DealerDirectoryEntry {
+
+    @Id
+    @Column(name = "dealer_id")
+    private Long dealerId;
+
+    private String name;
+
+    private String email;
+
+    private String phone;
+
+    private String address;
+
+    private String city;
+
+    @Column(name = "logo_url")
+    private String logoUrl;
+
+    private long activeListings;
+
+    private BigDecimal minPrice;
+
+    private BigDecimal maxPrice;
+
+    private LocalDateTime lastListingAt;
+}
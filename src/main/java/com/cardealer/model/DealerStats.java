@@ -0,0 +1,33 @@
+package com.cardealer.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Dashboard aggregates of one dealer: active and total listings, lifetime views, and the
+ * messages and favourites received by its cars. Written only by DealerStatsRepository's
+ * atomic increments and the view counter flush, never through this entity.
+ */
+@Entity
+@Immutable
+@Table(name = "dealer_stats")
+@Getter
+@NoArgsConstructor
+public class DealerStats {
+
+    @Id
+    @Column(name = "dealer_id")
+    private Long dealerId;
+
+    private long activeListings;
+
+    private long totalListings;
+
+    private long totalViews;
+
+    private long messages;
+
+    private long favorites;
+}
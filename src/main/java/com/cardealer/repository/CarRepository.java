@@ -1,48 +1,33 @@
 package com.cardealer.repository;
 
 import com.cardealer.model.Car;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CarRepository extends JpaRepository<Car, Long>, JpaSpecificationExecutor<Car> {
     
-    // Find cars by make
-    List<Car> findByMakeIgnoreCaseAndActiveTrue(String make);
-    
-    // Find cars by year
-    List<Car> findByYearAndActiveTrue(Integer year);
-    
-    // Find cars ordered by price ascending
-    List<Car> findAllByActiveTrueOrderByPriceAsc();
-    
-    // Find cars ordered by price descending
-    List<Car> findAllByActiveTrueOrderByPriceDesc();
-    
-    // Find cars ordered by year descending (newest first)
-    List<Car> findAllByActiveTrueOrderByYearDesc();
-    
     // Find active cars with pagination
     Page<Car> findByActiveTrue(Pageable pageable);
 
     List<Car> findAllByActiveTrue();
     
-    // Find cars by dealer ID ordered by creation date
-    List<Car> findByDealerIdOrderByCreatedAtDesc(Long dealerId);
-    
     // Find related cars (same brand, different ID, active)
     List<Car> findTop6ByMakeAndIdNotAndActiveTrue(String make, Long id);
     
-    // Find latest active cars
-    List<Car> findTop8ByActiveTrueOrderByCreatedAtDesc();
-
     @Query("SELECT DISTINCT c.make FROM Car c WHERE c.active = true ORDER BY c.make")
     List<String> findDistinctMakesByActiveTrue();
     
@@ -54,4 +39,58 @@ public interface CarRepository extends JpaRepository<Car, Long>, JpaSpecificatio
     // Sum views by dealer
     @Query("SELECT SUM(c.views) FROM Car c WHERE c.dealer.id = :dealerId")
     Long sumViewsByDealerId(@Param("dealerId") Long dealerId);
+
+    // Page version of a car detail: car, dealer and related cars update times (epoch millis),
+    // comment count (from car_review_stats) and latest comment time (idx_comments_car_keyset)
+    @Query(value = "SELECT CAST(EXTRACT(EPOCH FROM COALESCE(c.updated_at, c.created_at)) * 1000 AS BIGINT), " +
+        "CAST(EXTRACT(EPOCH FROM COALESCE(d.updated_at, d.created_at)) * 1000 AS BIGINT), " +
+        "(SELECT CAST(EXTRACT(EPOCH FROM MAX(COALESCE(r.updated_at, r.created_at))) * 1000 AS BIGINT) " +
+        "FROM cars r WHERE r.id IN (:relatedIds)), " +
+        "COALESCE((SELECT s.comment_count FROM car_review_stats s WHERE s.car_id = c.id), 0), " +
+        "(SELECT CAST(EXTRACT(EPOCH FROM MAX(m.created_at)) * 1000 AS BIGINT) FROM comments m WHERE m.car_id = c.id) " +
+        "FROM cars c LEFT JOIN dealers d ON d.id = c.dealer_id WHERE c.id = :carId", nativeQuery = true)
+    List<Object[]> findDetailVersion(@Param("carId") Long carId, @Param("relatedIds") Collection<Long> relatedIds);
+
+    // Compare table: specs, first image and the trigger-maintained feature set of several cars,
+    // features joined with the unit separator
+    @Query(value = "SELECT c.id, c.make, c.model, c.car_year, c.price, c.mileage, c.color, c.fuel_type, " +
+        "c.transmission, c.body_type, c.\"condition\", c.engine, c.doors, " +
+        "(SELECT ci.image_url FROM car_images ci WHERE ci.car_id = c.id LIMIT 1), " +
+        "array_to_string(c.feature_set, chr(31)) " +
+        "FROM cars c WHERE c.id IN (:ids)", nativeQuery = true)
+    List<Object[]> findCompareRows(@Param("ids") Collection<Long> ids);
+
+    // Latest listings of a dealer, active or not: id, make, model, price, mileage, car_year,
+    // views, active, created_at, first image (idx_cars_dealer_created)
+    @Query(value = "SELECT c.id, c.make, c.model, c.price, c.mileage, c.car_year, c.views, c.active, c.created_at, " +
+        "(SELECT ci.image_url FROM car_images ci WHERE ci.car_id = c.id LIMIT 1) " +
+        "FROM cars c WHERE c.dealer_id = :dealerId ORDER BY c.created_at DESC, c.id DESC LIMIT :limit",
+        nativeQuery = true)
+    List<Object[]> findRecentListingRows(@Param("dealerId") Long dealerId, @Param("limit") int limit);
+
+    // Bulk listing operations: ownership check, then one set-based UPDATE each. The cars
+    // query space invalidates the Car cache region once; the persistence context is cleared
+    // so later reads in the transaction see the new rows.
+
+    @Query("SELECT COUNT(c) FROM Car c WHERE c.dealer.id = :dealerId AND c.id IN :ids")
+    long countByDealerIdAndIdIn(@Param("dealerId") Long dealerId, @Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "cars"))
+    @Query(value = "UPDATE cars SET active = :active, updated_at = CURRENT_TIMESTAMP " +
+        "WHERE dealer_id = :dealerId AND id IN (:ids) AND active IS DISTINCT FROM :active", nativeQuery = true)
+    int updateActive(@Param("dealerId") Long dealerId, @Param("ids") Collection<Long> ids, @Param("active") boolean active);
+
+    // Cars whose adjusted price would fall outside DECIMAL(10,2) or not be positive
+    @Query(value = "SELECT COUNT(*) FROM cars WHERE dealer_id = :dealerId AND id IN (:ids) " +
+        "AND ROUND(price * :factor + :amount, 2) NOT BETWEEN 0.01 AND 99999999.99", nativeQuery = true)
+    long countInvalidAdjustedPrices(@Param("dealerId") Long dealerId, @Param("ids") Collection<Long> ids,
+                                    @Param("factor") BigDecimal factor, @Param("amount") BigDecimal amount);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "cars"))
+    @Query(value = "UPDATE cars SET price = ROUND(price * :factor + :amount, 2), updated_at = CURRENT_TIMESTAMP " +
+        "WHERE dealer_id = :dealerId AND id IN (:ids)", nativeQuery = true)
+    int adjustPrices(@Param("dealerId") Long dealerId, @Param("ids") Collection<Long> ids,
+                     @Param("factor") BigDecimal factor, @Param("amount") BigDecimal amount);
 }
@@ -0,0 +1,37 @@
+package com.cardealer.repository;
+
+import com.cardealer.model.CarReviewStats;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CarReviewStatsRepository extends JpaRepository<CarReviewStats, Long> {
+
+    /**
+     * Add delta (1 or -1) comments to a car's aggregates; rating is 1 to 5, or 0 for a
+     * comment without rating. A single upsert, so concurrent comments on the same car
+     * serialize on its row instead of losing updates.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "car_review_stats"))
+    @Query(value = "INSERT INTO car_review_stats AS s (car_id, comment_count, rating_count, rating_sum, " +
+        "rating_1, rating_2, rating_3, rating_4, rating_5) " +
+        "VALUES (:carId, :delta, CASE WHEN :rating > 0 THEN :delta ELSE 0 END, :delta * :rating, " +
+        "CASE WHEN :rating = 1 THEN :delta ELSE 0 END, CASE WHEN :rating = 2 THEN :delta ELSE 0 END, " +
+        "CASE WHEN :rating = 3 THEN :delta ELSE 0 END, CASE WHEN :rating = 4 THEN :delta ELSE 0 END, " +
+        "CASE WHEN :rating = 5 THEN :delta ELSE 0 END) " +
+        "ON CONFLICT (car_id) DO UPDATE SET " +
+        "comment_count = s.comment_count + EXCLUDED.comment_count, " +
+        "rating_count = s.rating_count + EXCLUDED.rating_count, " +
+        "rating_sum = s.rating_sum + EXCLUDED.rating_sum, " +
+        "rating_1 = s.rating_1 + EXCLUDED.rating_1, rating_2 = s.rating_2 + EXCLUDED.rating_2, " +
+        "rating_3 = s.rating_3 + EXCLUDED.rating_3, rating_4 = s.rating_4 + EXCLUDED.rating_4, " +
+        "rating_5 = s.rating_5 + EXCLUDED.rating_5", nativeQuery = true)
+    void apply(@Param("carId") Long carId, @Param("delta") int delta, @Param("rating") int rating);
+}
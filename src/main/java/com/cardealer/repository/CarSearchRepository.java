@@ -0,0 +1,75 @@
+package com.cardealer.repository;
+
+import com.cardealer.model.CarSearch;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reads and set-based maintenance of the car_search read model.
+ * Rows are rebuilt from cars, car_images and dealers; callers flush pending entity
+ * changes first so the source rows (and their trigger-maintained columns) are current.
+ * The native writes declare car_search as their only query space; otherwise Hibernate
+ * would drop every second-level cache region on each execution.
+ */
+@Repository
+public interface CarSearchRepository extends JpaRepository<CarSearch, Long>, JpaSpecificationExecutor<CarSearch> {
+
+    String INSERT_FROM_CARS =
+        "INSERT INTO car_search (car_id, dealer_id, make, model, car_year, price, mileage, fuel_type, transmission, " +
+        "body_type, \"condition\", description, primary_image, features, dealer_name, dealer_city, search_vector, created_at) " +
+        "SELECT c.id, c.dealer_id, c.make, c.model, c.car_year, c.price, c.mileage, c.fuel_type, c.transmission, " +
+        "c.body_type, c.\"condition\", c.description, " +
+        "(SELECT ci.image_url FROM car_images ci WHERE ci.car_id = c.id LIMIT 1), " +
+        "c.feature_set, d.name, d.city, c.search_vector, c.created_at " +
+        "FROM cars c LEFT JOIN dealers d ON d.id = c.dealer_id " +
+        "WHERE c.active = true ";
+
+    // Latest active cars (home page)
+    List<CarSearch> findTop8ByOrderByCreatedAtDescIdDesc();
+
+    // Active cars of a dealer (public dealer page)
+    List<CarSearch> findByDealerIdOrderByCreatedAtDescIdDesc(Long dealerId);
+
+    // Other active cars of the same make (related cars)
+    List<CarSearch> findTop6ByMakeAndIdNotOrderByCreatedAtDesc(String make, Long id);
+
+    @Query("SELECT DISTINCT s.make FROM CarSearch s ORDER BY s.make")
+    List<String> findDistinctMakes();
+
+    // Id, make and model of active cars (typeahead suggestion bootstrap)
+    @Query("SELECT s.id, s.make, s.model FROM CarSearch s")
+    List<Object[]> findMakesAndModels();
+
+    // Distinct features of active cars (filter vocabulary)
+    @Query(value = "SELECT DISTINCT unnest(features) AS feature FROM car_search ORDER BY feature", nativeQuery = true)
+    List<String> findDistinctFeatures();
+
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "car_search"))
+    @Query(value = "DELETE FROM car_search WHERE car_id IN (:carIds)", nativeQuery = true)
+    void deleteByCarIds(@Param("carIds") Collection<Long> carIds);
+
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "car_search"))
+    @Query(value = INSERT_FROM_CARS + "AND c.id IN (:carIds)", nativeQuery = true)
+    void insertFromCars(@Param("carIds") Collection<Long> carIds);
+
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "car_search"))
+    @Query(value = "UPDATE car_search SET dealer_name = :name, dealer_city = :city WHERE dealer_id = :dealerId", nativeQuery = true)
+    int updateDealer(@Param("dealerId") Long dealerId, @Param("name") String name, @Param("city") String city);
+}
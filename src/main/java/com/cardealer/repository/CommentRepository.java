@@ -1,15 +1,30 @@
 package com.cardealer.repository;
 
 import com.cardealer.model.Comment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findByCarIdOrderByCreatedAtDesc(Long carId);
-    Long countByCarId(Long carId);
-}
-
+    // Newest comments of a car (first keyset page); authors are fetched with them
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT c FROM Comment c WHERE c.car.id = :carId ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findLatestByCarId(@Param("carId") Long carId, Pageable limit);
 
+    // Comments of a car older than the (createdAt, id) position of a cursor
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT c FROM Comment c WHERE c.car.id = :carId " +
+           "AND (c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id)) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findOlderByCarId(@Param("carId") Long carId,
+                                   @Param("createdAt") LocalDateTime createdAt,
+                                   @Param("id") Long id,
+                                   Pageable limit);
+}
@@ -0,0 +1,65 @@
+package com.cardealer.repository;
+
+import com.cardealer.model.DealerDirectoryEntry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reads and set-based maintenance of the dealer_directory read model.
+ * Rows are rebuilt from dealers and cars; callers flush pending entity changes first.
+ * The native writes declare dealer_directory as their only query space, like those of
+ * CarSearchRepository.
+ */
+@Repository
+public interface DealerDirectoryRepository extends JpaRepository<DealerDirectoryEntry, Long> {
+
+    @Query("SELECT d FROM DealerDirectoryEntry d WHERE lower(d.city) = lower(:city)")
+    Page<DealerDirectoryEntry> findByCity(@Param("city") String city, Pageable pageable);
+
+    @Query("SELECT DISTINCT d.city FROM DealerDirectoryEntry d WHERE d.city IS NOT NULL ORDER BY d.city")
+    List<String> findDistinctCities();
+
+    /**
+     * Insert or update the rows of the given active dealers; rows whose values did not
+     * change are left alone and not counted
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "dealer_directory"))
+    @Query(value = "INSERT INTO dealer_directory AS dd (dealer_id, name, email, phone, address, city, logo_url, " +
+        "active_listings, min_price, max_price, last_listing_at) " +
+        "SELECT d.id, d.name, d.email, d.phone, d.address, d.city, d.logo_url, " +
+        "COUNT(c.id), MIN(c.price), MAX(c.price), MAX(c.created_at) " +
+        "FROM dealers d LEFT JOIN cars c ON c.dealer_id = d.id AND c.active = true " +
+        "WHERE d.active = true AND d.id IN (:dealerIds) GROUP BY d.id " +
+        "ON CONFLICT (dealer_id) DO UPDATE SET name = EXCLUDED.name, email = EXCLUDED.email, " +
+        "phone = EXCLUDED.phone, address = EXCLUDED.address, city = EXCLUDED.city, logo_url = EXCLUDED.logo_url, " +
+        "active_listings = EXCLUDED.active_listings, min_price = EXCLUDED.min_price, " +
+        "max_price = EXCLUDED.max_price, last_listing_at = EXCLUDED.last_listing_at " +
+        "WHERE (dd.name, dd.email, dd.phone, dd.address, dd.city, dd.logo_url, dd.active_listings, " +
+        "dd.min_price, dd.max_price, dd.last_listing_at) IS DISTINCT FROM " +
+        "(EXCLUDED.name, EXCLUDED.email, EXCLUDED.phone, EXCLUDED.address, EXCLUDED.city, EXCLUDED.logo_url, " +
+        "EXCLUDED.active_listings, EXCLUDED.min_price, EXCLUDED.max_price, EXCLUDED.last_listing_at)",
+        nativeQuery = true)
+    int refresh(@Param("dealerIds") Collection<Long> dealerIds);
+
+    /**
+     * Remove the rows of the given dealers that are no longer active
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "dealer_directory"))
+    @Query(value = "DELETE FROM dealer_directory dd WHERE dd.dealer_id IN (:dealerIds) " +
+        "AND NOT EXISTS (SELECT 1 FROM dealers d WHERE d.id = dd.dealer_id AND d.active = true)",
+        nativeQuery = true)
+    int removeInactive(@Param("dealerIds") Collection<Long> dealerIds);
+}
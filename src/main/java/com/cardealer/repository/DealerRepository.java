@@ -2,6 +2,8 @@ package com.cardealer.repository;
 
 import com.cardealer.model.Dealer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,6 +14,14 @@ public interface DealerRepository extends JpaRepository<Dealer, Long> {
     Optional<Dealer> findByUserId(Long userId);
     Optional<Dealer> findByEmail(String email);
     List<Dealer> findByActiveTrue();
+
+    // Page version of a dealer profile: dealer and latest car update times (epoch millis), car count
+    @Query(value = "SELECT CAST(EXTRACT(EPOCH FROM COALESCE(d.updated_at, d.created_at)) * 1000 AS BIGINT), " +
+        "(SELECT CAST(EXTRACT(EPOCH FROM MAX(COALESCE(c.updated_at, c.created_at))) * 1000 AS BIGINT) " +
+        "FROM cars c WHERE c.dealer_id = d.id), " +
+        "(SELECT COUNT(*) FROM cars c WHERE c.dealer_id = d.id) " +
+        "FROM dealers d WHERE d.id = :dealerId", nativeQuery = true)
+    List<Object[]> findPageVersion(@Param("dealerId") Long dealerId);
 }
 
 
@@ -0,0 +1,48 @@
+package com.cardealer.repository;
+
+import com.cardealer.model.DealerStats;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Each increment is a single upsert, so concurrent writers serialize on the dealer's row
+ * instead of losing updates
+ */
+@Repository
+public interface DealerStatsRepository extends JpaRepository<DealerStats, Long> {
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "dealer_stats"))
+    @Query(value = "INSERT INTO dealer_stats AS s (dealer_id, total_listings, active_listings) " +
+        "VALUES (:dealerId, :total, :active) " +
+        "ON CONFLICT (dealer_id) DO UPDATE SET " +
+        "total_listings = s.total_listings + EXCLUDED.total_listings, " +
+        "active_listings = s.active_listings + EXCLUDED.active_listings", nativeQuery = true)
+    void addListings(@Param("dealerId") Long dealerId, @Param("total") long total, @Param("active") long active);
+
+    /**
+     * Add delta messages to the dealer of a car
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "dealer_stats"))
+    @Query(value = "INSERT INTO dealer_stats AS s (dealer_id, messages) " +
+        "SELECT c.dealer_id, :delta FROM cars c WHERE c.id = :carId AND c.dealer_id IS NOT NULL " +
+        "ON CONFLICT (dealer_id) DO UPDATE SET messages = s.messages + EXCLUDED.messages", nativeQuery = true)
+    void addMessages(@Param("carId") Long carId, @Param("delta") long delta);
+
+    /**
+     * Add delta favourites to the dealer of a car
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "dealer_stats"))
+    @Query(value = "INSERT INTO dealer_stats AS s (dealer_id, favorites) " +
+        "SELECT c.dealer_id, :delta FROM cars c WHERE c.id = :carId AND c.dealer_id IS NOT NULL " +
+        "ON CONFLICT (dealer_id) DO UPDATE SET favorites = s.favorites + EXCLUDED.favorites", nativeQuery = true)
+    void addFavorites(@Param("carId") Long carId, @Param("delta") long delta);
+}
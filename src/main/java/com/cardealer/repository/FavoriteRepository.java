@@ -4,6 +4,9 @@ import com.cardealer.model.Favorite;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,6 +18,10 @@ public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
     Page<Favorite> findByUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
     Optional<Favorite> findByUserIdAndCarId(Long userId, Long carId);
     Boolean existsByUserIdAndCarId(Long userId, Long carId);
-    void deleteByUserIdAndCarId(Long userId, Long carId);
+
+    // One statement, so concurrent removals of the same favourite delete (and count) it once
+    @Modifying
+    @Query("DELETE FROM Favorite f WHERE f.user.id = :userId AND f.car.id = :carId")
+    int deleteByUserIdAndCarId(@Param("userId") Long userId, @Param("carId") Long carId);
 }
 
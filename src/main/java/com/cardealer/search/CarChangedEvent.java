@@ -0,0 +1,14 @@
+package com.cardealer.search;
+
+/**
+ * Published by CarService whenever a car is created, updated, deactivated or reactivated.
+ * {@code before} is the state prior to the change, or null for a new car (or when the
+ * previous state is unknown); {@code after} is the committed state.
+ * Listeners should react after commit so they never see rolled-back changes.
+ */
+public record CarChangedEvent(CarSnapshot before, CarSnapshot after) {
+
+    public long carId() {
+        return after.id();
+    }
+}
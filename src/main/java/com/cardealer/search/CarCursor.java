@@ -0,0 +1,111 @@
+package com.cardealer.search;
+
+import com.cardealer.dto.CarCard;
+import com.cardealer.dto.ListingSummary;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position in a keyset-paginated listing: the sort value and id of a boundary row.
+ * A forward cursor points after the last row of a page, a backward cursor before the first.
+ * Encoded as an opaque URL-safe token so clients cannot depend on its layout.
+ */
+public record CarCursor(CarSortKey sortKey, boolean backward, String value, long id) {
+
+    private static final String VERSION = "1";
+    private static final String SEPARATOR = "~";
+
+    public static CarCursor after(CarSortKey sortKey, CarCard car) {
+        return new CarCursor(sortKey, false, rawValue(sortKey, car), car.getId());
+    }
+
+    public static CarCursor before(CarSortKey sortKey, CarCard car) {
+        return new CarCursor(sortKey, true, rawValue(sortKey, car), car.getId());
+    }
+
+    public static CarCursor after(CarSortKey sortKey, ListingSummary listing) {
+        return new CarCursor(sortKey, false, rawValue(sortKey, listing), listing.getId());
+    }
+
+    public static CarCursor before(CarSortKey sortKey, ListingSummary listing) {
+        return new CarCursor(sortKey, true, rawValue(sortKey, listing), listing.getId());
+    }
+
+    public String encode() {
+        String raw = String.join(SEPARATOR, VERSION, sortKey.getParam(), backward ? "b" : "a", value, Long.toString(id));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor token; it must have been issued for the given sort order
+     */
+    public static CarCursor decode(String token, CarSortKey expectedSort) {
+        CarCursor cursor;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, -1);
+            if (parts.length != 5 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Unexpected cursor layout");
+            }
+            cursor = new CarCursor(CarSortKey.fromParam(parts[1]), "b".equals(parts[2]), parts[3], Long.parseLong(parts[4]));
+            // Fail early on a malformed sort value
+            cursor.jpaValue();
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor de paginación no válido", e);
+        }
+        if (cursor.sortKey() != expectedSort) {
+            throw new IllegalArgumentException("El cursor de paginación no corresponde a la ordenación actual");
+        }
+        return cursor;
+    }
+
+    /**
+     * Sort value typed like the Car attribute, for criteria predicates
+     */
+    public Comparable<?> jpaValue() {
+        return switch (sortKey) {
+            case PRICE_ASC, PRICE_DESC -> new BigDecimal(value);
+            case DATE_DESC -> LocalDateTime.parse(value);
+            case MILEAGE_ASC, YEAR_DESC -> Integer.valueOf(value);
+        };
+    }
+
+    /**
+     * Sort value in the units of the inventory index columns
+     */
+    public long indexValue() {
+        return switch (sortKey) {
+            case PRICE_ASC, PRICE_DESC -> InventoryIndex.toCents(new BigDecimal(value));
+            case DATE_DESC -> InventoryIndex.epochMicros(LocalDateTime.parse(value));
+            case MILEAGE_ASC, YEAR_DESC -> Integer.parseInt(value);
+        };
+    }
+
+    private static String rawValue(CarSortKey sortKey, CarCard car) {
+        return rawValue(sortKey, car.getPrice(), car.getCreatedAt(), car.getMileage(), car.getYear());
+    }
+
+    private static String rawValue(CarSortKey sortKey, ListingSummary listing) {
+        return rawValue(sortKey, listing.getPrice(), listing.getCreatedAt(), listing.getMileage(), listing.getYear());
+    }
+
+    /**
+     * Every sort column is NOT NULL, so a missing value is a bug rather than a position to encode
+     */
+    private static String rawValue(CarSortKey sortKey, BigDecimal price, LocalDateTime createdAt,
+                                   Integer mileage, Integer year) {
+        Object value = switch (sortKey) {
+            case PRICE_ASC, PRICE_DESC -> price != null ? price.toPlainString() : null;
+            case DATE_DESC -> createdAt;
+            case MILEAGE_ASC -> mileage;
+            case YEAR_DESC -> year;
+        };
+        if (value == null) {
+            throw new IllegalStateException("Listing without a value for sort " + sortKey.getParam());
+        }
+        return value.toString();
+    }
+}
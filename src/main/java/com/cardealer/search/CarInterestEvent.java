@@ -0,0 +1,9 @@
+package com.cardealer.search;
+
+/**
+ * Published by FavoriteService and MessageService when a user favourites a car or sends a
+ * message about it. TrendingScores credits it after commit; {@code userId} (null when
+ * unknown) lets a favourite count once per user.
+ */
+public record CarInterestEvent(Long carId, TrendingScores.Signal signal, Long userId) {
+}
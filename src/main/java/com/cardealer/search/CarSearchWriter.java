@@ -0,0 +1,45 @@
+package com.cardealer.search;
+
+import com.cardealer.repository.CarRepository;
+import com.cardealer.repository.CarSearchRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Keeps the car_search read model in step with the cars table.
+ * Runs inside the write transaction (unlike the after-commit listeners) so the read model
+ * commits or rolls back together with the change that caused it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CarSearchWriter {
+
+    private final CarRepository carRepository;
+    private final CarSearchRepository carSearchRepository;
+
+    @EventListener
+    public void onCarChanged(CarChangedEvent event) {
+        refresh(List.of(event.carId()));
+    }
+
+    /**
+     * Rebuild the read model rows of the given cars: active cars are (re)inserted,
+     * inactive ones disappear
+     */
+    public void refresh(Collection<Long> carIds) {
+        if (carIds.isEmpty()) {
+            return;
+        }
+        // Push pending entity, image and feature changes to the source tables first
+        carRepository.flush();
+        carSearchRepository.deleteByCarIds(carIds);
+        carSearchRepository.insertFromCars(carIds);
+        log.debug("Refreshed car_search rows for {} cars", carIds.size());
+    }
+}
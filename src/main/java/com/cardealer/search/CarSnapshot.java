@@ -0,0 +1,68 @@
+package com.cardealer.search;
+
+import com.cardealer.model.Car;
+import com.cardealer.model.CarSearch;
+import com.cardealer.model.enums.BodyType;
+import com.cardealer.model.enums.CarCondition;
+import com.cardealer.model.enums.FuelType;
+import com.cardealer.model.enums.TransmissionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Immutable copy of the searchable columns of a car, taken inside the write transaction
+ * so in-memory indexes can be updated after commit without touching the entity again.
+ */
+public record CarSnapshot(long id, Long dealerId, boolean active, String make, String model,
+                          FuelType fuelType, TransmissionType transmission, BodyType bodyType,
+                          CarCondition condition, List<String> features, BigDecimal price,
+                          int year, int mileage, LocalDateTime createdAt) {
+
+    public static CarSnapshot of(Car car) {
+        return new CarSnapshot(
+            car.getId(),
+            car.getDealer() != null ? car.getDealer().getId() : null,
+            Boolean.TRUE.equals(car.getActive()),
+            car.getMake(),
+            car.getModel(),
+            car.getFuelType(),
+            car.getTransmission(),
+            car.getBodyType(),
+            car.getCondition(),
+            car.getFeatures() != null ? List.copyOf(car.getFeatures()) : List.of(),
+            car.getPrice(),
+            car.getYear() != null ? car.getYear() : 0,
+            car.getMileage() != null ? car.getMileage() : 0,
+            car.getCreatedAt()
+        );
+    }
+
+    /**
+     * The same car with another active flag
+     */
+    public CarSnapshot withActive(boolean active) {
+        return new CarSnapshot(id, dealerId, active, make, model, fuelType, transmission, bodyType,
+            condition, features, price, year, mileage, createdAt);
+    }
+
+    public static CarSnapshot of(CarSearch car) {
+        return new CarSnapshot(
+            car.getId(),
+            car.getDealerId(),
+            true,
+            car.getMake(),
+            car.getModel(),
+            car.getFuelType(),
+            car.getTransmission(),
+            car.getBodyType(),
+            car.getCondition(),
+            car.getFeatureSet() != null ? List.of(car.getFeatureSet()) : List.of(),
+            car.getPrice(),
+            car.getYear() != null ? car.getYear() : 0,
+            car.getMileage() != null ? car.getMileage() : 0,
+            car.getCreatedAt()
+        );
+    }
+}
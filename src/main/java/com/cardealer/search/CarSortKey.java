@@ -0,0 +1,53 @@
+package com.cardealer.search;
+
+/**
+ * Sort orders supported by the public inventory listing.
+ * Every key breaks ties by car id in the same direction as the primary column,
+ * so the resulting order is total and stable across requests.
+ */
+public enum CarSortKey {
+    PRICE_ASC("price_asc", "price", true),
+    PRICE_DESC("price_desc", "price", false),
+    DATE_DESC("date_desc", "createdAt", false),
+    MILEAGE_ASC("mileage_asc", "mileage", true),
+    YEAR_DESC("year_desc", "year", false);
+
+    private final String param;
+    private final String property;
+    private final boolean ascending;
+
+    CarSortKey(String param, String property, boolean ascending) {
+        this.param = param;
+        this.property = property;
+        this.ascending = ascending;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    /**
+     * Car entity attribute the key sorts on
+     */
+    public String getProperty() {
+        return property;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    /**
+     * Resolve the sortBy request parameter, defaulting to newest first
+     */
+    public static CarSortKey fromParam(String sortBy) {
+        if (sortBy != null) {
+            for (CarSortKey key : values()) {
+                if (key.param.equalsIgnoreCase(sortBy)) {
+                    return key;
+                }
+            }
+        }
+        return DATE_DESC;
+    }
+}
@@ -0,0 +1,17 @@
+package com.cardealer.search;
+
+import java.util.List;
+
+/**
+ * Published once by a bulk car operation (deactivate, reactivate or reprice a selection,
+ * or a batch of an inventory import) instead of one {@link CarChangedEvent} per car, so
+ * caches and in-memory indexes are invalidated once per operation. Only cars whose state
+ * actually changed are included; imported cars have no {@code before}.
+ * The publisher has already refreshed car_search for these cars.
+ */
+public record CarsChangedEvent(List<CarChangedEvent> changes) {
+
+    public List<Long> carIds() {
+        return changes.stream().map(CarChangedEvent::carId).toList();
+    }
+}
@@ -0,0 +1,9 @@
+package com.cardealer.search;
+
+/**
+ * Published by DealerService when a dealer is created, activated or deactivated, or its
+ * profile changes. Listing cards show the dealer name and city, so listeners that version
+ * listings react to it like to a car change.
+ */
+public record DealerChangedEvent(Long dealerId) {
+}
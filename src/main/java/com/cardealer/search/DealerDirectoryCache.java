@@ -0,0 +1,71 @@
+package com.cardealer.search;
+
+import com.cardealer.dto.DealerDirectoryPage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded LRU cache of dealer directory pages (plain DTOs, never entities) and of the city
+ * list. Cleared after a commit that changed the directory; like SearchResultCache, a page
+ * computed while a clear ran is not stored.
+ */
+@Component
+public class DealerDirectoryCache {
+
+    /**
+     * Cache key: normalized filters and the requested page
+     */
+    public record Key(String city, String sortBy, int page, int size) {
+    }
+
+    private final Map<Key, DealerDirectoryPage> entries;
+    private List<String> cities;
+    private long generation;
+
+    public DealerDirectoryCache(@Value("${dealers.directory-cache.max-entries:200}") int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, DealerDirectoryPage> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized Optional<DealerDirectoryPage> get(Key key) {
+        return Optional.ofNullable(entries.get(key));
+    }
+
+    public synchronized Optional<List<String>> cities() {
+        return Optional.ofNullable(cities);
+    }
+
+    /**
+     * Clear counter; read it before running the query whose result will be stored
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized void put(Key key, DealerDirectoryPage page, long seenGeneration) {
+        if (generation == seenGeneration) {
+            entries.put(key, page);
+        }
+    }
+
+    public synchronized void putCities(List<String> cities, long seenGeneration) {
+        if (generation == seenGeneration) {
+            this.cities = List.copyOf(cities);
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        cities = null;
+        generation++;
+    }
+}
@@ -0,0 +1,82 @@
+package com.cardealer.search;
+
+import com.cardealer.repository.DealerDirectoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Keeps the dealer_directory read model in step with dealer and car writes.
+ * Runs inside the write transaction, like CarSearchWriter; the directory page cache is only
+ * cleared after a commit that actually changed a directory row, so edits that leave the
+ * count, price range and newest listing of a dealer as they were do not invalidate it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DealerDirectoryWriter {
+
+    private final DealerDirectoryRepository dealerDirectoryRepository;
+    private final DealerDirectoryCache directoryCache;
+
+    @EventListener
+    public void onCarChanged(CarChangedEvent event) {
+        Set<Long> dealerIds = new HashSet<>();
+        if (event.before() != null) {
+            dealerIds.add(event.before().dealerId());
+        }
+        dealerIds.add(event.after().dealerId());
+        refresh(dealerIds);
+    }
+
+    @EventListener
+    public void onCarsChanged(CarsChangedEvent event) {
+        refresh(event.changes().stream().map(change -> change.after().dealerId()).toList());
+    }
+
+    @EventListener
+    public void onDealerChanged(DealerChangedEvent event) {
+        refresh(List.of(event.dealerId()));
+    }
+
+    /**
+     * Rebuild the directory rows of the given dealers: active dealers are inserted or
+     * updated, inactive ones disappear
+     */
+    public void refresh(Collection<Long> dealerIds) {
+        Set<Long> ids = new HashSet<>(dealerIds);
+        ids.removeIf(Objects::isNull);
+        if (ids.isEmpty()) {
+            return;
+        }
+        // Push pending dealer and car changes to the source tables first
+        dealerDirectoryRepository.flush();
+        int changed = dealerDirectoryRepository.refresh(ids) + dealerDirectoryRepository.removeInactive(ids);
+        if (changed > 0) {
+            log.debug("Refreshed dealer_directory rows of {} dealers", changed);
+            clearAfterCommit();
+        }
+    }
+
+    private void clearAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            directoryCache.clear();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                directoryCache.clear();
+            }
+        });
+    }
+}
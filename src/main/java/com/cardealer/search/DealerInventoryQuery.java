@@ -0,0 +1,135 @@
+package com.cardealer.search;
+
+import com.cardealer.dto.DealerListingFilter;
+import com.cardealer.dto.ListingSummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keyset-paginated query over one dealer's inventory, active and inactive cars alike.
+ * A single statement returns the page (as listing rows, no entities) together with the
+ * number of active and inactive listings matching the brand and price filters; the page
+ * walks idx_cars_dealer_active_created (or idx_cars_dealer_created for both statuses)
+ * from the cursor instead of skipping rows.
+ */
+@Component
+@RequiredArgsConstructor
+public class DealerInventoryQuery {
+
+    private static final String COLUMNS =
+        "c.id, c.make, c.model, c.price, c.mileage, c.car_year, c.views, c.active, c.created_at, " +
+        "(SELECT ci.image_url FROM car_images ci WHERE ci.car_id = c.id LIMIT 1) AS image";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Up to {@code limit} listings that follow (or precede, for a backward cursor) the cursor
+     * in display order, and the per-status counts
+     */
+    public record Result(List<ListingSummary> rows, long activeCount, long inactiveCount) {
+    }
+
+    public Result find(Long dealerId, DealerListingFilter filter, CarSortKey sortKey, CarCursor cursor, int limit) {
+        // The seek compares the cursor value with the sort column; a value of another column cannot be used
+        if (cursor != null && cursor.sortKey() != sortKey) {
+            throw new IllegalArgumentException("El cursor de paginación no corresponde a la ordenación actual");
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("dealerId", dealerId)
+            .addValue("limit", limit);
+
+        StringBuilder where = new StringBuilder("c.dealer_id = :dealerId");
+        if (filter.getBrand() != null && !filter.getBrand().isBlank()) {
+            where.append(" AND c.make = :brand");
+            params.addValue("brand", filter.getBrand().trim());
+        }
+        if (filter.getMinPrice() != null) {
+            where.append(" AND c.price >= :minPrice");
+            params.addValue("minPrice", filter.getMinPrice());
+        }
+        if (filter.getMaxPrice() != null) {
+            where.append(" AND c.price <= :maxPrice");
+            params.addValue("maxPrice", filter.getMaxPrice());
+        }
+
+        StringBuilder pageWhere = new StringBuilder(where);
+        Boolean active = parseStatus(filter.getStatus());
+        if (active != null) {
+            pageWhere.append(" AND c.active = :active");
+            params.addValue("active", active);
+        }
+        boolean backward = cursor != null && cursor.backward();
+        String column = column(sortKey);
+        if (cursor != null) {
+            boolean greater = sortKey.isAscending() != backward;
+            pageWhere.append(" AND (c.").append(column).append(", c.id) ")
+                .append(greater ? ">" : "<").append(" (:seekValue, :seekId)");
+            params.addValue("seekValue", cursor.jpaValue());
+            params.addValue("seekId", cursor.id());
+        }
+        // Backward pages are read in reverse order from the cursor and flipped afterwards
+        String direction = sortKey.isAscending() != backward ? "ASC" : "DESC";
+
+        String sql = "SELECT k.active_count, k.inactive_count, p.* FROM " +
+            "(SELECT COUNT(*) FILTER (WHERE c.active) AS active_count, " +
+            "COUNT(*) FILTER (WHERE NOT c.active) AS inactive_count FROM cars c WHERE " + where + ") k " +
+            "LEFT JOIN (SELECT " + COLUMNS + " FROM cars c WHERE " + pageWhere +
+            " ORDER BY c." + column + " " + direction + ", c.id " + direction + " LIMIT :limit) p ON TRUE " +
+            "ORDER BY p." + column + " " + direction + ", p.id " + direction;
+
+        List<ListingSummary> rows = new ArrayList<>(limit);
+        long[] counts = new long[2];
+        jdbcTemplate.query(sql, params, rs -> {
+            counts[0] = rs.getLong("active_count");
+            counts[1] = rs.getLong("inactive_count");
+            // An empty page still returns the counts row, with null listing columns
+            if (rs.getObject("id") != null) {
+                rows.add(new ListingSummary(
+                    rs.getLong("id"),
+                    rs.getString("make"),
+                    rs.getString("model"),
+                    rs.getBigDecimal("price"),
+                    rs.getObject("mileage", Integer.class),
+                    rs.getObject("car_year", Integer.class),
+                    rs.getInt("views"),
+                    rs.getBoolean("active"),
+                    rs.getObject("created_at", LocalDateTime.class),
+                    rs.getString("image")
+                ));
+            }
+        });
+        if (backward) {
+            Collections.reverse(rows);
+        }
+        return new Result(rows, counts[0], counts[1]);
+    }
+
+    private static String column(CarSortKey sortKey) {
+        return switch (sortKey) {
+            case PRICE_ASC, PRICE_DESC -> "price";
+            case DATE_DESC -> "created_at";
+            case MILEAGE_ASC -> "mileage";
+            case YEAR_DESC -> "car_year";
+        };
+    }
+
+    /**
+     * "active" or "inactive"; anything else shows both
+     */
+    private static Boolean parseStatus(String status) {
+        if ("active".equalsIgnoreCase(status)) {
+            return true;
+        }
+        if ("inactive".equalsIgnoreCase(status)) {
+            return false;
+        }
+        return null;
+    }
+}
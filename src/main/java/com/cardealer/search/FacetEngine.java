@@ -0,0 +1,172 @@
+package com.cardealer.search;
+
+import com.cardealer.dto.CarFilterDTO;
+import com.cardealer.dto.FacetCounts;
+import com.cardealer.model.Car;
+import com.cardealer.model.CarSearch;
+import com.cardealer.model.enums.BodyType;
+import com.cardealer.model.enums.CarCondition;
+import com.cardealer.model.enums.FuelType;
+import com.cardealer.model.enums.TransmissionType;
+import com.cardealer.specification.CarSpecification;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Facet counts for the inventory filter sidebar.
+ * <p>
+ * Brand, fuel type, transmission, body type and condition are counted under every
+ * filter except the dimension's own selection, so shoppers see how many cars each
+ * alternative would give. Features are counted under all filters.
+ * Answered from the {@link InventoryIndex} when it can serve the filters; otherwise
+ * with one grouped query for the single-valued dimensions and one for the features, both
+ * filtered by CarSpecification.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FacetEngine {
+
+    private final InventoryIndex inventoryIndex;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${search.full-text.enabled:true}")
+    private boolean fullTextSearch;
+
+    public FacetCounts countFacets(CarFilterDTO filters) {
+        FacetCounts facets = inventoryIndex.facets(filters).orElseGet(() -> countWithQueries(filters));
+
+        // Selected values are always listed so they can be unchecked
+        if (filters.getBrands() != null) {
+            filters.getBrands().forEach(brand -> facets.getBrands().putIfAbsent(brand, 0L));
+        }
+        if (filters.getFeatures() != null) {
+            filters.getFeatures().forEach(feature -> facets.getFeatures().putIfAbsent(feature, 0L));
+        }
+        return facets;
+    }
+
+    private FacetCounts countWithQueries(CarFilterDTO filters) {
+        log.debug("Counting facets with grouped queries for filters: {}", filters);
+        FacetCounts facets = new FacetCounts();
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        // Single-valued dimensions: group by all of them with their own filters removed,
+        // then count each dimension from the rows that match the other selections
+        CarFilterDTO unselected = new CarFilterDTO();
+        unselected.setMinPrice(filters.getMinPrice());
+        unselected.setMaxPrice(filters.getMaxPrice());
+        unselected.setFeatures(filters.getFeatures());
+        unselected.setSearchText(filters.getSearchText());
+
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<CarSearch> root = query.from(CarSearch.class);
+        Path<String> make = root.get("make");
+        Path<FuelType> fuelType = root.get("fuelType");
+        Path<TransmissionType> transmission = root.get("transmission");
+        Path<BodyType> bodyType = root.get("bodyType");
+        Path<CarCondition> condition = root.get("condition");
+        query.multiselect(make, fuelType, transmission, bodyType, condition, cb.count(root));
+        query.where(CarSpecification.buildSpecification(unselected, fullTextSearch).toPredicate(root, query, cb));
+        query.groupBy(make, fuelType, transmission, bodyType, condition);
+
+        FuelType selectedFuel = parse(FuelType.class, filters.getFuelType());
+        TransmissionType selectedTransmission = parse(TransmissionType.class, filters.getTransmission());
+        BodyType selectedBody = parse(BodyType.class, filters.getBodyType());
+        CarCondition selectedCondition = parse(CarCondition.class, filters.getCondition());
+
+        for (Tuple row : entityManager.createQuery(query).getResultList()) {
+            String rowMake = row.get(0, String.class);
+            FuelType rowFuel = row.get(1, FuelType.class);
+            TransmissionType rowTransmission = row.get(2, TransmissionType.class);
+            BodyType rowBody = row.get(3, BodyType.class);
+            CarCondition rowCondition = row.get(4, CarCondition.class);
+            long count = row.get(5, Long.class);
+
+            boolean brandOk = filters.getBrands() == null || filters.getBrands().isEmpty()
+                || filters.getBrands().contains(rowMake);
+            boolean fuelOk = selectedFuel == null || selectedFuel == rowFuel;
+            boolean transmissionOk = selectedTransmission == null || selectedTransmission == rowTransmission;
+            boolean bodyOk = selectedBody == null || selectedBody == rowBody;
+            boolean conditionOk = selectedCondition == null || selectedCondition == rowCondition;
+
+            if (fuelOk && transmissionOk && bodyOk && conditionOk) {
+                add(facets.getBrands(), rowMake, count);
+            }
+            if (brandOk && transmissionOk && bodyOk && conditionOk) {
+                add(facets.getFuelTypes(), rowFuel, count);
+            }
+            if (brandOk && fuelOk && bodyOk && conditionOk) {
+                add(facets.getTransmissions(), rowTransmission, count);
+            }
+            if (brandOk && fuelOk && transmissionOk && conditionOk) {
+                add(facets.getBodyTypes(), rowBody, count);
+            }
+            if (brandOk && fuelOk && transmissionOk && bodyOk) {
+                add(facets.getConditions(), rowCondition, count);
+            }
+        }
+
+        countFeatures(filters, facets);
+        return facets;
+    }
+
+    /**
+     * Features of the cars matching every filter, counted by the database so only one row per
+     * distinct feature comes back. The matching ids come from the same CarSpecification as the
+     * listing; criteria queries cannot unnest the car_search array, so the features are read
+     * from car_features, the table that array is built from.
+     */
+    private void countFeatures(CarFilterDTO filters, FacetCounts facets) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Car> car = query.from(Car.class);
+        Join<Car, String> feature = car.join("features");
+
+        Subquery<Long> matching = query.subquery(Long.class);
+        Root<CarSearch> search = matching.from(CarSearch.class);
+        matching.select(search.get("id"))
+            .where(CarSpecification.buildSpecification(filters, fullTextSearch).toPredicate(search, query, cb));
+
+        query.multiselect(feature, cb.countDistinct(car));
+        query.where(car.get("id").in(matching));
+        query.groupBy(feature);
+
+        for (Tuple row : entityManager.createQuery(query).getResultList()) {
+            add(facets.getFeatures(), row.get(0, String.class), row.get(1, Long.class));
+        }
+    }
+
+    private static <K> void add(Map<K, Long> counts, K key, long count) {
+        if (key != null) {
+            counts.merge(key, count, Long::sum);
+        }
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            // Invalid value, ignore filter (same as CarSpecification)
+            return null;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.cardealer.search;
+
+import com.cardealer.dto.CarFilterDTO;
+import com.cardealer.model.enums.BodyType;
+import com.cardealer.model.enums.CarCondition;
+import com.cardealer.model.enums.FuelType;
+import com.cardealer.model.enums.TransmissionType;
+import com.cardealer.specification.CarSpecification;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Canonical, immutable form of a {@link CarFilterDTO}, usable as a cache key.
+ * <p>
+ * Brands and features are de-duplicated and sorted (they stay case-sensitive, like the
+ * SQL filters), enum filters are parsed so invalid values collapse to "no filter",
+ * the sort is resolved like the listing resolves it and search text is trimmed and lowercased.
+ * Two requests that the listing would answer identically get equal keys.
+ */
+public record FilterKey(SortedSet<String> brands, BigDecimal minPrice, BigDecimal maxPrice,
+                        TransmissionType transmission, FuelType fuelType, BodyType bodyType,
+                        CarCondition condition, SortedSet<String> features, String sortBy,
+                        String searchText) {
+
+    public static FilterKey of(CarFilterDTO filters) {
+        String searchText = filters.getSearchText() != null && !filters.getSearchText().isBlank()
+            ? filters.getSearchText().trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ")
+            : null;
+        // Relevance only orders results with search text; every other value resolves to a CarSortKey
+        String sortBy = searchText != null && CarSpecification.SORT_RELEVANCE.equalsIgnoreCase(filters.getSortBy())
+            ? CarSpecification.SORT_RELEVANCE
+            : CarSortKey.fromParam(filters.getSortBy()).getParam();
+        return new FilterKey(
+            sorted(filters.getBrands()),
+            strip(filters.getMinPrice()),
+            strip(filters.getMaxPrice()),
+            parse(TransmissionType.class, filters.getTransmission()),
+            parse(FuelType.class, filters.getFuelType()),
+            parse(BodyType.class, filters.getBodyType()),
+            parse(CarCondition.class, filters.getCondition()),
+            sorted(filters.getFeatures()),
+            sortBy,
+            searchText
+        );
+    }
+
+    /**
+     * Whether a car in the given state could be part of the result set.
+     * Search text cannot be evaluated in memory, so any car may match it.
+     */
+    public boolean mayMatch(CarSnapshot car) {
+        if (car == null || !car.active()) {
+            return false;
+        }
+        if (!brands.isEmpty() && !brands.contains(car.make())) {
+            return false;
+        }
+        if (minPrice != null && (car.price() == null || car.price().compareTo(minPrice) < 0)) {
+            return false;
+        }
+        if (maxPrice != null && (car.price() == null || car.price().compareTo(maxPrice) > 0)) {
+            return false;
+        }
+        if ((transmission != null && transmission != car.transmission())
+                || (fuelType != null && fuelType != car.fuelType())
+                || (bodyType != null && bodyType != car.bodyType())
+                || (condition != null && condition != car.condition())) {
+            return false;
+        }
+        return car.features().containsAll(features);
+    }
+
+    private static SortedSet<String> sorted(List<String> values) {
+        SortedSet<String> set = new TreeSet<>();
+        if (values != null) {
+            values.stream().filter(v -> v != null && !v.isEmpty()).forEach(set::add);
+        }
+        return Collections.unmodifiableSortedSet(set);
+    }
+
+    private static BigDecimal strip(BigDecimal amount) {
+        return amount != null ? amount.stripTrailingZeros() : null;
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            // Invalid value, ignored by the filters as well
+            return null;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.cardealer.search;
+
+import com.cardealer.dto.CarFilterDTO;
+import com.cardealer.model.CarSearch;
+import com.cardealer.specification.CarSpecification;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Row streams behind the inventory exports. Rows are plain values (no entities, so the
+ * persistence context stays empty) read from a server-side cursor {@value #FETCH_SIZE}
+ * rows at a time; callers must consume and close the stream inside a transaction.
+ */
+@Component
+public class InventoryExportQuery {
+
+    private static final int FETCH_SIZE = 500;
+
+    /**
+     * Columns of {@link #dealerCars(Long)} rows. The inventory import accepts them as a header,
+     * ignoring id, views, active and createdAt, so an export can be imported again.
+     */
+    public static final List<String> DEALER_COLUMNS = List.of(
+        "id", "brand", "model", "year", "price", "mileage", "fuelType", "transmission", "bodyType",
+        "condition", "color", "doors", "engine", "description", "features", "images", "views", "active", "createdAt");
+
+    /**
+     * Columns of {@link #searchResults(CarFilterDTO, int)} rows
+     */
+    public static final List<String> SEARCH_COLUMNS = List.of(
+        "id", "brand", "model", "year", "price", "mileage", "fuelType", "transmission", "bodyType",
+        "condition", "features", "image", "dealer", "city", "createdAt", "description");
+
+    private static final String DEALER_CARS_SQL =
+        "SELECT c.id, c.make, c.model, c.car_year, c.price, c.mileage, c.fuel_type, c.transmission, c.body_type, " +
+        "c.\"condition\", c.color, c.doors, c.engine, c.description, c.feature_set, " +
+        "ARRAY(SELECT ci.image_url FROM car_images ci WHERE ci.car_id = c.id) AS images, " +
+        "c.views, c.active, c.created_at " +
+        "FROM cars c WHERE c.dealer_id = ? ORDER BY c.created_at DESC, c.id DESC";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${search.full-text.enabled:true}")
+    private boolean fullTextSearch;
+
+    public InventoryExportQuery(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * All cars of a dealer, active and inactive, newest first
+     */
+    public Stream<Object[]> dealerCars(Long dealerId) {
+        return jdbcTemplate.queryForStream(connection -> {
+            PreparedStatement statement = connection.prepareStatement(DEALER_CARS_SQL);
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setLong(1, dealerId);
+            return statement;
+        }, (rs, rowNum) -> new Object[] {
+            rs.getLong("id"),
+            rs.getString("make"),
+            rs.getString("model"),
+            rs.getObject("car_year", Integer.class),
+            rs.getBigDecimal("price"),
+            rs.getObject("mileage", Integer.class),
+            rs.getString("fuel_type"),
+            rs.getString("transmission"),
+            rs.getString("body_type"),
+            rs.getString("condition"),
+            rs.getString("color"),
+            rs.getObject("doors", Integer.class),
+            rs.getString("engine"),
+            rs.getString("description"),
+            textArray(rs.getArray("feature_set")),
+            textArray(rs.getArray("images")),
+            rs.getInt("views"),
+            rs.getBoolean("active"),
+            rs.getObject("created_at", LocalDateTime.class)
+        });
+    }
+
+    /**
+     * The first maxRows active cars matching the filters, in the order of the listing
+     * (relevance, which only ranks the listing page, falls back to newest first)
+     */
+    public Stream<Object[]> searchResults(CarFilterDTO filters, int maxRows) {
+        CarSortKey sortKey = CarSortKey.fromParam(filters.getSortBy());
+        Specification<CarSearch> spec = CarSpecification.buildSpecification(filters, fullTextSearch);
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<CarSearch> root = query.from(CarSearch.class);
+        query.multiselect(
+            root.get("id"), root.get("make"), root.get("model"), root.get("year"), root.get("price"),
+            root.get("mileage"), root.get("fuelType"), root.get("transmission"), root.get("bodyType"),
+            root.get("condition"), root.get("featureSet"), root.get("primaryImage"), root.get("dealerName"),
+            root.get("dealerCity"), root.get("createdAt"), root.get("description"));
+        query.where(spec.toPredicate(root, query, cb));
+        query.orderBy(
+            sortKey.isAscending() ? cb.asc(root.get(sortKey.getProperty())) : cb.desc(root.get(sortKey.getProperty())),
+            sortKey.isAscending() ? cb.asc(root.get("id")) : cb.desc(root.get("id")));
+
+        return entityManager.createQuery(query)
+            .setMaxResults(maxRows)
+            .setHint(HibernateHints.HINT_FETCH_SIZE, Math.min(FETCH_SIZE, maxRows))
+            .setHint(HibernateHints.HINT_READ_ONLY, true)
+            .getResultStream();
+    }
+
+    private static String[] textArray(Array array) throws SQLException {
+        return array != null ? (String[]) array.getArray() : new String[0];
+    }
+}
@@ -0,0 +1,681 @@
+package com.cardealer.search;
+
+import com.cardealer.dto.CarFilterDTO;
+import com.cardealer.dto.FacetCounts;
+import com.cardealer.model.CarSearch;
+import com.cardealer.model.enums.BodyType;
+import com.cardealer.model.enums.CarCondition;
+import com.cardealer.model.enums.FuelType;
+import com.cardealer.model.enums.TransmissionType;
+import com.cardealer.repository.CarSearchRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongToDoubleFunction;
+
+/**
+ * In-process index over the active inventory.
+ * <p>
+ * Every indexed car gets a dense slot number. Categorical filters are kept as one
+ * bitmap per value (brand, fuel type, transmission, body type, condition, feature)
+ * and numeric columns as primitive arrays indexed by slot. For each sort key a slot
+ * array is kept in sorted order, so a page is answered by intersecting bitmaps and
+ * walking the sorted slots; only the ids on the page are hydrated from the database.
+ * <p>
+ * Free-text search is not indexed here: {@link #search} returns empty and the caller
+ * falls back to the JPA specification path.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InventoryIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final CarSearchRepository carSearchRepository;
+    private final SearchResultCache resultCache;
+
+    @Value("${inventory.index.enabled:true}")
+    private boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final BitSet freeSlots = new BitSet();
+    private int slotCount;
+
+    private CarSnapshot[] entries = new CarSnapshot[INITIAL_CAPACITY];
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] prices = new long[INITIAL_CAPACITY];
+    private int[] years = new int[INITIAL_CAPACITY];
+    private int[] mileages = new int[INITIAL_CAPACITY];
+    private long[] createdAt = new long[INITIAL_CAPACITY];
+
+    private final Map<String, BitSet> byBrand = new HashMap<>();
+    private final Map<FuelType, BitSet> byFuelType = new EnumMap<>(FuelType.class);
+    private final Map<TransmissionType, BitSet> byTransmission = new EnumMap<>(TransmissionType.class);
+    private final Map<BodyType, BitSet> byBodyType = new EnumMap<>(BodyType.class);
+    private final Map<CarCondition, BitSet> byCondition = new EnumMap<>(CarCondition.class);
+    private final Map<String, BitSet> byFeature = new HashMap<>();
+
+    private final Map<CarSortKey, SortedSlots> sorted = new EnumMap<>(CarSortKey.class);
+
+    private volatile boolean ready;
+
+    // Changes committed while a rebuild is loading, replayed over the loaded rows; guarded by lock
+    private List<CarSnapshot> changedDuringRebuild;
+
+    private enum Dimension {
+        BRAND, FUEL_TYPE, TRANSMISSION, BODY_TYPE, CONDITION
+    }
+
+    /**
+     * Ids of one page in display order plus the total number of matches
+     */
+    public record Hits(List<Long> ids, long total) {
+    }
+
+    private record ScoredSlot(int slot, double score) {
+    }
+
+    /**
+     * Load every active car into the index once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            log.info("Inventory index disabled, listings will use the JPA path");
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            List<CarSearch> cars = carSearchRepository.findAll();
+            lock.writeLock().lock();
+            try {
+                clear();
+                for (CarSearch car : cars) {
+                    put(CarSnapshot.of(car));
+                }
+                // The rows were read outside the lock: changes applied meanwhile may be newer
+                for (CarSnapshot entry : changedDuringRebuild) {
+                    putOrDelete(entry);
+                }
+                log.info("Inventory index built with {} active cars, {} changes replayed",
+                    cars.size(), changedDuringRebuild.size());
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (Exception e) {
+            ready = false;
+            log.error("Could not build inventory index, falling back to JPA queries", e);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled && ready;
+    }
+
+    /**
+     * Keep the index current with committed car changes; inactive cars are removed.
+     * Cached result pages are evicted only once the change is applied: a page cached under the
+     * new generation must not have been read from the index before the change.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent event) {
+        if (enabled) {
+            apply(event.after());
+        }
+        resultCache.evict(event);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCarsChanged(CarsChangedEvent event) {
+        if (enabled) {
+            apply(event.changes().stream().map(CarChangedEvent::after).toList());
+        }
+        resultCache.evict(event);
+    }
+
+    public void apply(CarSnapshot entry) {
+        apply(List.of(entry));
+    }
+
+    /**
+     * Apply several changes under one write lock
+     */
+    public void apply(List<CarSnapshot> changed) {
+        lock.writeLock().lock();
+        try {
+            for (CarSnapshot entry : changed) {
+                putOrDelete(entry);
+            }
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.addAll(changed);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void putOrDelete(CarSnapshot entry) {
+        if (entry.active()) {
+            put(entry);
+        } else {
+            delete(entry.id());
+        }
+    }
+
+    /**
+     * Answer filter + sort + page from the index.
+     * Returns empty when the index cannot serve the request and the JPA path must be used.
+     */
+    public Optional<Hits> search(CarFilterDTO filters, int offset, int limit) {
+        if (!isEnabled() || hasText(filters.getSearchText())) {
+            return Optional.empty();
+        }
+        CarSortKey sortKey = CarSortKey.fromParam(filters.getSortBy());
+
+        lock.readLock().lock();
+        try {
+            BitSet match = matching(filters);
+            long total = match.cardinality();
+            List<Long> pageIds = new ArrayList<>(Math.min(limit, (int) Math.max(0, total - offset)));
+            if (offset < total) {
+                SortedSlots order = sorted.get(sortKey);
+                int seen = 0;
+                for (int i = 0; i < order.size && pageIds.size() < limit; i++) {
+                    int slot = order.slots[i];
+                    if (match.get(slot) && seen++ >= offset) {
+                        pageIds.add(ids[slot]);
+                    }
+                }
+            }
+            return Optional.of(new Hits(pageIds, total));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Variant of {@link #search} ordered by an external score (highest first, then newest first),
+     * used for the popular sort. Only the best offset + limit matches are kept while scanning.
+     */
+    public Optional<Hits> searchByScore(CarFilterDTO filters, LongToDoubleFunction score, int offset, int limit) {
+        if (!isEnabled() || hasText(filters.getSearchText())) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            BitSet match = matching(filters);
+            long total = match.cardinality();
+            int wanted = (int) Math.min(total, (long) offset + limit);
+            if (offset >= wanted) {
+                return Optional.of(new Hits(List.of(), total));
+            }
+            // Min-heap of the best slots seen so far; the root is the weakest of them
+            Comparator<ScoredSlot> order = Comparator.comparingDouble(ScoredSlot::score)
+                .thenComparingLong(scored -> createdAt[scored.slot()])
+                .thenComparingLong(scored -> ids[scored.slot()]);
+            PriorityQueue<ScoredSlot> best = new PriorityQueue<>(wanted, order);
+            for (int slot = match.nextSetBit(0); slot >= 0; slot = match.nextSetBit(slot + 1)) {
+                ScoredSlot scored = new ScoredSlot(slot, score.applyAsDouble(ids[slot]));
+                if (best.size() < wanted) {
+                    best.add(scored);
+                } else if (order.compare(scored, best.peek()) > 0) {
+                    best.poll();
+                    best.add(scored);
+                }
+            }
+            long[] ranked = new long[best.size()];
+            for (int i = ranked.length - 1; i >= 0; i--) {
+                ranked[i] = ids[best.poll().slot()];
+            }
+            List<Long> pageIds = new ArrayList<>(ranked.length - offset);
+            for (int i = offset; i < ranked.length; i++) {
+                pageIds.add(ranked[i]);
+            }
+            return Optional.of(new Hits(pageIds, total));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Keyset variant of {@link #search}: up to {@code limit} ids that follow (or precede,
+     * for a backward cursor) the cursor position in the cursor's sort order, without a total.
+     * Ids are always returned in display order.
+     */
+    public Optional<List<Long>> seek(CarFilterDTO filters, CarSortKey sortKey, CarCursor cursor, int limit) {
+        if (!isEnabled() || hasText(filters.getSearchText())) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            BitSet match = matching(filters);
+            SortedSlots order = sorted.get(sortKey);
+            List<Long> pageIds = new ArrayList<>(limit);
+            if (cursor == null || !cursor.backward()) {
+                int start = cursor == null ? 0 : order.firstAfter(cursor.indexValue(), cursor.id());
+                for (int i = start; i < order.size && pageIds.size() < limit; i++) {
+                    if (match.get(order.slots[i])) {
+                        pageIds.add(ids[order.slots[i]]);
+                    }
+                }
+            } else {
+                for (int i = order.lastBefore(cursor.indexValue(), cursor.id()); i >= 0 && pageIds.size() < limit; i--) {
+                    if (match.get(order.slots[i])) {
+                        pageIds.add(ids[order.slots[i]]);
+                    }
+                }
+                Collections.reverse(pageIds);
+            }
+            return Optional.of(pageIds);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Count matching cars per facet value.
+     * Each single-valued dimension is counted under every filter except its own selection,
+     * so alternatives stay visible; features are counted under all filters.
+     */
+    public Optional<FacetCounts> facets(CarFilterDTO filters) {
+        if (!isEnabled() || hasText(filters.getSearchText())) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            FacetCounts facets = new FacetCounts();
+            facets.setBrands(count(byBrand, matching(filters, Dimension.BRAND), new TreeMap<>()));
+            facets.setFuelTypes(count(byFuelType, matching(filters, Dimension.FUEL_TYPE), new EnumMap<>(FuelType.class)));
+            facets.setTransmissions(count(byTransmission, matching(filters, Dimension.TRANSMISSION), new EnumMap<>(TransmissionType.class)));
+            facets.setBodyTypes(count(byBodyType, matching(filters, Dimension.BODY_TYPE), new EnumMap<>(BodyType.class)));
+            facets.setConditions(count(byCondition, matching(filters, Dimension.CONDITION), new EnumMap<>(CarCondition.class)));
+            facets.setFeatures(count(byFeature, matching(filters), new TreeMap<>()));
+            return Optional.of(facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Helper methods (callers hold the appropriate lock)
+
+    private BitSet matching(CarFilterDTO filters) {
+        return matching(filters, null);
+    }
+
+    /**
+     * Cars matching the filters, ignoring the filter on the given dimension (if any)
+     */
+    private BitSet matching(CarFilterDTO filters, Dimension skip) {
+        BitSet match = (BitSet) live.clone();
+
+        if (skip != Dimension.BRAND && filters.getBrands() != null && !filters.getBrands().isEmpty()) {
+            BitSet brands = new BitSet();
+            for (String brand : filters.getBrands()) {
+                BitSet bits = byBrand.get(brand);
+                if (bits != null) {
+                    brands.or(bits);
+                }
+            }
+            match.and(brands);
+        }
+
+        if (skip != Dimension.TRANSMISSION) {
+            andEnum(match, byTransmission, parse(TransmissionType.class, filters.getTransmission()));
+        }
+        if (skip != Dimension.FUEL_TYPE) {
+            andEnum(match, byFuelType, parse(FuelType.class, filters.getFuelType()));
+        }
+        if (skip != Dimension.BODY_TYPE) {
+            andEnum(match, byBodyType, parse(BodyType.class, filters.getBodyType()));
+        }
+        if (skip != Dimension.CONDITION) {
+            andEnum(match, byCondition, parse(CarCondition.class, filters.getCondition()));
+        }
+
+        if (filters.getFeatures() != null) {
+            for (String feature : filters.getFeatures()) {
+                BitSet bits = byFeature.get(feature);
+                if (bits == null) {
+                    match.clear();
+                    break;
+                }
+                match.and(bits);
+            }
+        }
+
+        if (filters.getMinPrice() != null || filters.getMaxPrice() != null) {
+            long min = filters.getMinPrice() != null ? toCents(filters.getMinPrice(), RoundingMode.CEILING) : Long.MIN_VALUE;
+            long max = filters.getMaxPrice() != null ? toCents(filters.getMaxPrice(), RoundingMode.FLOOR) : Long.MAX_VALUE;
+            for (int slot = match.nextSetBit(0); slot >= 0; slot = match.nextSetBit(slot + 1)) {
+                if (prices[slot] < min || prices[slot] > max) {
+                    match.clear(slot);
+                }
+            }
+        }
+        return match;
+    }
+
+    private static <K> Map<K, Long> count(Map<K, BitSet> index, BitSet match, Map<K, Long> counts) {
+        for (Map.Entry<K, BitSet> value : index.entrySet()) {
+            counts.put(value.getKey(), (long) intersectionSize(match, value.getValue()));
+        }
+        return counts;
+    }
+
+    private static int intersectionSize(BitSet a, BitSet b) {
+        BitSet both = (BitSet) a.clone();
+        both.and(b);
+        return both.cardinality();
+    }
+
+    private long sortValue(CarSortKey key, int slot) {
+        return switch (key) {
+            case PRICE_ASC, PRICE_DESC -> prices[slot];
+            case DATE_DESC -> createdAt[slot];
+            case MILEAGE_ASC -> mileages[slot];
+            case YEAR_DESC -> years[slot];
+        };
+    }
+
+    private static <E extends Enum<E>> void andEnum(BitSet match, Map<E, BitSet> index, E value) {
+        if (value != null) {
+            BitSet bits = index.get(value);
+            if (bits == null) {
+                match.clear();
+            } else {
+                match.and(bits);
+            }
+        }
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String value) {
+        if (!hasText(value)) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            // Invalid value, ignore filter (same as CarSpecification)
+            return null;
+        }
+    }
+
+    private void put(CarSnapshot entry) {
+        delete(entry.id());
+
+        int slot = freeSlots.isEmpty() ? slotCount++ : freeSlots.nextSetBit(0);
+        freeSlots.clear(slot);
+        ensureCapacity(slot + 1);
+
+        entries[slot] = entry;
+        ids[slot] = entry.id();
+        prices[slot] = toCents(entry.price());
+        years[slot] = entry.year();
+        mileages[slot] = entry.mileage();
+        createdAt[slot] = epochMicros(entry.createdAt());
+        slotById.put(entry.id(), slot);
+        live.set(slot);
+
+        bits(byBrand, entry.make()).set(slot);
+        if (entry.fuelType() != null) {
+            bits(byFuelType, entry.fuelType()).set(slot);
+        }
+        if (entry.transmission() != null) {
+            bits(byTransmission, entry.transmission()).set(slot);
+        }
+        if (entry.bodyType() != null) {
+            bits(byBodyType, entry.bodyType()).set(slot);
+        }
+        if (entry.condition() != null) {
+            bits(byCondition, entry.condition()).set(slot);
+        }
+        for (String feature : entry.features()) {
+            bits(byFeature, feature).set(slot);
+        }
+        for (SortedSlots order : sorted.values()) {
+            order.insert(slot);
+        }
+    }
+
+    private void delete(long id) {
+        Integer slot = slotById.remove(id);
+        if (slot == null) {
+            return;
+        }
+        CarSnapshot entry = entries[slot];
+        for (SortedSlots order : sorted.values()) {
+            order.remove(slot);
+        }
+        unset(byBrand, entry.make(), slot);
+        unset(byFuelType, entry.fuelType(), slot);
+        unset(byTransmission, entry.transmission(), slot);
+        unset(byBodyType, entry.bodyType(), slot);
+        unset(byCondition, entry.condition(), slot);
+        for (String feature : entry.features()) {
+            unset(byFeature, feature, slot);
+        }
+        entries[slot] = null;
+        live.clear(slot);
+        freeSlots.set(slot);
+    }
+
+    private void clear() {
+        ready = false;
+        slotById.clear();
+        live.clear();
+        freeSlots.clear();
+        slotCount = 0;
+        Arrays.fill(entries, null);
+        byBrand.clear();
+        byFuelType.clear();
+        byTransmission.clear();
+        byBodyType.clear();
+        byCondition.clear();
+        byFeature.clear();
+        sorted.clear();
+        for (CarSortKey key : CarSortKey.values()) {
+            sorted.put(key, new SortedSlots(key));
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newLength = Math.max(capacity, ids.length * 2);
+        entries = Arrays.copyOf(entries, newLength);
+        ids = Arrays.copyOf(ids, newLength);
+        prices = Arrays.copyOf(prices, newLength);
+        years = Arrays.copyOf(years, newLength);
+        mileages = Arrays.copyOf(mileages, newLength);
+        createdAt = Arrays.copyOf(createdAt, newLength);
+    }
+
+    private static <K> BitSet bits(Map<K, BitSet> index, K key) {
+        return index.computeIfAbsent(key, k -> new BitSet());
+    }
+
+    private static <K> void unset(Map<K, BitSet> index, K key, int slot) {
+        if (key == null) {
+            return;
+        }
+        BitSet bits = index.get(key);
+        if (bits != null) {
+            bits.clear(slot);
+            if (bits.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static long toCents(BigDecimal amount, RoundingMode roundingMode) {
+        return amount != null ? amount.setScale(2, roundingMode).movePointRight(2).longValueExact() : 0L;
+    }
+
+    /**
+     * Creation timestamps are compared in microseconds, the precision PostgreSQL stores
+     */
+    static long epochMicros(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return 0L;
+        }
+        Instant instant = dateTime.toInstant(ZoneOffset.UTC);
+        return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1_000;
+    }
+
+    static long toCents(BigDecimal amount) {
+        return toCents(amount, RoundingMode.HALF_UP);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    /**
+     * Slots kept in the order of one sort key, maintained by binary insertion
+     */
+    private final class SortedSlots {
+
+        private final CarSortKey key;
+        private int[] slots = new int[INITIAL_CAPACITY];
+        private int size;
+
+        private SortedSlots(CarSortKey key) {
+            this.key = key;
+        }
+
+        private void insert(int slot) {
+            int pos = -(search(slot) + 1);
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            System.arraycopy(slots, pos, slots, pos + 1, size - pos);
+            slots[pos] = slot;
+            size++;
+        }
+
+        private void remove(int slot) {
+            int pos = search(slot);
+            if (pos >= 0) {
+                System.arraycopy(slots, pos + 1, slots, pos, size - pos - 1);
+                size--;
+            }
+        }
+
+        private int search(int slot) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = compare(slots[mid], slot);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        private int compare(int a, int b) {
+            return compare(a, sortValue(key, b), ids[b]);
+        }
+
+        /**
+         * Compare a slot with a (sort value, id) position in this key's order
+         */
+        private int compare(int slot, long value, long id) {
+            int cmp = Long.compare(sortValue(key, slot), value);
+            if (cmp == 0) {
+                cmp = Long.compare(ids[slot], id);
+            }
+            return key.isAscending() ? cmp : -cmp;
+        }
+
+        /**
+         * First position whose slot sorts strictly after the given position
+         */
+        private int firstAfter(long value, long id) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(slots[mid], value, id) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Last position whose slot sorts strictly before the given position, or -1
+         */
+        private int lastBefore(long value, long id) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(slots[mid], value, id) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low - 1;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.cardealer.search;
+
+import com.cardealer.dto.CarFilterDTO;
+import com.cardealer.model.CarSearch;
+import com.cardealer.specification.CarSpecification;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Seek-method pagination over the JPA specification path.
+ * Instead of OFFSET the query starts right after the cursor row, so deep pages cost the
+ * same as the first one, and no COUNT query is issued.
+ */
+@Component
+public class KeysetQuery {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${search.full-text.enabled:true}")
+    private boolean fullTextSearch;
+
+    /**
+     * Ids of up to {@code limit} active cars matching the filters that follow (or precede,
+     * for a backward cursor) the cursor, returned in display order
+     */
+    public List<Long> find(CarFilterDTO filters, CarSortKey sortKey, CarCursor cursor, int limit) {
+        boolean backward = cursor != null && cursor.backward();
+
+        Specification<CarSearch> spec = CarSpecification.buildSpecification(filters, fullTextSearch);
+        if (cursor != null) {
+            spec = spec.and(CarSpecification.seek(cursor));
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<CarSearch> root = query.from(CarSearch.class);
+        query.select(root.get("id"));
+        query.where(spec.toPredicate(root, query, cb));
+
+        // Backward pages are read in reverse order from the cursor and flipped afterwards
+        boolean ascending = sortKey.isAscending() != backward;
+        query.orderBy(
+            ascending ? cb.asc(root.get(sortKey.getProperty())) : cb.desc(root.get(sortKey.getProperty())),
+            ascending ? cb.asc(root.get("id")) : cb.desc(root.get("id")));
+
+        List<Long> rows = new ArrayList<>(entityManager.createQuery(query)
+            .setMaxResults(limit)
+            .getResultList());
+        if (backward) {
+            Collections.reverse(rows);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,28 @@
+package com.cardealer.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Version of the inventory listings, read from the listing_version row. A statement trigger
+ * on car_search bumps the row in the transaction that changes the read model, so the version
+ * is the same on every node and moves with changes made by any of them.
+ */
+@Component
+@RequiredArgsConstructor
+public class ListingVersion {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Counter of listing changes and time of the last one, in epoch millis
+     */
+    public record Version(long number, long lastModified) {
+    }
+
+    public Version current() {
+        return jdbcTemplate.queryForObject("SELECT version, updated_at FROM listing_version WHERE id = 1",
+            (rs, rowNum) -> new Version(rs.getLong(1), rs.getTimestamp(2).getTime()));
+    }
+}
@@ -0,0 +1,378 @@
+package com.cardealer.search;
+
+import com.cardealer.model.CarSearch;
+import com.cardealer.model.enums.BodyType;
+import com.cardealer.model.enums.FuelType;
+import com.cardealer.repository.CarSearchRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Precomputed "similar cars" for the detail page.
+ * <p>
+ * Cars are compared by a weighted distance over price (relative), year, mileage, body type,
+ * fuel type and brand, and the nearest {@code related-cars.size} active cars of every car are
+ * kept in memory. The full table is built once at startup; afterwards each committed car
+ * change only recomputes the changed car and the cars whose neighbour lists it entered or
+ * left. All computation runs on one background thread, so requests only read finished lists.
+ * <p>
+ * Candidates are not scanned across the whole inventory: cars are bucketed by body type, fuel
+ * type, price band (a factor of {@value #PRICE_BAND_RATIO}) and year band, and a car is only
+ * compared with the cars of the neighbouring bands of its own body and fuel type, widened to
+ * every body and fuel type (and, for a very sparse inventory, to every car) when those hold
+ * fewer cars than a neighbour list needs.
+ */
+@Slf4j
+@Component
+public class RelatedCarsEngine {
+
+    private static final double PRICE_WEIGHT = 3.0;
+    private static final double YEAR_WEIGHT = 2.0;
+    private static final double MILEAGE_WEIGHT = 1.5;
+    private static final double BODY_TYPE_WEIGHT = 2.0;
+    private static final double BRAND_WEIGHT = 1.5;
+    private static final double FUEL_WEIGHT = 1.0;
+    private static final double YEAR_SCALE = 10.0;
+    private static final double MILEAGE_SCALE = 100_000.0;
+    private static final double PRICE_BAND_RATIO = 1.25;
+    private static final int PRICE_BANDS = 2;
+    private static final int YEAR_BAND = 3;
+    private static final int YEAR_BANDS = 1;
+    private static final List<BodyType> BODY_TYPES = nullable(BodyType.values());
+    private static final List<FuelType> FUEL_TYPES = nullable(FuelType.values());
+
+    private final CarSearchRepository carSearchRepository;
+    private final boolean enabled;
+    private final int size;
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "related-cars");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Only touched by the worker thread
+    private final Map<Long, CarSnapshot> cars = new HashMap<>();
+    private final Map<Long, Neighbour[]> lists = new HashMap<>();
+    private final Map<Bucket, Set<Long>> buckets = new HashMap<>();
+    // Ids of the cars whose neighbour list contains the key
+    private final Map<Long, Set<Long>> listedBy = new HashMap<>();
+    // Cars whose neighbourhood was too sparse, so they were compared with every car
+    private final Set<Long> scannedAll = new HashSet<>();
+
+    // Published results, read by request threads
+    private final Map<Long, List<Long>> neighbours = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    private record Neighbour(long id, double distance) {
+    }
+
+    private record Bucket(BodyType bodyType, FuelType fuelType, int priceBand, int yearBand) {
+    }
+
+    public RelatedCarsEngine(CarSearchRepository carSearchRepository,
+                             @Value("${related-cars.enabled:true}") boolean enabled,
+                             @Value("${related-cars.size:6}") int size) {
+        this.carSearchRepository = carSearchRepository;
+        this.enabled = enabled;
+        this.size = size;
+    }
+
+    /**
+     * Load the active inventory and compute every neighbour list in the background
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        worker.execute(() -> {
+            try {
+                long start = System.currentTimeMillis();
+                cars.clear();
+                lists.clear();
+                buckets.clear();
+                listedBy.clear();
+                scannedAll.clear();
+                for (CarSearch row : carSearchRepository.findAll()) {
+                    track(CarSnapshot.of(row));
+                }
+                for (CarSnapshot car : cars.values()) {
+                    recompute(car);
+                }
+                neighbours.keySet().retainAll(cars.keySet());
+                ready = true;
+                log.info("Related cars computed for {} active cars in {} ms",
+                    cars.size(), System.currentTimeMillis() - start);
+            } catch (Exception e) {
+                ready = false;
+                log.error("Could not compute related cars", e);
+            }
+        });
+    }
+
+    /**
+     * Repair the neighbour lists affected by a committed car change
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent event) {
+        if (enabled) {
+            worker.execute(() -> apply(event.after()));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCarsChanged(CarsChangedEvent event) {
+        if (enabled) {
+            worker.execute(() -> event.changes().forEach(change -> apply(change.after())));
+        }
+    }
+
+    /**
+     * Ids of the cars most similar to the given one, nearest first. Empty while the engine
+     * is disabled or still building, or for cars it does not track (inactive ones), so
+     * callers can fall back to a query.
+     */
+    public Optional<List<Long>> related(Long carId, int limit) {
+        List<Long> ids = enabled && ready ? neighbours.get(carId) : null;
+        if (ids == null) {
+            return Optional.empty();
+        }
+        return Optional.of(ids.size() > limit ? ids.subList(0, limit) : ids);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    // Helper methods (worker thread only)
+
+    private void apply(CarSnapshot changed) {
+        try {
+            long id = changed.id();
+            untrack(id);
+            if (changed.active()) {
+                track(changed);
+            } else {
+                publish(id, null);
+            }
+
+            // Cars that listed the changed car may now have a better candidate elsewhere
+            List<Long> stale = new ArrayList<>(listedBy.getOrDefault(id, Set.of()));
+            for (Long other : stale) {
+                CarSnapshot car = cars.get(other);
+                if (car != null && other != id) {
+                    recompute(car);
+                }
+            }
+
+            if (changed.active()) {
+                recompute(changed);
+                // The changed car may now be closer than the worst neighbour of the cars near it
+                Set<Long> nearby = neighbourhood(changed, false);
+                nearby.addAll(scannedAll);
+                for (Long other : nearby) {
+                    CarSnapshot car = cars.get(other);
+                    if (car != null && other != id && !contains(lists.get(other), id)) {
+                        offer(car, new Neighbour(id, distance(car, changed)));
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.error("Could not update related cars for car {}", changed.id(), e);
+        }
+    }
+
+    private void recompute(CarSnapshot car) {
+        Neighbour[] best = new Neighbour[0];
+        for (Long other : candidates(car)) {
+            if (other != car.id()) {
+                best = insert(best, new Neighbour(other, distance(car, cars.get(other))));
+            }
+        }
+        publish(car.id(), best);
+    }
+
+    /**
+     * Cars in the neighbouring bands of the car's body and fuel type; every body and fuel type
+     * when that is not enough to fill a list, and the whole inventory as a last resort
+     */
+    private Collection<Long> candidates(CarSnapshot car) {
+        Set<Long> found = neighbourhood(car, true);
+        if (found.size() <= size) {
+            found = neighbourhood(car, false);
+        }
+        if (found.size() <= size) {
+            scannedAll.add(car.id());
+            return cars.keySet();
+        }
+        scannedAll.remove(car.id());
+        return found;
+    }
+
+    private Set<Long> neighbourhood(CarSnapshot car, boolean samePartition) {
+        Bucket home = bucket(car);
+        Set<Long> found = new HashSet<>();
+        for (BodyType bodyType : samePartition ? Collections.singletonList(home.bodyType()) : BODY_TYPES) {
+            for (FuelType fuelType : samePartition ? Collections.singletonList(home.fuelType()) : FUEL_TYPES) {
+                for (int price = home.priceBand() - PRICE_BANDS; price <= home.priceBand() + PRICE_BANDS; price++) {
+                    for (int year = home.yearBand() - YEAR_BANDS; year <= home.yearBand() + YEAR_BANDS; year++) {
+                        Set<Long> ids = buckets.get(new Bucket(bodyType, fuelType, price, year));
+                        if (ids != null) {
+                            found.addAll(ids);
+                        }
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private void track(CarSnapshot car) {
+        cars.put(car.id(), car);
+        buckets.computeIfAbsent(bucket(car), key -> new HashSet<>()).add(car.id());
+    }
+
+    private void untrack(long id) {
+        CarSnapshot previous = cars.remove(id);
+        if (previous != null) {
+            Bucket bucket = bucket(previous);
+            Set<Long> ids = buckets.get(bucket);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                buckets.remove(bucket);
+            }
+        }
+        scannedAll.remove(id);
+    }
+
+    private static Bucket bucket(CarSnapshot car) {
+        int priceBand = car.price() != null && car.price().signum() > 0
+            ? (int) Math.floor(Math.log(car.price().doubleValue()) / Math.log(PRICE_BAND_RATIO))
+            : 0;
+        return new Bucket(car.bodyType(), car.fuelType(), priceBand, Math.floorDiv(car.year(), YEAR_BAND));
+    }
+
+    private static <E> List<E> nullable(E[] values) {
+        List<E> list = new ArrayList<>(Arrays.asList(values));
+        // Body type is optional on a listing
+        list.add(null);
+        return list;
+    }
+
+    private void offer(CarSnapshot car, Neighbour candidate) {
+        Neighbour[] current = lists.getOrDefault(car.id(), new Neighbour[0]);
+        if (current.length < size || candidate.distance() < current[current.length - 1].distance()) {
+            publish(car.id(), insert(current, candidate));
+        }
+    }
+
+    /**
+     * Insert keeping the list sorted by distance (then id) and capped at the configured size
+     */
+    private Neighbour[] insert(Neighbour[] list, Neighbour candidate) {
+        int position = list.length;
+        while (position > 0 && compare(candidate, list[position - 1]) < 0) {
+            position--;
+        }
+        if (position >= size) {
+            return list;
+        }
+        int length = Math.min(list.length + 1, size);
+        Neighbour[] result = new Neighbour[length];
+        System.arraycopy(list, 0, result, 0, position);
+        result[position] = candidate;
+        System.arraycopy(list, position, result, position + 1, length - position - 1);
+        return result;
+    }
+
+    /**
+     * Store a car's neighbour list (null to drop it) and keep the reverse index in step
+     */
+    private void publish(long carId, Neighbour[] list) {
+        Neighbour[] previous = list != null ? lists.put(carId, list) : lists.remove(carId);
+        if (previous != null) {
+            for (Neighbour neighbour : previous) {
+                Set<Long> owners = listedBy.get(neighbour.id());
+                if (owners != null && owners.remove(carId) && owners.isEmpty()) {
+                    listedBy.remove(neighbour.id());
+                }
+            }
+        }
+        if (list == null) {
+            neighbours.remove(carId);
+            return;
+        }
+        for (Neighbour neighbour : list) {
+            listedBy.computeIfAbsent(neighbour.id(), key -> new HashSet<>()).add(carId);
+        }
+        neighbours.put(carId, Arrays.stream(list).map(Neighbour::id).toList());
+    }
+
+    private static int compare(Neighbour a, Neighbour b) {
+        int byDistance = Double.compare(a.distance(), b.distance());
+        return byDistance != 0 ? byDistance : Long.compare(a.id(), b.id());
+    }
+
+    private static boolean contains(Neighbour[] list, long id) {
+        if (list != null) {
+            for (Neighbour neighbour : list) {
+                if (neighbour.id() == id) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Weighted distance between two cars; every term is scaled to [0, 1] before weighting
+     */
+    static double distance(CarSnapshot a, CarSnapshot b) {
+        double distance = PRICE_WEIGHT * relativeDifference(a.price(), b.price())
+            + YEAR_WEIGHT * Math.min(1.0, Math.abs(a.year() - b.year()) / YEAR_SCALE)
+            + MILEAGE_WEIGHT * Math.min(1.0, Math.abs(a.mileage() - b.mileage()) / MILEAGE_SCALE);
+        if (a.bodyType() != b.bodyType()) {
+            distance += BODY_TYPE_WEIGHT;
+        }
+        if (a.fuelType() != b.fuelType()) {
+            distance += FUEL_WEIGHT;
+        }
+        if (!Objects.equals(a.make(), b.make())) {
+            distance += BRAND_WEIGHT;
+        }
+        return distance;
+    }
+
+    private static double relativeDifference(BigDecimal a, BigDecimal b) {
+        if (a == null || b == null) {
+            return 1.0;
+        }
+        double x = a.doubleValue();
+        double y = b.doubleValue();
+        double max = Math.max(x, y);
+        return max > 0 ? Math.abs(x - y) / max : 0.0;
+    }
+}
@@ -0,0 +1,117 @@
+package com.cardealer.search;
+
+import com.cardealer.dto.CarFilterDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded LRU cache of listing pages, storing car ids (never entities) per canonical
+ * filter and page.
+ * <p>
+ * When a car changes, only entries whose filters could match the car before or after the
+ * change are evicted; a car that matches neither cannot have entered, left or moved within
+ * those results. Results computed while an eviction ran are not stored, so a slow query
+ * cannot put back a page that a concurrent commit just invalidated.
+ * <p>
+ * Evictions are driven by {@link InventoryIndex} after it has applied the committed change,
+ * so a page computed under the new generation never comes from the index's previous state.
+ */
+@Slf4j
+@Component
+public class SearchResultCache {
+
+    /**
+     * Cache key: the filters plus the requested window (offset or cursor, and row limit)
+     */
+    public record Key(FilterKey filters, long offset, int limit, String cursor) {
+
+        public static Key page(CarFilterDTO filters, long offset, int limit) {
+            return new Key(FilterKey.of(filters), offset, limit, null);
+        }
+
+        public static Key cursor(CarFilterDTO filters, String cursor, int limit) {
+            return new Key(FilterKey.of(filters), 0, limit, cursor != null ? cursor : "");
+        }
+    }
+
+    /**
+     * Ids of one page in display order, plus the total number of matches (-1 when not counted)
+     */
+    public record Ids(List<Long> ids, long total) {
+
+        public Ids {
+            ids = List.copyOf(ids);
+        }
+    }
+
+    private final boolean enabled;
+    private final Map<Key, Ids> entries;
+    private long generation;
+
+    public SearchResultCache(@Value("${search.result-cache.enabled:true}") boolean enabled,
+                             @Value("${search.result-cache.max-entries:1000}") int maxEntries) {
+        this.enabled = enabled;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Ids> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized Optional<Ids> get(Key key) {
+        return enabled ? Optional.ofNullable(entries.get(key)) : Optional.empty();
+    }
+
+    /**
+     * Eviction counter; read it before running the query whose result will be {@link #put}
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Cache a computed page unless an eviction happened since the given generation
+     */
+    public synchronized void put(Key key, Ids ids, long seenGeneration) {
+        if (enabled && generation == seenGeneration) {
+            entries.put(key, ids);
+        }
+    }
+
+    /**
+     * Evict the pages a committed car change could affect
+     */
+    public synchronized void evict(CarChangedEvent event) {
+        generation++;
+        int evicted = 0;
+        for (Iterator<Key> it = entries.keySet().iterator(); it.hasNext(); ) {
+            FilterKey filters = it.next().filters();
+            if (filters.mayMatch(event.before()) || filters.mayMatch(event.after())) {
+                it.remove();
+                evicted++;
+            }
+        }
+        log.debug("Car {} changed, evicted {} cached result pages", event.carId(), evicted);
+    }
+
+    /**
+     * A bulk change touches too many cars to check every cached page against, so it clears them all
+     */
+    public void evict(CarsChangedEvent event) {
+        clear();
+        log.debug("{} cars changed in bulk, cleared cached result pages", event.changes().size());
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+}
@@ -0,0 +1,324 @@
+package com.cardealer.search;
+
+import com.cardealer.dto.Suggestion;
+import com.cardealer.repository.CarSearchRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix trie of make and "make model" completions over the active inventory, for typeahead.
+ * <p>
+ * Every node caches the best {@value #TOP_K} completions of its subtree (ranked by number of
+ * active cars), so a lookup is a walk down the prefix plus a copy of that list. The cache is
+ * refreshed along a single path when a listing changes. Brand names also get a fuzzy lookup
+ * that tolerates one edit (insertion, deletion or substitution).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SuggestionIndex {
+
+    static final int TOP_K = 10;
+    private static final int MIN_FUZZY_LENGTH = 3;
+
+    private static final Comparator<Term> RANKING = Comparator
+        .comparingInt((Term term) -> -term.count)
+        .thenComparing(term -> term.type)
+        .thenComparing(term -> term.text);
+
+    private final CarSearchRepository carSearchRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node completions = new Node();
+    private final Node brands = new Node();
+    private final Map<Long, String[]> termsByCar = new HashMap<>();
+
+    // Changes committed while a rebuild is loading, replayed over the loaded rows; guarded by lock
+    private List<CarSnapshot> changedDuringRebuild;
+
+    private enum Type {
+        MAKE, MODEL
+    }
+
+    private static final class Term {
+        private final String text;
+        private final Type type;
+        private int count;
+
+        private Term(String text, Type type) {
+            this.text = text;
+            this.type = type;
+        }
+    }
+
+    private record TermKey(String text, Type type) {
+    }
+
+    /**
+     * Several terms can end at the same key: "golf" completes both "Volkswagen Golf" and
+     * "Seat Golf", and "mini" is a make as well as a model of other makes
+     */
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private final Map<TermKey, Term> terms = new HashMap<>(2);
+        private List<Term> top = List.of();
+    }
+
+    /**
+     * Build the trie from the active inventory once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            List<Object[]> rows = carSearchRepository.findMakesAndModels();
+            lock.writeLock().lock();
+            try {
+                completions.children.clear();
+                completions.top = List.of();
+                brands.children.clear();
+                brands.top = List.of();
+                termsByCar.clear();
+                for (Object[] row : rows) {
+                    add((Long) row[0], (String) row[1], (String) row[2]);
+                }
+                // The rows were read outside the lock: changes applied meanwhile may be newer
+                for (CarSnapshot car : changedDuringRebuild) {
+                    replace(car);
+                }
+                log.info("Suggestion index built from {} active cars, {} changes replayed",
+                    rows.size(), changedDuringRebuild.size());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (Exception e) {
+            log.error("Could not build suggestion index", e);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Keep completions current with committed car changes
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent event) {
+        apply(List.of(event.after()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCarsChanged(CarsChangedEvent event) {
+        apply(event.changes().stream().map(CarChangedEvent::after).toList());
+    }
+
+    private void apply(List<CarSnapshot> changed) {
+        lock.writeLock().lock();
+        try {
+            for (CarSnapshot car : changed) {
+                replace(car);
+            }
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.addAll(changed);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void replace(CarSnapshot car) {
+        remove(car.id());
+        if (car.active()) {
+            add(car.id(), car.make(), car.model());
+        }
+    }
+
+    /**
+     * Ranked completions for a prefix; brand names within one edit are appended when
+     * exact prefix matches do not fill the limit
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Map<String, Term> found = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            Node node = find(completions, key);
+            if (node != null) {
+                for (Term term : node.top) {
+                    found.putIfAbsent(term.text, term);
+                }
+            }
+            if (found.size() < limit && key.length() >= MIN_FUZZY_LENGTH) {
+                List<Term> fuzzy = new ArrayList<>();
+                int[] row = new int[key.length() + 1];
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = i;
+                }
+                for (Map.Entry<Character, Node> child : brands.children.entrySet()) {
+                    fuzzy(child.getValue(), child.getKey(), row, key, fuzzy);
+                }
+                fuzzy.sort(RANKING);
+                for (Term term : fuzzy) {
+                    found.putIfAbsent(term.text, term);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return found.values().stream()
+            .limit(limit)
+            .map(term -> new Suggestion(term.text, term.type.name(), term.count))
+            .toList();
+    }
+
+    // Helper methods (callers hold the write lock)
+
+    private void add(Long carId, String make, String model) {
+        if (make == null || make.isBlank()) {
+            return;
+        }
+        termsByCar.put(carId, new String[] {make, model});
+        count(make, model, 1);
+    }
+
+    private void remove(Long carId) {
+        String[] terms = termsByCar.remove(carId);
+        if (terms != null) {
+            count(terms[0], terms[1], -1);
+        }
+    }
+
+    private void count(String make, String model, int delta) {
+        update(completions, normalize(make), make, Type.MAKE, delta);
+        update(brands, normalize(make), make, Type.MAKE, delta);
+        if (model != null && !model.isBlank()) {
+            String makeModel = make + " " + model;
+            update(completions, normalize(makeModel), makeModel, Type.MODEL, delta);
+            // Let "320" find "BMW 320d" as well
+            update(completions, normalize(model), makeModel, Type.MODEL, delta);
+        }
+    }
+
+    /**
+     * Adjust the count of a term and refresh the cached completions along its path
+     */
+    private static void update(Node root, String key, String text, Type type, int delta) {
+        if (key.isEmpty()) {
+            return;
+        }
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            Node next = path[i].children.get(key.charAt(i));
+            if (next == null) {
+                if (delta < 0) {
+                    return;
+                }
+                next = new Node();
+                path[i].children.put(key.charAt(i), next);
+            }
+            path[i + 1] = next;
+        }
+
+        Node terminal = path[key.length()];
+        TermKey termKey = new TermKey(text, type);
+        Term term = terminal.terms.get(termKey);
+        if (term == null) {
+            if (delta < 0) {
+                return;
+            }
+            term = new Term(text, type);
+            terminal.terms.put(termKey, term);
+        }
+        term.count += delta;
+        if (term.count <= 0) {
+            terminal.terms.remove(termKey);
+        }
+
+        for (int depth = key.length(); depth >= 0; depth--) {
+            Node node = path[depth];
+            if (depth > 0 && node.terms.isEmpty() && node.children.isEmpty()) {
+                path[depth - 1].children.remove(key.charAt(depth - 1));
+                continue;
+            }
+            node.top = best(node);
+        }
+    }
+
+    private static List<Term> best(Node node) {
+        List<Term> candidates = new ArrayList<>(node.terms.values());
+        for (Node child : node.children.values()) {
+            candidates.addAll(child.top);
+        }
+        candidates.sort(RANKING);
+        return candidates.size() > TOP_K ? List.copyOf(candidates.subList(0, TOP_K)) : List.copyOf(candidates);
+    }
+
+    private static Node find(Node root, String key) {
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.children.get(key.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * Levenshtein walk over the brand trie: collects the completions of every node whose
+     * prefix is within one edit of the key
+     */
+    private static void fuzzy(Node node, char c, int[] previous, String key, List<Term> out) {
+        int[] row = new int[key.length() + 1];
+        row[0] = previous[0] + 1;
+        int min = row[0];
+        for (int i = 1; i <= key.length(); i++) {
+            int cost = key.charAt(i - 1) == c ? 0 : 1;
+            row[i] = Math.min(Math.min(row[i - 1] + 1, previous[i] + 1), previous[i - 1] + cost);
+            min = Math.min(min, row[i]);
+        }
+        if (row[key.length()] <= 1) {
+            out.addAll(node.top);
+            return;
+        }
+        if (min <= 1) {
+            for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+                fuzzy(child.getValue(), child.getKey(), row, key, out);
+            }
+        }
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return stripped.toLowerCase().trim().replaceAll("\\s+", " ");
+    }
+}
@@ -0,0 +1,355 @@
+package com.cardealer.search;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Exponentially decayed popularity per active car, fed by detail views, favourites and
+ * messages. A score loses half its value every {@code trending.half-life}. Favourites and
+ * messages arrive as {@link CarInterestEvent}s after their transaction commits; a user's
+ * favourite of a car is credited once until its weight has decayed away.
+ * <p>
+ * Scores are updated lock-free (compare-and-set on an immutable value). Ranking uses
+ * {@code ln(score) + lambda * time}, which orders cars like their decayed scores at any common
+ * instant but only changes when the car receives an event. An event only notes its car as a
+ * candidate when its key passes the lowest ranked key; the top {@value #TOP_SIZE} is re-ranked
+ * from those candidates every {@code trending.top-interval} on the scheduler thread and read as
+ * a published list. Touched scores are written to car_trending every
+ * {@code trending.snapshot-interval} and loaded again on startup.
+ * Scores are kept per application instance.
+ */
+@Slf4j
+@Component
+public class TrendingScores {
+
+    /**
+     * sortBy value of the listing ordered by popularity
+     */
+    public static final String SORT_POPULAR = "popular";
+
+    private static final int TOP_SIZE = 20;
+    // Scores below this (a single view after about seven half-lives) are forgotten
+    private static final double MIN_SCORE = 0.01;
+
+    private static final String LOAD_SQL =
+        "SELECT t.car_id, t.score, t.scored_at FROM car_trending t JOIN car_search s ON s.car_id = t.car_id";
+    private static final String UPSERT_SQL =
+        "INSERT INTO car_trending (car_id, score, scored_at) VALUES (?, ?, ?) " +
+        "ON CONFLICT (car_id) DO UPDATE SET score = EXCLUDED.score, scored_at = EXCLUDED.scored_at";
+    private static final String DELETE_SQL = "DELETE FROM car_trending WHERE car_id = ANY(?)";
+
+    public enum Signal {
+        VIEW(1.0),
+        FAVORITE(5.0),
+        MESSAGE(10.0);
+
+        private final double weight;
+
+        Signal(double weight) {
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Score value as of a point in time (epoch millis)
+     */
+    private record Score(double value, long at) {
+    }
+
+    private record Ranked(long carId, double key) {
+    }
+
+    private record Favorited(long userId, long carId) {
+    }
+
+    private static final Comparator<Ranked> BY_KEY =
+        Comparator.comparingDouble(Ranked::key).thenComparingLong(Ranked::carId);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final double lambda;
+
+    private final Map<Long, AtomicReference<Score>> scores = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    // Favourites already credited and when, forgotten once that credit has decayed away
+    private final Map<Favorited, Long> favorited = new ConcurrentHashMap<>();
+
+    // Cars whose key changed enough to move the ranking since the last refresh
+    private final Set<Long> candidates = ConcurrentHashMap.newKeySet();
+    // Set when a ranked car is dropped: the next refresh ranks every score
+    private volatile boolean rerank;
+
+    // Published ranking, replaced as a whole by each refresh
+    private volatile List<Long> top = List.of();
+    private volatile Set<Long> ranked = Set.of();
+    private volatile double threshold = Double.NEGATIVE_INFINITY;
+
+    public TrendingScores(JdbcTemplate jdbcTemplate,
+                          @Value("${trending.half-life:24h}") Duration halfLife) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.lambda = Math.log(2) / halfLife.toMillis();
+    }
+
+    /**
+     * Load the last snapshot of the cars that are still active
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            jdbcTemplate.query(LOAD_SQL, rs -> {
+                long carId = rs.getLong("car_id");
+                Score score = new Score(rs.getDouble("score"), rs.getTimestamp("scored_at").getTime());
+                scores.putIfAbsent(carId, new AtomicReference<>(score));
+            });
+            rerank = true;
+            refreshTop();
+            log.info("Trending scores loaded for {} cars", scores.size());
+        } catch (RuntimeException e) {
+            log.error("Could not load trending scores, starting from zero", e);
+        }
+    }
+
+    /**
+     * Add an event to the decayed score of a car
+     */
+    public void record(Long carId, Signal signal) {
+        long now = System.currentTimeMillis();
+        while (true) {
+            AtomicReference<Score> ref = scores.get(carId);
+            if (ref == null) {
+                AtomicReference<Score> created = new AtomicReference<>(new Score(0.0, now));
+                ref = scores.putIfAbsent(carId, created);
+                if (ref == null) {
+                    ref = created;
+                }
+            }
+            Score previous;
+            Score next;
+            do {
+                previous = ref.get();
+                next = add(previous, signal.weight, now);
+            } while (!ref.compareAndSet(previous, next));
+            // A concurrent prune may have dropped this entry; count the event on the new one
+            if (scores.get(carId) == ref) {
+                dirty.add(carId);
+                // Keys only grow, so a car at or below the threshold cannot enter the ranking
+                if (rankKey(next) > threshold || ranked.contains(carId)) {
+                    candidates.add(carId);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Credit a committed favourite or message; removing and adding a favourite again does not
+     * count twice
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCarInterest(CarInterestEvent event) {
+        if (event.signal() == Signal.FAVORITE && event.userId() != null) {
+            Favorited key = new Favorited(event.userId(), event.carId());
+            if (favorited.putIfAbsent(key, System.currentTimeMillis()) != null) {
+                return;
+            }
+        }
+        record(event.carId(), event.signal());
+    }
+
+    /**
+     * Ids of the most popular active cars, best first (at most {@value #TOP_SIZE})
+     */
+    public List<Long> top(int limit) {
+        List<Long> current = top;
+        return current.size() > limit ? current.subList(0, limit) : current;
+    }
+
+    /**
+     * Ranking key of a car for the popular sort; cars without events rank last
+     */
+    public double rankKey(long carId) {
+        AtomicReference<Score> ref = scores.get(carId);
+        return ref != null ? rankKey(ref.get()) : Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Forget cars that leave the inventory
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCarChanged(CarChangedEvent event) {
+        forget(List.of(event.after()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCarsChanged(CarsChangedEvent event) {
+        forget(event.changes().stream().map(CarChangedEvent::after).toList());
+    }
+
+    /**
+     * Re-rank the published top from the current top and the candidates noted since the last
+     * refresh, or from every score after a ranked car was dropped
+     */
+    @Scheduled(fixedDelayString = "${trending.top-interval:PT5S}",
+               initialDelayString = "${trending.top-interval:PT5S}")
+    public synchronized void refreshTop() {
+        if (rerank) {
+            rerank = false;
+            candidates.clear();
+            rank(scores.keySet());
+            return;
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+        List<Long> changed = new ArrayList<>(candidates);
+        changed.forEach(candidates::remove);
+        Set<Long> pool = new HashSet<>(top);
+        pool.addAll(changed);
+        rank(pool);
+    }
+
+    /**
+     * Write the scores touched since the last snapshot and forget the ones that decayed away
+     */
+    public synchronized void snapshot() {
+        long now = System.currentTimeMillis();
+        List<Long> removed = new ArrayList<>();
+        boolean pruned = false;
+        for (Map.Entry<Long, AtomicReference<Score>> entry : scores.entrySet()) {
+            if (decayed(entry.getValue().get(), now) < MIN_SCORE && scores.remove(entry.getKey(), entry.getValue())) {
+                pruned |= ranked.contains(entry.getKey());
+                dirty.add(entry.getKey());
+            }
+        }
+        if (pruned) {
+            rerank = true;
+            refreshTop();
+        }
+        favorited.values().removeIf(at -> Signal.FAVORITE.weight * decay(Math.max(0, now - at)) < MIN_SCORE);
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        List<Long> batch = new ArrayList<>(dirty);
+        batch.forEach(dirty::remove);
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (Long carId : batch) {
+            AtomicReference<Score> ref = scores.get(carId);
+            if (ref == null) {
+                removed.add(carId);
+            } else {
+                Score score = ref.get();
+                rows.add(new Object[] {carId, score.value(), new Timestamp(score.at())});
+            }
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+            if (!removed.isEmpty()) {
+                Long[] carIds = removed.toArray(new Long[0]);
+                jdbcTemplate.update(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(DELETE_SQL);
+                    statement.setArray(1, connection.createArrayOf("bigint", carIds));
+                    return statement;
+                });
+            }
+            log.debug("Trending snapshot: {} scores written, {} removed", rows.size(), removed.size());
+        } catch (RuntimeException e) {
+            // Retry these cars with the next snapshot
+            dirty.addAll(batch);
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshotQuietly();
+    }
+
+    // Helper methods
+
+    private void forget(List<CarSnapshot> changed) {
+        for (CarSnapshot car : changed) {
+            if (!car.active() && scores.remove(car.id()) != null) {
+                dirty.add(car.id());
+                // Stays in the published list until the next refresh; car_search no longer has it
+                if (ranked.contains(car.id())) {
+                    rerank = true;
+                }
+            }
+        }
+    }
+
+    private Score add(Score score, double weight, long now) {
+        long at = Math.max(score.at(), now);
+        return new Score(score.value() * decay(at - score.at()) + weight * decay(at - now), at);
+    }
+
+    private double decayed(Score score, long now) {
+        return score.value() * decay(Math.max(0, now - score.at()));
+    }
+
+    private double decay(long elapsedMillis) {
+        return Math.exp(-lambda * elapsedMillis);
+    }
+
+    private double rankKey(Score score) {
+        return score.value() > 0 ? Math.log(score.value()) + lambda * score.at() : Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Publish the best {@value #TOP_SIZE} of the given cars as an immutable best-first list
+     * (caller holds the monitor)
+     */
+    private void rank(Collection<Long> carIds) {
+        PriorityQueue<Ranked> heap = new PriorityQueue<>(BY_KEY);
+        for (Long carId : carIds) {
+            AtomicReference<Score> ref = scores.get(carId);
+            if (ref == null) {
+                continue;
+            }
+            Ranked entry = new Ranked(carId, rankKey(ref.get()));
+            if (heap.size() < TOP_SIZE) {
+                heap.add(entry);
+            } else if (BY_KEY.compare(entry, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+        List<Ranked> entries = new ArrayList<>(heap);
+        entries.sort(BY_KEY.reversed());
+        top = entries.stream().map(Ranked::carId).toList();
+        ranked = Set.copyOf(top);
+        threshold = heap.size() >= TOP_SIZE ? heap.peek().key() : Double.NEGATIVE_INFINITY;
+    }
+
+    @Scheduled(fixedDelayString = "${trending.snapshot-interval:PT5M}",
+               initialDelayString = "${trending.snapshot-interval:PT5M}")
+    public void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            log.error("Could not write trending scores snapshot, will retry", e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.cardealer.service;
+
+import com.cardealer.dto.CarCard;
+import com.cardealer.dto.CarDetailView;
+import com.cardealer.dto.CommentPage;
+import com.cardealer.dto.ReviewSummary;
+import com.cardealer.model.Car;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Builds the car detail page. The car is loaded first (it decides between the page and a 404);
+ * related cars, the first page of comments, the review summary and the favourite flag are
+ * then fetched in parallel on virtual threads under one per-request deadline. A block that
+ * fails or misses the deadline is left empty and the page renders without it.
+ */
+@Slf4j
+@Service
+public class CarDetailAssembler {
+
+    private static final int COMMENTS_PAGE_SIZE = 10;
+
+    private final CarService carService;
+    private final CommentService commentService;
+    private final FavoriteService favoriteService;
+    private final UserService userService;
+    private final Duration deadline;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public CarDetailAssembler(CarService carService,
+                              CommentService commentService,
+                              FavoriteService favoriteService,
+                              UserService userService,
+                              @Value("${detail-page.deadline:300ms}") Duration deadline) {
+        this.carService = carService;
+        this.commentService = commentService;
+        this.favoriteService = favoriteService;
+        this.userService = userService;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Assemble the detail page of a car; userEmail is null for anonymous visitors
+     */
+    public CarDetailView assemble(Long carId, String userEmail) {
+        Car car = carService.getCarById(carId);
+        long expiresAt = System.nanoTime() + deadline.toNanos();
+
+        Future<List<CarCard>> related = executor.submit(() -> carService.getRelatedCars(car));
+        Future<CommentPage> comments = executor.submit(() -> commentService.getCommentPage(carId, null, COMMENTS_PAGE_SIZE));
+        Future<ReviewSummary> reviews = executor.submit(() -> commentService.getReviewSummary(carId));
+        Future<Boolean> favorite = userEmail == null
+            ? CompletableFuture.completedFuture(false)
+            : executor.submit(() -> favoriteService.isFavorite(userService.getUserByEmail(userEmail).getId(), carId));
+
+        List<CarCard> relatedCars = await(related, expiresAt, "related cars", carId);
+        CommentPage commentPage = await(comments, expiresAt, "comments", carId);
+        ReviewSummary summary = await(reviews, expiresAt, "review summary", carId);
+        Boolean isFavorite = await(favorite, expiresAt, "favourite flag", carId);
+
+        return new CarDetailView(
+            car,
+            relatedCars != null ? relatedCars : List.of(),
+            commentPage != null ? commentPage : new CommentPage(List.of(), null),
+            summary != null ? summary : ReviewSummary.empty(),
+            Boolean.TRUE.equals(isFavorite),
+            relatedCars != null,
+            commentPage != null
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Wait for a block until the shared deadline; null when it failed or is late.
+     * A late block is cancelled, which interrupts its thread so it stops holding a connection.
+     */
+    private static <T> T await(Future<T> future, long expiresAt, String block, Long carId) {
+        try {
+            return future.get(Math.max(0, expiresAt - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Detail page of car {} rendered without {}: deadline exceeded", carId, block);
+        } catch (ExecutionException e) {
+            log.warn("Detail page of car {} rendered without {}", carId, block, e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+}
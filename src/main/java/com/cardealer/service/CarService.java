@@ -1,25 +1,57 @@
 package com.cardealer.service;
 
+import com.cardealer.dto.BulkListingResult;
+import com.cardealer.dto.BulkPriceRequest;
+import com.cardealer.dto.CarCard;
 import com.cardealer.dto.CarDTO;
 import com.cardealer.dto.CarFilterDTO;
+import com.cardealer.dto.CarSlice;
 import com.cardealer.dto.DashboardStats;
+import com.cardealer.dto.DealerListingFilter;
+import com.cardealer.dto.DealerListingPage;
+import com.cardealer.dto.FacetCounts;
+import com.cardealer.dto.ListingSummary;
+import com.cardealer.dto.Suggestion;
 import com.cardealer.exception.ResourceNotFoundException;
 import com.cardealer.exception.UnauthorizedException;
 import com.cardealer.model.Car;
+import com.cardealer.model.CarSearch;
 import com.cardealer.model.Dealer;
+import com.cardealer.model.DealerStats;
 import com.cardealer.model.enums.BodyType;
 import com.cardealer.model.enums.CarCondition;
 import com.cardealer.model.enums.FuelType;
 import com.cardealer.model.enums.TransmissionType;
 import com.cardealer.repository.CarRepository;
+import com.cardealer.repository.CarSearchRepository;
 import com.cardealer.repository.DealerRepository;
+import com.cardealer.repository.DealerStatsRepository;
+import com.cardealer.search.CarChangedEvent;
+import com.cardealer.search.CarCursor;
+import com.cardealer.search.CarSearchWriter;
+import com.cardealer.search.CarSnapshot;
+import com.cardealer.search.CarSortKey;
+import com.cardealer.search.CarsChangedEvent;
+import com.cardealer.search.DealerInventoryQuery;
+import com.cardealer.search.FacetEngine;
+import com.cardealer.search.InventoryIndex;
+import com.cardealer.search.KeysetQuery;
+import com.cardealer.search.RelatedCarsEngine;
+import com.cardealer.search.SearchResultCache;
+import com.cardealer.search.SuggestionIndex;
+import com.cardealer.search.TrendingScores;
 import com.cardealer.specification.CarSpecification;
+import com.cardealer.stats.UniqueVisitors;
+import com.cardealer.stats.ViewCounter;
 import com.cardealer.util.FileUploadUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -29,8 +61,16 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -39,55 +79,193 @@ import java.util.Optional;
 public class CarService {
 
     private final CarRepository carRepository;
+    private final CarSearchRepository carSearchRepository;
     private final DealerRepository dealerRepository;
+    private final DealerStatsRepository dealerStatsRepository;
     private final FileUploadUtil fileUploadUtil;
+    private final InventoryIndex inventoryIndex;
+    private final FacetEngine facetEngine;
+    private final KeysetQuery keysetQuery;
+    private final DealerInventoryQuery dealerInventoryQuery;
+    private final SearchResultCache resultCache;
+    private final RelatedCarsEngine relatedCarsEngine;
+    private final ViewCounter viewCounter;
+    private final UniqueVisitors uniqueVisitors;
+    private final TrendingScores trendingScores;
+    private final SuggestionIndex suggestionIndex;
+    private final CarSearchWriter carSearchWriter;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final int MAX_SUGGESTIONS = 10;
+    private static final int CARD_SUMMARY_LENGTH = 200;
+    static final int RELATED_CARS = 6;
+    private static final int RECENT_LISTINGS = 5;
+    private static final int MAX_BULK_CARS = 10_000;
+    private static final String PRICE_MODE_PERCENT = "percent";
+    private static final String PRICE_MODE_AMOUNT = "amount";
+    private static final int TRENDING_CARS = 8;
+    private static final int TRENDING_CANDIDATES = 20;
+
+    @Value("${search.full-text.enabled:true}")
+    private boolean fullTextSearch;
 
     /**
-     * Find cars with filters and pagination
+     * Find cars with filters and pagination.
+     * Page ids come from the result cache, then the in-memory inventory index, then JPA;
+     * the page itself is loaded as listing cards. The popular sort changes with every view,
+     * so it bypasses the result cache and is ranked by the index (newest first without it).
      */
-    public Page<Car> findCarsWithFilters(CarFilterDTO filters, Pageable pageable) {
+    public Page<CarCard> findCarsWithFilters(CarFilterDTO filters, Pageable pageable) {
         log.info("Finding cars with filters: {}", filters);
+
+        if (TrendingScores.SORT_POPULAR.equalsIgnoreCase(filters.getSortBy())) {
+            Optional<InventoryIndex.Hits> popular = inventoryIndex.searchByScore(
+                filters, trendingScores::rankKey, (int) pageable.getOffset(), pageable.getPageSize());
+            if (popular.isPresent()) {
+                return new PageImpl<>(findCardsInOrder(popular.get().ids()), pageable, popular.get().total());
+            }
+        }
+
+        SearchResultCache.Key key = SearchResultCache.Key.page(filters, pageable.getOffset(), pageable.getPageSize());
+        Optional<SearchResultCache.Ids> cached = resultCache.get(key);
+        if (cached.isPresent()) {
+            return new PageImpl<>(findCardsInOrder(cached.get().ids()), pageable, cached.get().total());
+        }
+        long generation = resultCache.generation();
+
+        Optional<InventoryIndex.Hits> hits = inventoryIndex.search(
+            filters, (int) pageable.getOffset(), pageable.getPageSize());
+        if (hits.isPresent()) {
+            resultCache.put(key, new SearchResultCache.Ids(hits.get().ids(), hits.get().total()), generation);
+            return new PageImpl<>(findCardsInOrder(hits.get().ids()), pageable, hits.get().total());
+        }
         
         // Build specification from filters
-        Specification<Car> spec = CarSpecification.buildSpecification(filters);
+        Specification<CarSearch> spec = CarSpecification.buildSpecification(filters, fullTextSearch);
         
-        // Apply sorting if specified
-        Pageable pageableWithSort = pageable;
-        if (filters.getSortBy() != null && !filters.getSortBy().isEmpty()) {
-            Sort sort = getSortFromString(filters.getSortBy());
-            pageableWithSort = PageRequest.of(
-                pageable.getPageNumber(), 
-                pageable.getPageSize(), 
-                sort
-            );
-        }
+        // Resolve the sort like the index and FilterKey do, so the cached page has the same order
+        Pageable pageableWithSort = PageRequest.of(
+            pageable.getPageNumber(),
+            pageable.getPageSize(),
+            getSort(filters)
+        );
         
-        return carRepository.findAll(spec, pageableWithSort);
+        Page<CarSearch> rows = carSearchRepository.findAll(spec, pageableWithSort);
+        resultCache.put(key, new SearchResultCache.Ids(
+            rows.map(CarSearch::getId).getContent(), rows.getTotalElements()), generation);
+        return rows.map(CarService::toCard);
     }
 
     /**
-     * Get car by ID and increment views
+     * Find cars with filters using keyset (seek) pagination.
+     * The total is only counted when requested, since it costs a scan of the whole filtered set.
+     */
+    public CarSlice findCarsByCursor(CarFilterDTO filters, String cursorToken, int size, boolean withTotal) {
+        log.info("Finding cars with filters: {} after cursor: {}", filters, cursorToken);
+
+        CarSortKey sortKey = CarSortKey.fromParam(filters.getSortBy());
+        CarCursor cursor = cursorToken != null && !cursorToken.isBlank()
+            ? CarCursor.decode(cursorToken, sortKey)
+            : null;
+        boolean backward = cursor != null && cursor.backward();
+
+        // Fetch one extra row to know whether there is another page in the scroll direction
+        SearchResultCache.Key key = SearchResultCache.Key.cursor(filters, cursorToken, size + 1);
+        List<Long> ids = resultCache.get(key)
+            .map(SearchResultCache.Ids::ids)
+            .orElseGet(() -> {
+                long generation = resultCache.generation();
+                List<Long> found = inventoryIndex.seek(filters, sortKey, cursor, size + 1)
+                    .orElseGet(() -> keysetQuery.find(filters, sortKey, cursor, size + 1));
+                resultCache.put(key, new SearchResultCache.Ids(found, -1), generation);
+                return found;
+            });
+        List<CarCard> rows = findCardsInOrder(ids);
+        boolean more = rows.size() > size;
+        if (more) {
+            rows = backward ? rows.subList(rows.size() - size, rows.size()) : rows.subList(0, size);
+        }
+
+        String nextCursor = null;
+        String prevCursor = null;
+        if (!rows.isEmpty()) {
+            CarCard first = rows.get(0);
+            CarCard last = rows.get(rows.size() - 1);
+            if (backward || more) {
+                nextCursor = CarCursor.after(sortKey, last).encode();
+            }
+            if (backward ? more : cursor != null) {
+                prevCursor = CarCursor.before(sortKey, first).encode();
+            }
+        }
+
+        Long total = null;
+        if (withTotal) {
+            SearchResultCache.Key countKey = SearchResultCache.Key.page(filters, 0, 0);
+            total = resultCache.get(countKey)
+                .map(SearchResultCache.Ids::total)
+                .orElseGet(() -> {
+                    long generation = resultCache.generation();
+                    long count = inventoryIndex.search(filters, 0, 0)
+                        .map(InventoryIndex.Hits::total)
+                        .orElseGet(() -> carSearchRepository.count(CarSpecification.buildSpecification(filters, fullTextSearch)));
+                    resultCache.put(countKey, new SearchResultCache.Ids(List.of(), count), generation);
+                    return count;
+                });
+        }
+        return new CarSlice(List.copyOf(rows), nextCursor, prevCursor, total);
+    }
+
+    /**
+     * Count matching active cars per brand, fuel type, transmission, body type, condition and feature
+     */
+    public FacetCounts getFacetCounts(CarFilterDTO filters) {
+        return facetEngine.countFacets(filters);
+    }
+
+    /**
+     * Make and model completions for the search box
+     */
+    public List<Suggestion> suggest(String query, int limit) {
+        return suggestionIndex.suggest(query, Math.min(limit, MAX_SUGGESTIONS));
+    }
+
+    /**
+     * Get car by ID and count a view (written behind by ViewCounter, so this stays read-only)
      */
-    @Transactional
     public Car getCarById(Long id) {
         log.info("Fetching car with id: {}", id);
         
         Car car = carRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Coche no encontrado con id: " + id));
         
-        // Increment views
-        car.setViews(car.getViews() + 1);
-        carRepository.save(car);
+        viewCounter.record(car.getId());
+        trendingScores.record(car.getId(), TrendingScores.Signal.VIEW);
         
-        log.debug("Car found and views incremented: {}", car.getId());
+        log.debug("Car found and view recorded: {}", car.getId());
         return car;
     }
 
+    /**
+     * Count a view of a car whose page the client already has (conditional GET answered with 304)
+     */
+    public void recordView(Long id) {
+        viewCounter.record(id);
+        trendingScores.record(id, TrendingScores.Signal.VIEW);
+    }
+
+    /**
+     * Count a visitor of a car for the unique visitor estimates (in memory, no database write)
+     */
+    public void recordVisitor(Long id, String visitorKey) {
+        uniqueVisitors.record(id, visitorKey);
+    }
+
     /**
      * Create a new car
      */
     @Transactional
-    @CacheEvict(value = "latestCars", allEntries = true)
+    @CacheEvict(value = {"latestCars", "featureVocabulary"}, allEntries = true)
     public Car createCar(CarDTO carDTO, Long dealerId) throws IOException {
         log.info("Creating new car for dealer: {}", dealerId);
         
@@ -104,6 +282,7 @@ public class CarService {
         handleImages(carDTO, car, false);
         
         Car savedCar = carRepository.save(car);
+        eventPublisher.publishEvent(new CarChangedEvent(null, CarSnapshot.of(savedCar)));
         log.info("Car created successfully with id: {}", savedCar.getId());
         
         return savedCar;
@@ -113,7 +292,7 @@ public class CarService {
      * Update an existing car
      */
     @Transactional
-    @CacheEvict(value = "latestCars", allEntries = true)
+    @CacheEvict(value = {"latestCars", "featureVocabulary"}, allEntries = true)
     public Car updateCar(Long id, CarDTO carDTO, Long dealerId) throws IOException {
         log.info("Updating car with id: {} for dealer: {}", id, dealerId);
         
@@ -125,12 +304,16 @@ public class CarService {
             log.error("Unauthorized attempt to update car {} by dealer {}", id, dealerId);
             throw new UnauthorizedException("No tienes permisos para actualizar este coche");
         }
+        CarSnapshot before = CarSnapshot.of(car);
         
         // Update car fields
         mapDtoToEntity(carDTO, car);
         handleImages(carDTO, car, true);
+        // Image or feature changes alone do not dirty the row; the page version needs the bump
+        car.setUpdatedAt(LocalDateTime.now());
         
         Car updatedCar = carRepository.save(car);
+        eventPublisher.publishEvent(new CarChangedEvent(before, CarSnapshot.of(updatedCar)));
         log.info("Car updated successfully: {}", updatedCar.getId());
         
         return updatedCar;
@@ -140,7 +323,7 @@ public class CarService {
      * Delete a car (soft delete)
      */
     @Transactional
-    @CacheEvict(value = "latestCars", allEntries = true)
+    @CacheEvict(value = {"latestCars", "featureVocabulary"}, allEntries = true)
     public void deleteCar(Long id, Long dealerId) {
         log.info("Deleting car with id: {} for dealer: {}", id, dealerId);
         
@@ -154,8 +337,10 @@ public class CarService {
         }
         
         // Soft delete - set active to false
+        CarSnapshot before = CarSnapshot.of(car);
         car.setActive(false);
         carRepository.save(car);
+        eventPublisher.publishEvent(new CarChangedEvent(before, CarSnapshot.of(car)));
         
         log.info("Car soft deleted successfully: {}", id);
     }
@@ -164,7 +349,7 @@ public class CarService {
      * Reactivate a previously deactivated car
      */
     @Transactional
-    @CacheEvict(value = "latestCars", allEntries = true)
+    @CacheEvict(value = {"latestCars", "featureVocabulary"}, allEntries = true)
     public Car reactivateCar(Long id, Long dealerId) {
         log.info("Reactivating car with id: {} for dealer: {}", id, dealerId);
 
@@ -176,59 +361,203 @@ public class CarService {
             throw new UnauthorizedException("No tienes permisos para reactivar este coche");
         }
 
+        CarSnapshot before = CarSnapshot.of(car);
         car.setActive(true);
-        return carRepository.save(car);
+        Car reactivatedCar = carRepository.save(car);
+        eventPublisher.publishEvent(new CarChangedEvent(before, CarSnapshot.of(reactivatedCar)));
+        return reactivatedCar;
+    }
+
+    /**
+     * Deactivate a selection of the dealer's cars with one set-based update
+     */
+    @Transactional
+    @CacheEvict(value = {"latestCars", "featureVocabulary"}, allEntries = true)
+    public BulkListingResult deactivateCars(List<Long> ids, Long dealerId) {
+        List<Long> carIds = checkBulkSelection(ids, dealerId);
+        log.info("Deactivating {} cars for dealer: {}", carIds.size(), dealerId);
+
+        List<CarSnapshot> wasActive = findSnapshots(carIds);
+        int updated = carRepository.updateActive(dealerId, carIds, false);
+        carSearchWriter.refresh(carIds);
+        eventPublisher.publishEvent(new CarsChangedEvent(wasActive.stream()
+            .map(before -> new CarChangedEvent(before, before.withActive(false)))
+            .toList()));
+        return new BulkListingResult(carIds.size(), updated);
+    }
+
+    /**
+     * Reactivate a selection of the dealer's cars with one set-based update
+     */
+    @Transactional
+    @CacheEvict(value = {"latestCars", "featureVocabulary"}, allEntries = true)
+    public BulkListingResult reactivateCars(List<Long> ids, Long dealerId) {
+        List<Long> carIds = checkBulkSelection(ids, dealerId);
+        log.info("Reactivating {} cars for dealer: {}", carIds.size(), dealerId);
+
+        Set<Long> wasActive = findSnapshots(carIds).stream().map(CarSnapshot::id).collect(Collectors.toSet());
+        int updated = carRepository.updateActive(dealerId, carIds, true);
+        carSearchWriter.refresh(carIds);
+        eventPublisher.publishEvent(new CarsChangedEvent(findSnapshots(carIds).stream()
+            .filter(after -> !wasActive.contains(after.id()))
+            .map(after -> new CarChangedEvent(after.withActive(false), after))
+            .toList()));
+        return new BulkListingResult(carIds.size(), updated);
+    }
+
+    /**
+     * Change the price of a selection of the dealer's cars by a percentage or an amount,
+     * with one set-based update; rejected as a whole if any price would not stay positive
+     */
+    @Transactional
+    @CacheEvict(value = {"latestCars", "featureVocabulary"}, allEntries = true)
+    public BulkListingResult adjustPrices(BulkPriceRequest request, Long dealerId) {
+        List<Long> carIds = checkBulkSelection(request.getIds(), dealerId);
+        if (request.getValue() == null) {
+            throw new IllegalArgumentException("Debe indicar el ajuste de precio");
+        }
+        BigDecimal factor;
+        BigDecimal amount;
+        if (PRICE_MODE_PERCENT.equalsIgnoreCase(request.getMode())) {
+            factor = BigDecimal.ONE.add(request.getValue().movePointLeft(2));
+            amount = BigDecimal.ZERO;
+        } else if (PRICE_MODE_AMOUNT.equalsIgnoreCase(request.getMode())) {
+            factor = BigDecimal.ONE;
+            amount = request.getValue();
+        } else {
+            throw new IllegalArgumentException("Tipo de ajuste de precio no válido: " + request.getMode());
+        }
+        if (carRepository.countInvalidAdjustedPrices(dealerId, carIds, factor, amount) > 0) {
+            throw new IllegalArgumentException("El ajuste dejaría algún coche con un precio no válido");
+        }
+        log.info("Adjusting prices of {} cars for dealer: {} ({} {})",
+            carIds.size(), dealerId, request.getMode(), request.getValue());
+
+        Map<Long, CarSnapshot> before = new HashMap<>();
+        findSnapshots(carIds).forEach(snapshot -> before.put(snapshot.id(), snapshot));
+        int updated = carRepository.adjustPrices(dealerId, carIds, factor, amount);
+        carSearchWriter.refresh(carIds);
+        // Inactive cars are in no index or cache, so only active ones are announced
+        eventPublisher.publishEvent(new CarsChangedEvent(findSnapshots(carIds).stream()
+            .map(after -> new CarChangedEvent(before.get(after.id()), after))
+            .toList()));
+        return new BulkListingResult(carIds.size(), updated);
     }
 
     /**
-     * Get cars by dealer
+     * Active cars of a dealer as listing cards, newest first (public dealer page)
      */
-    public List<Car> getCarsByDealer(Long dealerId) {
+    public List<CarCard> getCarsByDealer(Long dealerId) {
         log.info("Fetching cars for dealer: {}", dealerId);
-        return carRepository.findByDealerIdOrderByCreatedAtDesc(dealerId);
+        return carSearchRepository.findByDealerIdOrderByCreatedAtDescIdDesc(dealerId).stream()
+            .map(CarService::toCard)
+            .toList();
+    }
+
+    /**
+     * A page of the dealer's own listings (active and inactive) with keyset pagination,
+     * filtered by status, brand and price, plus the per-status counts
+     */
+    public DealerListingPage findDealerListings(Long dealerId, DealerListingFilter filter, String cursorToken, int size) {
+        log.info("Finding listings of dealer {} with filters: {} after cursor: {}", dealerId, filter, cursorToken);
+
+        CarSortKey sortKey = CarSortKey.fromParam(filter.getSortBy());
+        CarCursor cursor = cursorToken != null && !cursorToken.isBlank()
+            ? CarCursor.decode(cursorToken, sortKey)
+            : null;
+        boolean backward = cursor != null && cursor.backward();
+
+        // Fetch one extra row to know whether there is another page in the scroll direction
+        DealerInventoryQuery.Result result = dealerInventoryQuery.find(dealerId, filter, sortKey, cursor, size + 1);
+        List<ListingSummary> rows = result.rows();
+        boolean more = rows.size() > size;
+        if (more) {
+            rows = backward ? rows.subList(rows.size() - size, rows.size()) : rows.subList(0, size);
+        }
+
+        String nextCursor = null;
+        String prevCursor = null;
+        if (!rows.isEmpty()) {
+            if (backward || more) {
+                nextCursor = CarCursor.after(sortKey, rows.get(rows.size() - 1)).encode();
+            }
+            if (backward ? more : cursor != null) {
+                prevCursor = CarCursor.before(sortKey, rows.get(0)).encode();
+            }
+        }
+        return new DealerListingPage(List.copyOf(rows), nextCursor, prevCursor,
+            result.activeCount(), result.inactiveCount());
     }
 
     /**
-     * Get related cars (same brand, different ID, active)
+     * Get related cars as listing cards: the most similar active cars, or the latest of the
+     * same brand while the similarity engine is unavailable
      */
-    public List<Car> getRelatedCars(Long carId) {
+    public List<CarCard> getRelatedCars(Long carId) {
         log.info("Fetching related cars for car: {}", carId);
+
+        // Nearest listings by price, year, mileage, body, fuel and brand, precomputed in memory
+        Optional<List<Long>> similar = relatedCarsEngine.related(carId, RELATED_CARS);
+        if (similar.isPresent()) {
+            return findCardsInOrder(similar.get());
+        }
         
         Car car = carRepository.findById(carId)
             .orElseThrow(() -> new ResourceNotFoundException("Coche no encontrado con id: " + carId));
         
-        return carRepository.findTop6ByMakeAndIdNotAndActiveTrue(car.getMake(), carId);
+        return findLatestOfMake(car.getMake(), carId);
     }
 
     /**
-     * Get latest active cars
+     * Get related cars for an already loaded car, without fetching it again
+     */
+    public List<CarCard> getRelatedCars(Car car) {
+        Optional<List<Long>> similar = relatedCarsEngine.related(car.getId(), RELATED_CARS);
+        return similar.map(this::findCardsInOrder)
+            .orElseGet(() -> findLatestOfMake(car.getMake(), car.getId()));
+    }
+
+    /**
+     * Get latest active cars as listing cards
      */
     @Cacheable("latestCars")
-    public List<Car> getLatestCars() {
+    public List<CarCard> getLatestCars() {
         log.info("Fetching latest cars");
-        return carRepository.findTop8ByActiveTrueOrderByCreatedAtDesc();
+        return carSearchRepository.findTop8ByOrderByCreatedAtDescIdDesc().stream()
+            .map(CarService::toCard)
+            .toList();
     }
 
     /**
-     * Get dealer statistics
+     * Most popular active cars right now (decayed views, favourites and messages) as listing cards
+     */
+    public List<CarCard> getTrendingCars() {
+        // The ranking may still hold a car deactivated on another path; car_search drops it
+        return findCardsInOrder(trendingScores.top(TRENDING_CANDIDATES)).stream()
+            .limit(TRENDING_CARS)
+            .toList();
+    }
+
+    /**
+     * Get dealer statistics: the maintained dealer_stats counters plus the latest listings,
+     * two indexed lookups whatever the size of the inventory
      */
     public DashboardStats getDealerStats(Long dealerId) {
-        log.info("Calculating stats for dealer: {}", dealerId);
-        
-        Long activeListings = carRepository.countByDealerIdAndActiveTrue(dealerId);
-        Long totalViews = carRepository.sumViewsByDealerId(dealerId);
-        if (totalViews == null) {
-            totalViews = 0L;
-        }
-        
-        List<Car> recentListings = carRepository.findByDealerIdOrderByCreatedAtDesc(dealerId)
-            .stream()
-            .limit(5)
+        log.info("Fetching stats for dealer: {}", dealerId);
+
+        Optional<DealerStats> stats = dealerStatsRepository.findById(dealerId);
+        List<ListingSummary> recentListings = carRepository.findRecentListingRows(dealerId, RECENT_LISTINGS).stream()
+            .map(CarService::toListingSummary)
             .toList();
-        
-        Long totalListings = (long) carRepository.findByDealerIdOrderByCreatedAtDesc(dealerId).size();
-        
-        return new DashboardStats(activeListings, totalViews, totalListings, recentListings);
+
+        return new DashboardStats(
+            stats.map(DealerStats::getActiveListings).orElse(0L),
+            stats.map(DealerStats::getTotalViews).orElse(0L),
+            stats.map(DealerStats::getTotalListings).orElse(0L),
+            stats.map(DealerStats::getMessages).orElse(0L),
+            stats.map(DealerStats::getFavorites).orElse(0L),
+            recentListings
+        );
     }
 
     /**
@@ -246,68 +575,111 @@ public class CarService {
     }
 
     /**
-     * Get featured cars (first 6 cars for home page)
+     * Get total count of cars
      */
-    public List<Car> getFeaturedCars() {
-        List<Car> allCars = carRepository.findTop8ByActiveTrueOrderByCreatedAtDesc();
-        return allCars.size() > 6 ? allCars.subList(0, 6) : allCars;
+    public long getTotalCarCount() {
+        return carSearchRepository.count();
     }
 
-    /**
-     * Get cars by make
-     */
-    public List<Car> getCarsByMake(String make) {
-        return carRepository.findByMakeIgnoreCaseAndActiveTrue(make);
+    public List<String> getAvailableBrands() {
+        return carSearchRepository.findDistinctMakes();
     }
 
     /**
-     * Get cars by year
+     * Features offered by active cars, for the filter sidebar (cached until a car changes)
      */
-    public List<Car> getCarsByYear(Integer year) {
-        return carRepository.findByYearAndActiveTrue(year);
+    @Cacheable("featureVocabulary")
+    public List<String> getAvailableFeatures() {
+        return carSearchRepository.findDistinctFeatures();
     }
 
-    /**
-     * Get cars ordered by price (ascending)
-     */
-    public List<Car> getCarsOrderedByPriceAsc() {
-        return carRepository.findAllByActiveTrueOrderByPriceAsc();
-    }
+    // Helper methods
 
     /**
-     * Get cars ordered by price (descending)
+     * Load listing cards by id from the car_search read model, keeping the order of the id list
      */
-    public List<Car> getCarsOrderedByPriceDesc() {
-        return carRepository.findAllByActiveTrueOrderByPriceDesc();
+    private List<CarCard> findCardsInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, CarSearch> byId = new HashMap<>();
+        carSearchRepository.findAllById(ids).forEach(row -> byId.put(row.getId(), row));
+        return ids.stream()
+            .map(byId::get)
+            .filter(Objects::nonNull)
+            .map(CarService::toCard)
+            .toList();
     }
 
     /**
-     * Get cars ordered by year (newest first)
+     * Distinct ids of a bulk selection, all owned by the dealer
      */
-    public List<Car> getCarsOrderedByYearDesc() {
-        return carRepository.findAllByActiveTrueOrderByYearDesc();
+    private List<Long> checkBulkSelection(List<Long> ids, Long dealerId) {
+        List<Long> carIds = ids == null ? List.of() : ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (carIds.isEmpty()) {
+            throw new IllegalArgumentException("Debe seleccionar al menos un coche");
+        }
+        if (carIds.size() > MAX_BULK_CARS) {
+            throw new IllegalArgumentException("No se pueden modificar más de " + MAX_BULK_CARS + " coches a la vez");
+        }
+        if (carRepository.countByDealerIdAndIdIn(dealerId, carIds) != carIds.size()) {
+            log.error("Unauthorized bulk operation on cars {} by dealer {}", carIds, dealerId);
+            throw new UnauthorizedException("No tienes permisos para modificar todos los coches seleccionados");
+        }
+        return carIds;
     }
 
     /**
-     * Save a car
+     * Snapshots of the active cars among the ids, from the car_search read model
      */
-    @Transactional
-    public Car saveCar(Car car) {
-        return carRepository.save(car);
+    private List<CarSnapshot> findSnapshots(List<Long> carIds) {
+        return carSearchRepository.findAllById(carIds).stream()
+            .map(CarSnapshot::of)
+            .toList();
     }
 
-    /**
-     * Get total count of cars
-     */
-    public long getTotalCarCount() {
-        return carRepository.countByActiveTrue();
+    private List<CarCard> findLatestOfMake(String make, Long excludedCarId) {
+        return carSearchRepository.findTop6ByMakeAndIdNotOrderByCreatedAtDesc(make, excludedCarId).stream()
+            .map(CarService::toCard)
+            .toList();
     }
 
-    public List<String> getAvailableBrands() {
-        return carRepository.findDistinctMakesByActiveTrue();
+    private static ListingSummary toListingSummary(Object[] row) {
+        return new ListingSummary(
+            ((Number) row[0]).longValue(),
+            (String) row[1],
+            (String) row[2],
+            (BigDecimal) row[3],
+            row[4] != null ? ((Number) row[4]).intValue() : null,
+            row[5] != null ? ((Number) row[5]).intValue() : null,
+            row[6] != null ? ((Number) row[6]).intValue() : 0,
+            (Boolean) row[7],
+            row[8] instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) row[8],
+            (String) row[9]
+        );
     }
 
-    // Helper methods
+    private static CarCard toCard(CarSearch row) {
+        String description = row.getDescription();
+        return new CarCard(
+            row.getId(),
+            row.getMake(),
+            row.getModel(),
+            row.getYear(),
+            row.getPrice(),
+            row.getMileage(),
+            row.getFuelType(),
+            row.getTransmission(),
+            row.getCondition(),
+            row.getCreatedAt(),
+            description != null && description.length() > CARD_SUMMARY_LENGTH
+                ? description.substring(0, CARD_SUMMARY_LENGTH)
+                : description,
+            row.getPrimaryImage(),
+            row.getDealerName(),
+            row.getDealerCity()
+        );
+    }
 
     /**
      * Map DTO to entity
@@ -376,16 +748,17 @@ public class CarService {
     }
 
     /**
-     * Get Sort object from sort string
+     * Sort of the JPA listing path: the requested CarSortKey (newest first by default) with
+     * ties broken by id in the same direction, so offset pages neither overlap nor skip rows.
+     * Relevance is ordered by ts_rank and id inside the specification.
      */
-    private Sort getSortFromString(String sortBy) {
-        return switch (sortBy.toLowerCase()) {
-            case "price_asc" -> Sort.by(Sort.Direction.ASC, "price");
-            case "price_desc" -> Sort.by(Sort.Direction.DESC, "price");
-            case "date_desc" -> Sort.by(Sort.Direction.DESC, "createdAt");
-            case "mileage_asc" -> Sort.by(Sort.Direction.ASC, "mileage");
-            case "year_desc" -> Sort.by(Sort.Direction.DESC, "year");
-            default -> Sort.by(Sort.Direction.DESC, "createdAt");
-        };
+    private Sort getSort(CarFilterDTO filters) {
+        if (fullTextSearch && filters.getSearchText() != null && !filters.getSearchText().isBlank()
+                && CarSpecification.SORT_RELEVANCE.equalsIgnoreCase(filters.getSortBy())) {
+            return Sort.unsorted();
+        }
+        CarSortKey sortKey = CarSortKey.fromParam(filters.getSortBy());
+        Sort.Direction direction = sortKey.isAscending() ? Sort.Direction.ASC : Sort.Direction.DESC;
+        return Sort.by(direction, sortKey.getProperty(), "id");
     }
 }
@@ -1,17 +1,26 @@
 package com.cardealer.service;
 
+import com.cardealer.dto.CommentPage;
+import com.cardealer.dto.CommentView;
+import com.cardealer.dto.ReviewSummary;
 import com.cardealer.exception.ResourceNotFoundException;
 import com.cardealer.model.Car;
+import com.cardealer.model.CarReviewStats;
 import com.cardealer.model.Comment;
 import com.cardealer.model.User;
 import com.cardealer.repository.CarRepository;
+import com.cardealer.repository.CarReviewStatsRepository;
 import com.cardealer.repository.CommentRepository;
 import com.cardealer.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 
 @Slf4j
@@ -23,6 +32,13 @@ public class CommentService {
     private final CommentRepository commentRepository;
     private final CarRepository carRepository;
     private final UserRepository userRepository;
+    private final CarReviewStatsRepository reviewStatsRepository;
+
+    private static final int MAX_PAGE_SIZE = 50;
+
+    // Position of the last comment of a page
+    private record Cursor(LocalDateTime createdAt, long id) {
+    }
 
     /**
      * Add a comment to a car
@@ -49,8 +65,10 @@ public class CommentService {
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado"));
             comment.setUser(user);
         }
+        validateRating(comment.getRating());
         
         Comment savedComment = commentRepository.save(comment);
+        updateStats(savedComment, 1);
         log.info("Comment added successfully with id: {}", savedComment.getId());
         
         return savedComment;
@@ -68,6 +86,8 @@ public class CommentService {
             throw new IllegalArgumentException("El contenido del comentario no puede estar vacío");
         }
         
+        validateRating(rating);
+        
         // Validate car exists
         Car car = carRepository.findById(carId)
             .orElseThrow(() -> new ResourceNotFoundException("Coche no encontrado con id: " + carId));
@@ -83,25 +103,41 @@ public class CommentService {
         comment.setRating(rating);
         
         Comment savedComment = commentRepository.save(comment);
+        updateStats(savedComment, 1);
         log.info("Comment added successfully with id: {}", savedComment.getId());
         
         return savedComment;
     }
 
     /**
-     * Get all comments for a car
+     * Get one page of a car's comments, newest first; cursor is null for the first page
      */
-    public List<Comment> getCarComments(Long carId) {
+    public CommentPage getCommentPage(Long carId, String cursor, int size) {
         log.info("Fetching comments for car: {}", carId);
-        return commentRepository.findByCarIdOrderByCreatedAtDesc(carId);
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // One extra row tells whether another page follows
+        PageRequest fetch = PageRequest.of(0, limit + 1);
+        List<Comment> comments;
+        if (cursor == null || cursor.isBlank()) {
+            comments = commentRepository.findLatestByCarId(carId, fetch);
+        } else {
+            Cursor position = decodeCursor(cursor);
+            comments = commentRepository.findOlderByCarId(carId, position.createdAt(), position.id(), fetch);
+        }
+
+        boolean hasNext = comments.size() > limit;
+        List<Comment> page = hasNext ? comments.subList(0, limit) : comments;
+        String nextCursor = hasNext ? encodeCursor(page.get(page.size() - 1)) : null;
+        return new CommentPage(page.stream().map(CommentService::toView).toList(), nextCursor);
     }
 
     /**
-     * Get comment count for a car
+     * Get comment count, average rating and rating histogram of a car
      */
-    public Long getCommentCount(Long carId) {
-        log.info("Fetching comment count for car: {}", carId);
-        return commentRepository.countByCarId(carId);
+    public ReviewSummary getReviewSummary(Long carId) {
+        return reviewStatsRepository.findById(carId)
+            .map(CommentService::toSummary)
+            .orElseGet(ReviewSummary::empty);
     }
 
     /**
@@ -124,6 +160,53 @@ public class CommentService {
             .orElseThrow(() -> new ResourceNotFoundException("Comentario no encontrado con id: " + id));
         
         commentRepository.delete(comment);
+        updateStats(comment, -1);
         log.info("Comment deleted successfully: {}", id);
     }
+
+    // Helper methods
+
+    private static void validateRating(Integer rating) {
+        if (rating != null && (rating < 1 || rating > 5)) {
+            throw new IllegalArgumentException("La valoración debe estar entre 1 y 5");
+        }
+    }
+
+    /**
+     * Count a comment in (delta 1) or out of (delta -1) its car's review aggregates
+     */
+    private void updateStats(Comment comment, int delta) {
+        if (comment.getCar() != null) {
+            int rating = comment.getRating() != null ? comment.getRating() : 0;
+            reviewStatsRepository.apply(comment.getCar().getId(), delta, rating);
+        }
+    }
+
+    private static ReviewSummary toSummary(CarReviewStats stats) {
+        Double average = stats.getRatingCount() > 0 ? (double) stats.getRatingSum() / stats.getRatingCount() : null;
+        return new ReviewSummary(stats.getCommentCount(), stats.getRatingCount(), average, List.of(
+            (long) stats.getRating1(), (long) stats.getRating2(), (long) stats.getRating3(),
+            (long) stats.getRating4(), (long) stats.getRating5()));
+    }
+
+    private static CommentView toView(Comment comment) {
+        User user = comment.getUser();
+        return new CommentView(comment.getId(), user != null ? user.getId() : null,
+            user != null ? user.getName() : null, comment.getContent(), comment.getRating(), comment.getCreatedAt());
+    }
+
+    private static String encodeCursor(Comment last) {
+        String raw = last.getCreatedAt() + "~" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decodeCursor(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("~", -1);
+            return new Cursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor de comentarios no válido", e);
+        }
+    }
 }
\ No newline at end of file
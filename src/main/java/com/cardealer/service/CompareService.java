@@ -0,0 +1,111 @@
+package com.cardealer.service;
+
+import com.cardealer.config.FeatureSetFunctions;
+import com.cardealer.dto.CarComparison;
+import com.cardealer.exception.ResourceNotFoundException;
+import com.cardealer.repository.CarRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Compare engine: loads the compared cars with one query (specs, first image and feature set,
+ * no entities or lazy collections, no view counting) and precomputes which specs and features
+ * differ between them.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class CompareService {
+
+    private static final int MAX_CARS = 3;
+    private static final String NOT_AVAILABLE = "N/A";
+
+    private final CarRepository carRepository;
+
+    private record Spec(String key, String label, Function<Object[], Object> column) {
+    }
+
+    // Rows of the compare table, in display order, over the columns of findCompareRows
+    private static final List<Spec> SPECS = List.of(
+        new Spec("condition", "Condition", row -> row[10]),
+        new Spec("bodyType", "Body Type", row -> row[9]),
+        new Spec("make", "Make Brand", row -> row[1]),
+        new Spec("year", "Build Year", row -> row[3]),
+        new Spec("fuelType", "Fuel Type", row -> row[7]),
+        new Spec("color", "Color", row -> row[6]),
+        new Spec("mileage", "Mileage", row -> row[5] != null ? row[5] + " km" : null),
+        new Spec("price", "Price", row -> row[4] instanceof BigDecimal price
+            ? String.format(Locale.US, "%,.2f €", price) : null),
+        new Spec("transmission", "Transmission", row -> row[8]),
+        new Spec("engine", "Engine Size", row -> row[11]),
+        new Spec("doors", "Doors", row -> row[12])
+    );
+
+    /**
+     * Compare up to {@value #MAX_CARS} cars, in the order given; unknown ids are skipped
+     */
+    public CarComparison compare(List<Long> ids) {
+        List<Long> wanted = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (wanted.size() > MAX_CARS) {
+            wanted = wanted.subList(0, MAX_CARS);
+        }
+        log.info("Comparing cars: {}", wanted);
+
+        Map<Long, Object[]> byId = new HashMap<>();
+        for (Object[] row : carRepository.findCompareRows(wanted)) {
+            byId.put(((Number) row[0]).longValue(), row);
+        }
+        List<Object[]> rows = wanted.stream().map(byId::get).filter(Objects::nonNull).toList();
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Coches no encontrados para comparar: " + ids);
+        }
+
+        List<CarComparison.Column> columns = rows.stream()
+            .map(row -> new CarComparison.Column(((Number) row[0]).longValue(), row[1] + " " + row[2], (String) row[13]))
+            .toList();
+
+        List<CarComparison.SpecRow> specs = new ArrayList<>();
+        for (Spec spec : SPECS) {
+            List<String> values = rows.stream()
+                .map(row -> spec.column().apply(row))
+                .map(value -> value != null ? value.toString() : NOT_AVAILABLE)
+                .toList();
+            specs.add(new CarComparison.SpecRow(spec.key(), spec.label(), values, new HashSet<>(values).size() > 1));
+        }
+
+        List<Set<String>> featureSets = rows.stream().map(row -> features((String) row[14])).toList();
+        Set<String> allFeatures = new TreeSet<>();
+        featureSets.forEach(allFeatures::addAll);
+        List<CarComparison.FeatureRow> features = new ArrayList<>();
+        for (String feature : allFeatures) {
+            List<Boolean> present = featureSets.stream().map(set -> set.contains(feature)).toList();
+            features.add(new CarComparison.FeatureRow(feature, present, present.contains(false)));
+        }
+
+        return new CarComparison(columns, specs, features);
+    }
+
+    private static Set<String> features(String joined) {
+        if (joined == null || joined.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(Arrays.asList(joined.split(FeatureSetFunctions.SEPARATOR)));
+    }
+}
@@ -1,17 +1,28 @@
 package com.cardealer.service;
 
+import com.cardealer.dto.DealerCard;
+import com.cardealer.dto.DealerDirectoryFilter;
+import com.cardealer.dto.DealerDirectoryPage;
 import com.cardealer.exception.ResourceNotFoundException;
 import com.cardealer.model.Dealer;
+import com.cardealer.model.DealerDirectoryEntry;
 import com.cardealer.model.User;
+import com.cardealer.repository.CarSearchRepository;
+import com.cardealer.repository.DealerDirectoryRepository;
 import com.cardealer.repository.DealerRepository;
+import com.cardealer.search.DealerChangedEvent;
+import com.cardealer.search.DealerDirectoryCache;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Locale;
 
 @Service
 @Slf4j
@@ -20,11 +31,24 @@ public class DealerService {
     
     @Autowired
     private DealerRepository dealerRepository;
+
+    @Autowired
+    private CarSearchRepository carSearchRepository;
+
+    @Autowired
+    private DealerDirectoryRepository dealerDirectoryRepository;
+
+    @Autowired
+    private DealerDirectoryCache directoryCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private static final String SORT_LISTINGS = "listings";
     
     /**
      * Create a new dealer profile
      */
-    @CacheEvict(value = "activeDealers", allEntries = true)
     public Dealer createDealer(Dealer dealer, User user) {
         log.info("Creating dealer profile for user: {}", user.getEmail());
         
@@ -32,6 +56,7 @@ public class DealerService {
         dealer.setActive(true);
         
         dealer = dealerRepository.save(dealer);
+        eventPublisher.publishEvent(new DealerChangedEvent(dealer.getId()));
         log.info("Dealer created successfully with ID: {}", dealer.getId());
         
         return dealer;
@@ -40,7 +65,6 @@ public class DealerService {
     /**
      * Update dealer information
      */
-    @CacheEvict(value = "activeDealers", allEntries = true)
     public Dealer updateDealer(Long id, Dealer dealerDetails) {
         log.info("Updating dealer with ID: {}", id);
         
@@ -58,6 +82,9 @@ public class DealerService {
         // Email cannot be changed through this method
         
         dealer = dealerRepository.save(dealer);
+        // Listing cards show the dealer name and city from the car_search read model
+        carSearchRepository.updateDealer(dealer.getId(), dealer.getName(), dealer.getCity());
+        eventPublisher.publishEvent(new DealerChangedEvent(dealer.getId()));
         log.info("Dealer updated successfully with ID: {}", id);
         
         return dealer;
@@ -73,12 +100,44 @@ public class DealerService {
     }
     
     /**
-     * Get all active dealers
+     * A page of the directory of active dealers, optionally in one city, sorted by name or by
+     * number of active listings. Served from the dealer_directory read model (one query per
+     * page, none per dealer) through a bounded page cache.
+     */
+    @Transactional(readOnly = true)
+    public DealerDirectoryPage getDealerDirectory(DealerDirectoryFilter filter, int page, int size) {
+        String city = filter.getCity() != null && !filter.getCity().isBlank() ? filter.getCity().trim() : null;
+        boolean byListings = SORT_LISTINGS.equalsIgnoreCase(filter.getSortBy());
+        DealerDirectoryCache.Key key = new DealerDirectoryCache.Key(
+            city != null ? city.toLowerCase(Locale.ROOT) : null, byListings ? SORT_LISTINGS : "name", page, size);
+
+        return directoryCache.get(key).orElseGet(() -> {
+            long generation = directoryCache.generation();
+            Sort sort = byListings
+                ? Sort.by(Sort.Order.desc("activeListings"), Sort.Order.asc("name"), Sort.Order.asc("dealerId"))
+                : Sort.by("name", "dealerId");
+            PageRequest pageable = PageRequest.of(page, size, sort);
+            Page<DealerDirectoryEntry> rows = city != null
+                ? dealerDirectoryRepository.findByCity(city, pageable)
+                : dealerDirectoryRepository.findAll(pageable);
+            DealerDirectoryPage result = new DealerDirectoryPage(
+                rows.map(DealerService::toCard).getContent(), page, size, rows.getTotalElements(), rows.getTotalPages());
+            directoryCache.put(key, result, generation);
+            return result;
+        });
+    }
+
+    /**
+     * Cities with at least one active dealer, for the directory filter
      */
-    @Cacheable("activeDealers")
-    public List<Dealer> getAllActiveDealers() {
-        log.debug("Fetching all active dealers");
-        return dealerRepository.findByActiveTrue();
+    @Transactional(readOnly = true)
+    public List<String> getDirectoryCities() {
+        return directoryCache.cities().orElseGet(() -> {
+            long generation = directoryCache.generation();
+            List<String> cities = dealerDirectoryRepository.findDistinctCities();
+            directoryCache.putCities(cities, generation);
+            return cities;
+        });
     }
     
     /**
@@ -93,13 +152,13 @@ public class DealerService {
     /**
      * Deactivate dealer (soft delete)
      */
-    @CacheEvict(value = "activeDealers", allEntries = true)
     public void deactivateDealer(Long id) {
         log.info("Deactivating dealer with ID: {}", id);
         
         Dealer dealer = getDealerById(id);
         dealer.setActive(false);
         dealerRepository.save(dealer);
+        eventPublisher.publishEvent(new DealerChangedEvent(id));
         
         log.info("Dealer deactivated successfully with ID: {}", id);
     }
@@ -107,14 +166,30 @@ public class DealerService {
     /**
      * Activate dealer
      */
-    @CacheEvict(value = "activeDealers", allEntries = true)
     public void activateDealer(Long id) {
         log.info("Activating dealer with ID: {}", id);
         
         Dealer dealer = getDealerById(id);
         dealer.setActive(true);
         dealerRepository.save(dealer);
+        eventPublisher.publishEvent(new DealerChangedEvent(id));
         
         log.info("Dealer activated successfully with ID: {}", id);
     }
+
+    private static DealerCard toCard(DealerDirectoryEntry entry) {
+        return new DealerCard(
+            entry.getDealerId(),
+            entry.getName(),
+            entry.getEmail(),
+            entry.getPhone(),
+            entry.getAddress(),
+            entry.getCity(),
+            entry.getLogoUrl(),
+            entry.getActiveListings(),
+            entry.getMinPrice(),
+            entry.getMaxPrice(),
+            entry.getLastListingAt()
+        );
+    }
 }
@@ -5,10 +5,14 @@ import com.cardealer.model.Car;
 import com.cardealer.model.Favorite;
 import com.cardealer.model.User;
 import com.cardealer.repository.CarRepository;
+import com.cardealer.repository.DealerStatsRepository;
 import com.cardealer.repository.FavoriteRepository;
 import com.cardealer.repository.UserRepository;
+import com.cardealer.search.CarInterestEvent;
+import com.cardealer.search.TrendingScores;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -26,6 +30,8 @@ public class FavoriteService {
     private final FavoriteRepository favoriteRepository;
     private final UserRepository userRepository;
     private final CarRepository carRepository;
+    private final DealerStatsRepository dealerStatsRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Add a car to favorites
@@ -54,6 +60,8 @@ public class FavoriteService {
         favorite.setCar(car);
         
         Favorite savedFavorite = favoriteRepository.save(favorite);
+        dealerStatsRepository.addFavorites(carId, 1);
+        eventPublisher.publishEvent(new CarInterestEvent(carId, TrendingScores.Signal.FAVORITE, userId));
         log.info("Favorite added successfully with id: {}", savedFavorite.getId());
         
         return savedFavorite;
@@ -66,12 +74,12 @@ public class FavoriteService {
     public void removeFavorite(Long userId, Long carId) {
         log.info("Removing car {} from favorites for user {}", carId, userId);
         
-        if (!favoriteRepository.existsByUserIdAndCarId(userId, carId)) {
+        int deleted = favoriteRepository.deleteByUserIdAndCarId(userId, carId);
+        if (deleted == 0) {
             log.warn("Car {} is not in favorites for user {}", carId, userId);
             throw new ResourceNotFoundException("Favorito no encontrado");
         }
-        
-        favoriteRepository.deleteByUserIdAndCarId(userId, carId);
+        dealerStatsRepository.addFavorites(carId, -deleted);
         log.info("Favorite removed successfully");
     }
 
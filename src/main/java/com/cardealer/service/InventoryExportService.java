@@ -0,0 +1,182 @@
+package com.cardealer.service;
+
+import com.cardealer.dto.CarFilterDTO;
+import com.cardealer.search.InventoryExportQuery;
+import com.cardealer.util.CsvWriter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Inventory exports as CSV or NDJSON, written row by row from a database cursor straight to
+ * the response, so memory use does not depend on the number of cars exported. Meant to run
+ * inside a StreamingResponseBody; each export is one read-only transaction.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class InventoryExportService {
+
+    private static final String LIST_SEPARATOR = "|";
+
+    private final InventoryExportQuery exportQuery;
+    private final ObjectMapper objectMapper;
+
+    @Value("${inventory.export.search-max-rows:5000}")
+    private int searchMaxRows;
+
+    public enum Format {
+        CSV("csv", new MediaType("text", "csv", StandardCharsets.UTF_8)),
+        NDJSON("ndjson", MediaType.parseMediaType("application/x-ndjson"));
+
+        private final String extension;
+        private final MediaType mediaType;
+
+        Format(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        /**
+         * Resolve the format request parameter ("csv" or "ndjson")
+         */
+        public static Format fromParam(String format) {
+            for (Format value : values()) {
+                if (value.extension.equalsIgnoreCase(format)) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Formato de exportación no soportado: " + format);
+        }
+    }
+
+    /**
+     * All listings of a dealer, active and inactive, newest first
+     */
+    public void exportDealerInventory(Long dealerId, Format format, OutputStream out) throws IOException {
+        log.info("Exporting inventory of dealer {} as {}", dealerId, format);
+        try (Stream<Object[]> rows = exportQuery.dealerCars(dealerId)) {
+            write(InventoryExportQuery.DEALER_COLUMNS, rows, format, out);
+        }
+    }
+
+    /**
+     * Active cars matching the filters of the public listing, in listing order. The export is
+     * open to anonymous visitors, so it stops after the configured maximum number of rows.
+     */
+    public void exportSearch(CarFilterDTO filters, Format format, OutputStream out) throws IOException {
+        log.info("Exporting up to {} cars with filters: {} as {}", searchMaxRows, filters, format);
+        try (Stream<Object[]> rows = exportQuery.searchResults(filters, searchMaxRows)) {
+            write(InventoryExportQuery.SEARCH_COLUMNS, rows, format, out);
+        }
+    }
+
+    // Helper methods
+
+    private void write(List<String> columns, Stream<Object[]> rows, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        Iterator<Object[]> iterator = rows.iterator();
+        long count = 0;
+        if (format == Format.CSV) {
+            CsvWriter csv = new CsvWriter(writer, ',');
+            csv.writeRecord(columns);
+            List<String> fields = new ArrayList<>(columns.size());
+            while (iterator.hasNext()) {
+                fields.clear();
+                for (Object value : iterator.next()) {
+                    fields.add(csvValue(value));
+                }
+                csv.writeRecord(fields);
+                count++;
+            }
+        } else {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+            // The response stream belongs to the caller
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Lines are separated by the newline alone, not the default space before each object
+            generator.setRootValueSeparator(null);
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                generator.writeStartObject();
+                for (int i = 0; i < columns.size(); i++) {
+                    writeJsonField(generator, columns.get(i), row[i]);
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                count++;
+            }
+            generator.flush();
+        }
+        writer.flush();
+        log.debug("Exported {} cars", count);
+    }
+
+    /**
+     * Lists are joined with {@value #LIST_SEPARATOR}, as the import expects them
+     */
+    private static String csvValue(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof String[] values) {
+            return String.join(LIST_SEPARATOR, values);
+        }
+        if (value instanceof Enum<?> constant) {
+            return constant.name();
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return value.toString();
+    }
+
+    private static void writeJsonField(JsonGenerator generator, String name, Object value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(name);
+        } else if (value instanceof String[] values) {
+            generator.writeArrayFieldStart(name);
+            for (String element : values) {
+                generator.writeString(element);
+            }
+            generator.writeEndArray();
+        } else if (value instanceof BigDecimal decimal) {
+            generator.writeNumberField(name, decimal);
+        } else if (value instanceof Long number) {
+            generator.writeNumberField(name, number);
+        } else if (value instanceof Integer number) {
+            generator.writeNumberField(name, number);
+        } else if (value instanceof Boolean flag) {
+            generator.writeBooleanField(name, flag);
+        } else if (value instanceof Enum<?> constant) {
+            generator.writeStringField(name, constant.name());
+        } else {
+            generator.writeStringField(name, value.toString());
+        }
+    }
+}
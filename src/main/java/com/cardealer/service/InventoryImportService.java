@@ -0,0 +1,652 @@
+package com.cardealer.service;
+
+import com.cardealer.dto.CarDTO;
+import com.cardealer.dto.ImportReport;
+import com.cardealer.dto.ImportRowError;
+import com.cardealer.exception.ResourceNotFoundException;
+import com.cardealer.model.enums.BodyType;
+import com.cardealer.model.enums.CarCondition;
+import com.cardealer.model.enums.FuelType;
+import com.cardealer.model.enums.TransmissionType;
+import com.cardealer.repository.CarSearchRepository;
+import com.cardealer.repository.DealerRepository;
+import com.cardealer.search.CarChangedEvent;
+import com.cardealer.search.CarSearchWriter;
+import com.cardealer.search.CarSnapshot;
+import com.cardealer.search.CarsChangedEvent;
+import com.cardealer.util.CsvReader;
+import com.cardealer.util.FileUploadUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of a dealer's listings from a CSV or NDJSON file.
+ * <p>
+ * The upload is read one row at a time, so memory is bounded by the batch size whatever the
+ * size of the file. Rows are validated like the listing form (the CarDTO constraints and the
+ * enum values of mapDtoToEntity) and their images must name files already uploaded. Valid rows
+ * are inserted with JDBC in batches of {@code inventory.import.batch-size}, each batch in its
+ * own transaction together with its features, images and car_search rows, so a bad batch
+ * does not undo the ones before it. A dry run only validates.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class InventoryImportService {
+
+    private static final int MAX_RECORD_LENGTH = 64 * 1024;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final String LIST_SEPARATOR = "|";
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+
+    // Accepted column (CSV header) and field (NDJSON) names, normalized, to CarDTO properties
+    private static final Map<String, String> COLUMNS = Map.ofEntries(
+        Map.entry("brand", "brand"),
+        Map.entry("make", "brand"),
+        Map.entry("model", "model"),
+        Map.entry("year", "year"),
+        Map.entry("price", "price"),
+        Map.entry("mileage", "mileage"),
+        Map.entry("fueltype", "fuelType"),
+        Map.entry("transmission", "transmission"),
+        Map.entry("bodytype", "bodyType"),
+        Map.entry("condition", "condition"),
+        Map.entry("color", "color"),
+        Map.entry("doors", "doors"),
+        Map.entry("engine", "engine"),
+        Map.entry("description", "description"),
+        Map.entry("features", "features"),
+        Map.entry("images", "images")
+    );
+    // Columns of the dealer export that describe the stored listing; accepted and ignored so an
+    // export can be imported again as new listings
+    private static final Set<String> READ_ONLY_COLUMNS = Set.of("id", "views", "active", "createdat");
+    private static final List<String> REQUIRED_COLUMNS =
+        List.of("brand", "model", "year", "price", "mileage", "fuelType", "transmission", "condition", "images");
+
+    // Column sizes of the cars, car_features and car_images tables
+    private static final int MAX_BRAND_LENGTH = 50;
+    private static final int MAX_MODEL_LENGTH = 100;
+    private static final int MAX_COLOR_LENGTH = 30;
+    private static final int MAX_ENGINE_LENGTH = 50;
+    private static final int MAX_FEATURE_LENGTH = 100;
+    private static final int MAX_IMAGE_LENGTH = 500;
+
+    private static final String ALLOCATE_IDS_SQL =
+        "SELECT nextval(pg_get_serial_sequence('cars', 'id')) FROM generate_series(1, ?)";
+    private static final String INSERT_CAR_SQL =
+        "INSERT INTO cars (id, make, model, car_year, price, mileage, fuel_type, transmission, body_type, " +
+        "\"condition\", color, doors, engine, description, views, dealer_id, active) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?, TRUE)";
+    // One statement per batch, so the feature_set trigger runs once per batch
+    private static final String INSERT_FEATURES_SQL =
+        "INSERT INTO car_features (car_id, feature) SELECT * FROM unnest(CAST(? AS BIGINT[]), CAST(? AS TEXT[]))";
+    private static final String INSERT_IMAGES_SQL =
+        "INSERT INTO car_images (car_id, image_url) SELECT * FROM unnest(CAST(? AS BIGINT[]), CAST(? AS TEXT[]))";
+
+    private enum Format {
+        CSV, NDJSON
+    }
+
+    /**
+     * A validated row, ready to insert
+     */
+    private record ImportRow(long line, CarDTO car, FuelType fuelType, TransmissionType transmission,
+                             BodyType bodyType, CarCondition condition, List<String> features, List<String> images) {
+    }
+
+    /**
+     * Source of rows as JSON objects keyed by CarDTO property; null at the end of the input.
+     * A row that cannot be read is reported with an {@link InvalidRowException}; any other
+     * IllegalArgumentException means the rest of the input cannot be split into rows.
+     */
+    private interface RowSource {
+        JsonNode next() throws IOException;
+
+        long line();
+    }
+
+    private static final class InvalidRowException extends RuntimeException {
+
+        InvalidRowException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    private final DealerRepository dealerRepository;
+    private final CarSearchRepository carSearchRepository;
+    private final CarSearchWriter carSearchWriter;
+    private final FileUploadUtil fileUploadUtil;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+
+    public InventoryImportService(DealerRepository dealerRepository,
+                                  CarSearchRepository carSearchRepository,
+                                  CarSearchWriter carSearchWriter,
+                                  FileUploadUtil fileUploadUtil,
+                                  Validator validator,
+                                  ObjectMapper objectMapper,
+                                  JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${inventory.import.batch-size:1000}") int batchSize) {
+        this.dealerRepository = dealerRepository;
+        this.carSearchRepository = carSearchRepository;
+        this.carSearchWriter = carSearchWriter;
+        this.fileUploadUtil = fileUploadUtil;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Import the listings of a CSV (.csv) or NDJSON (.ndjson, .jsonl) file for the dealer;
+     * with dryRun the file is only validated
+     */
+    // Each batch commits in its own transaction
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @CacheEvict(value = {"latestCars", "featureVocabulary"}, allEntries = true, condition = "!#dryRun")
+    public ImportReport importListings(MultipartFile file, boolean dryRun, Long dealerId) throws IOException {
+        if (!dealerRepository.existsById(dealerId)) {
+            throw new ResourceNotFoundException("Concesionario no encontrado con id: " + dealerId);
+        }
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("El archivo de importación está vacío");
+        }
+        Format format = detectFormat(file);
+        log.info("Importing {} listings for dealer {} from {} (dry run: {})",
+            format, dealerId, file.getOriginalFilename(), dryRun);
+
+        ImportReport report = new ImportReport();
+        report.setDryRun(dryRun);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+            skipByteOrderMark(reader);
+            RowSource rows = format == Format.CSV ? csvRows(reader) : ndjsonRows(reader);
+            List<ImportRow> batch = new ArrayList<>(batchSize);
+            while (true) {
+                JsonNode node;
+                try {
+                    node = rows.next();
+                } catch (InvalidRowException e) {
+                    report.setRows(report.getRows() + 1);
+                    addError(report, rows.line(), e.getMessage());
+                    continue;
+                } catch (IllegalArgumentException e) {
+                    // The rest of the file cannot be split into rows reliably
+                    report.setRows(report.getRows() + 1);
+                    addError(report, rows.line(), e.getMessage());
+                    break;
+                }
+                if (node == null) {
+                    break;
+                }
+                report.setRows(report.getRows() + 1);
+                try {
+                    batch.add(toRow(node, rows.line()));
+                    report.setValid(report.getValid() + 1);
+                } catch (IllegalArgumentException e) {
+                    addError(report, rows.line(), e.getMessage());
+                }
+                if (batch.size() >= batchSize) {
+                    save(batch, dryRun, dealerId, report);
+                }
+            }
+            save(batch, dryRun, dealerId, report);
+        }
+        log.info("Import for dealer {} finished: {} rows, {} valid, {} imported",
+            dealerId, report.getRows(), report.getValid(), report.getImported());
+        return report;
+    }
+
+    // Helper methods
+
+    private void save(List<ImportRow> batch, boolean dryRun, Long dealerId, ImportReport report) {
+        if (batch.isEmpty() || dryRun) {
+            batch.clear();
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(batch, dealerId));
+            report.setImported(report.getImported() + batch.size());
+        } catch (DataAccessException e) {
+            log.error("Could not import a batch of {} listings for dealer {}", batch.size(), dealerId, e);
+            batch.forEach(row -> addError(report, row.line(), "No se pudo guardar la fila"));
+        }
+        batch.clear();
+    }
+
+    /**
+     * Insert a batch of cars with their features and images, refresh their car_search rows
+     * and announce them with one CarsChangedEvent (runs inside the batch transaction)
+     */
+    private void insert(List<ImportRow> batch, Long dealerId) {
+        List<Long> ids = jdbcTemplate.queryForList(ALLOCATE_IDS_SQL, Long.class, batch.size());
+
+        List<Object[]> cars = new ArrayList<>(batch.size());
+        List<Long> featureCarIds = new ArrayList<>();
+        List<String> features = new ArrayList<>();
+        List<Long> imageCarIds = new ArrayList<>();
+        List<String> images = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            ImportRow row = batch.get(i);
+            Long id = ids.get(i);
+            CarDTO car = row.car();
+            cars.add(new Object[] {
+                id, car.getBrand(), car.getModel(), car.getYear(), car.getPrice(), car.getMileage(),
+                row.fuelType().name(), row.transmission().name(),
+                row.bodyType() != null ? row.bodyType().name() : null,
+                row.condition().name(), car.getColor(), car.getDoors(), car.getEngine(), car.getDescription(),
+                dealerId
+            });
+            row.features().forEach(feature -> {
+                featureCarIds.add(id);
+                features.add(feature);
+            });
+            row.images().forEach(image -> {
+                imageCarIds.add(id);
+                images.add(image);
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_CAR_SQL, cars);
+        insertPairs(INSERT_FEATURES_SQL, featureCarIds, features);
+        insertPairs(INSERT_IMAGES_SQL, imageCarIds, images);
+
+        carSearchWriter.refresh(ids);
+        eventPublisher.publishEvent(new CarsChangedEvent(carSearchRepository.findAllById(ids).stream()
+            .map(car -> new CarChangedEvent(null, CarSnapshot.of(car)))
+            .toList()));
+    }
+
+    private void insertPairs(String sql, List<Long> carIds, List<String> values) {
+        if (carIds.isEmpty()) {
+            return;
+        }
+        Long[] carIdArray = carIds.toArray(new Long[0]);
+        String[] valueArray = values.toArray(new String[0]);
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setArray(1, connection.createArrayOf("bigint", carIdArray));
+            statement.setArray(2, connection.createArrayOf("text", valueArray));
+            return statement;
+        });
+    }
+
+    /**
+     * Validate a row like the listing form; the exception lists every problem of the row
+     */
+    private ImportRow toRow(JsonNode node, long line) {
+        List<String> errors = new ArrayList<>();
+        CarDTO car = new CarDTO();
+        car.setBrand(text(node, "brand"));
+        car.setModel(text(node, "model"));
+        car.setYear(integer(node, "year", "El año", errors));
+        car.setPrice(price(node, errors));
+        car.setMileage(integer(node, "mileage", "El kilometraje", errors));
+        car.setFuelType(text(node, "fuelType"));
+        car.setTransmission(text(node, "transmission"));
+        car.setBodyType(text(node, "bodyType"));
+        car.setCondition(text(node, "condition"));
+        car.setColor(text(node, "color"));
+        car.setDoors(integer(node, "doors", "El número de puertas", errors));
+        car.setEngine(text(node, "engine"));
+        car.setDescription(text(node, "description"));
+        car.setFeatures(list(node, "features"));
+        car.setExistingImages(list(node, "images"));
+
+        validator.validate(car).stream()
+            .sorted((a, b) -> a.getPropertyPath().toString().compareTo(b.getPropertyPath().toString()))
+            .map(ConstraintViolation::getMessage)
+            .forEach(errors::add);
+        checkLength(car.getBrand(), MAX_BRAND_LENGTH, "La marca", errors);
+        checkLength(car.getModel(), MAX_MODEL_LENGTH, "El modelo", errors);
+        checkLength(car.getColor(), MAX_COLOR_LENGTH, "El color", errors);
+        checkLength(car.getEngine(), MAX_ENGINE_LENGTH, "El motor", errors);
+
+        FuelType fuelType = parseEnum(FuelType.class, car.getFuelType(), "Tipo de combustible", errors);
+        TransmissionType transmission = parseEnum(TransmissionType.class, car.getTransmission(), "Tipo de transmisión", errors);
+        BodyType bodyType = parseEnum(BodyType.class, car.getBodyType(), "Tipo de carrocería", errors);
+        CarCondition condition = parseEnum(CarCondition.class, car.getCondition(), "Condición", errors);
+
+        List<String> features = new ArrayList<>(new LinkedHashSet<>(car.getFeatures()));
+        features.stream()
+            .filter(feature -> feature.length() > MAX_FEATURE_LENGTH)
+            .findFirst()
+            .ifPresent(feature -> errors.add("Las características no pueden superar " + MAX_FEATURE_LENGTH + " caracteres"));
+
+        List<String> images = car.getExistingImages();
+        if (images.isEmpty()) {
+            errors.add("Debe indicar al menos una imagen");
+        }
+        for (String image : images) {
+            if (!isUploadedFile(image)) {
+                errors.add("Imagen no encontrada: " + image);
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", errors));
+        }
+        return new ImportRow(line, car, fuelType, transmission, bodyType, condition, features, images);
+    }
+
+    /**
+     * Images are referenced by the file name FileUploadUtil gave them, never by a path
+     */
+    private boolean isUploadedFile(String image) {
+        return image.length() <= MAX_IMAGE_LENGTH
+            && image.equals(StringUtils.getFilename(image))
+            && !image.contains("..")
+            && fileUploadUtil.fileExists(image);
+    }
+
+    private static void checkLength(String value, int max, String label, List<String> errors) {
+        if (value != null && value.length() > max) {
+            errors.add(label + " no puede superar " + max + " caracteres");
+        }
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String label, List<String> errors) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            // Same conversion as CarService.mapDtoToEntity
+            return Enum.valueOf(type, value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            errors.add(label + " no válido: " + value);
+            return null;
+        }
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        if (!value.isValueNode()) {
+            throw new IllegalArgumentException("Valor no válido para el campo " + field);
+        }
+        String text = value.asText().trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    private static Integer integer(JsonNode node, String field, String label, List<String> errors) {
+        String text = text(node, field);
+        if (text == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(text);
+        } catch (NumberFormatException e) {
+            errors.add(label + " no es un número entero: " + text);
+            return null;
+        }
+    }
+
+    private static BigDecimal price(JsonNode node, List<String> errors) {
+        String text = text(node, "price");
+        if (text == null) {
+            return null;
+        }
+        try {
+            BigDecimal price = new BigDecimal(text);
+            if (price.compareTo(MAX_PRICE) > 0) {
+                errors.add("El precio es demasiado alto: " + text);
+                return null;
+            }
+            return price;
+        } catch (NumberFormatException e) {
+            errors.add("El precio no es un número válido: " + text);
+            return null;
+        }
+    }
+
+    /**
+     * A JSON array, or a text with the values separated by {@value #LIST_SEPARATOR}
+     */
+    private static List<String> list(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        List<String> values = new ArrayList<>();
+        if (value == null || value.isNull()) {
+            return values;
+        }
+        if (value.isArray()) {
+            value.forEach(element -> values.add(element.asText().trim()));
+        } else if (value.isValueNode()) {
+            for (String element : StringUtils.delimitedListToStringArray(value.asText(), LIST_SEPARATOR)) {
+                values.add(element.trim());
+            }
+        } else {
+            throw new IllegalArgumentException("Valor no válido para el campo " + field);
+        }
+        values.removeIf(String::isEmpty);
+        return values;
+    }
+
+    private void addError(ImportReport report, long line, String message) {
+        if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+            report.getErrors().add(new ImportRowError(line, message));
+        } else {
+            report.setOmittedErrors(report.getOmittedErrors() + 1);
+        }
+    }
+
+    private static Format detectFormat(MultipartFile file) {
+        String name = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase(Locale.ROOT) : "";
+        String contentType = file.getContentType() != null ? file.getContentType().toLowerCase(Locale.ROOT) : "";
+        if (name.endsWith(".csv") || contentType.startsWith("text/csv")) {
+            return Format.CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl") || contentType.startsWith("application/x-ndjson")) {
+            return Format.NDJSON;
+        }
+        throw new IllegalArgumentException("Formato de archivo no soportado: use CSV (.csv) o NDJSON (.ndjson, .jsonl)");
+    }
+
+    private static void skipByteOrderMark(BufferedReader reader) throws IOException {
+        reader.mark(1);
+        if (reader.read() != '\uFEFF') {
+            reader.reset();
+        }
+    }
+
+    /**
+     * CSV with a header row naming the columns; ',' or ';' separated (whichever the header uses)
+     */
+    private RowSource csvRows(BufferedReader reader) throws IOException {
+        String firstLine = peekLine(reader);
+        if (firstLine == null) {
+            throw new IllegalArgumentException("El archivo de importación está vacío");
+        }
+        char separator = firstLine.indexOf(';') >= 0 && firstLine.indexOf(',') < 0 ? ';' : ',';
+        CsvReader csv = new CsvReader(reader, separator, MAX_RECORD_LENGTH);
+
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new IllegalArgumentException("El archivo de importación está vacío");
+        }
+        List<String> columns = new ArrayList<>(header.size());
+        for (String name : header) {
+            String column = COLUMNS.get(normalize(name));
+            if (column == null && !READ_ONLY_COLUMNS.contains(normalize(name))) {
+                throw new IllegalArgumentException("Columna desconocida: " + name);
+            }
+            // Null for a read-only column, whose values are skipped
+            columns.add(column);
+        }
+        Set<String> missing = REQUIRED_COLUMNS.stream()
+            .filter(column -> !columns.contains(column))
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Faltan columnas obligatorias: " + String.join(", ", missing));
+        }
+
+        return new RowSource() {
+            @Override
+            public JsonNode next() throws IOException {
+                List<String> fields = csv.next();
+                if (fields == null) {
+                    return null;
+                }
+                if (fields.size() > columns.size()) {
+                    throw new InvalidRowException("La fila tiene más columnas que la cabecera");
+                }
+                ObjectNode node = objectMapper.createObjectNode();
+                for (int i = 0; i < fields.size(); i++) {
+                    if (columns.get(i) != null) {
+                        node.put(columns.get(i), fields.get(i));
+                    }
+                }
+                return node;
+            }
+
+            @Override
+            public long line() {
+                return csv.recordLine();
+            }
+        };
+    }
+
+    /**
+     * One JSON object per line; blank lines are skipped
+     */
+    private RowSource ndjsonRows(BufferedReader reader) {
+        return new RowSource() {
+            private long line;
+
+            @Override
+            public JsonNode next() throws IOException {
+                String text;
+                do {
+                    line++;
+                    text = readLine(reader);
+                } while (text != null && text.isBlank());
+                if (text == null) {
+                    return null;
+                }
+                JsonNode parsed;
+                try {
+                    parsed = objectMapper.readTree(text);
+                } catch (JsonProcessingException e) {
+                    throw new InvalidRowException("JSON no válido");
+                }
+                if (!parsed.isObject()) {
+                    throw new InvalidRowException("Cada línea debe ser un objeto JSON");
+                }
+                ObjectNode node = objectMapper.createObjectNode();
+                Iterator<Map.Entry<String, JsonNode>> fields = parsed.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    String column = COLUMNS.get(normalize(field.getKey()));
+                    if (column == null) {
+                        if (READ_ONLY_COLUMNS.contains(normalize(field.getKey()))) {
+                            continue;
+                        }
+                        throw new InvalidRowException("Campo desconocido: " + field.getKey());
+                    }
+                    node.set(column, field.getValue());
+                }
+                return node;
+            }
+
+            @Override
+            public long line() {
+                return line;
+            }
+        };
+    }
+
+    /**
+     * The first line of the input without consuming it, or null for an empty input
+     */
+    private static String peekLine(BufferedReader reader) throws IOException {
+        reader.mark(MAX_RECORD_LENGTH + 1);
+        StringBuilder text = new StringBuilder();
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        while (c != -1 && c != '\n' && c != '\r') {
+            if (text.length() == MAX_RECORD_LENGTH) {
+                throw new IllegalArgumentException(
+                    "La cabecera supera el máximo de " + MAX_RECORD_LENGTH + " caracteres");
+            }
+            text.append((char) c);
+            c = reader.read();
+        }
+        reader.reset();
+        return text.toString();
+    }
+
+    /**
+     * Next line, or null at the end of the input. A line longer than the record limit is
+     * skipped to its end and reported as an invalid row, so one bad line cannot exhaust memory.
+     */
+    private static String readLine(BufferedReader reader) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        StringBuilder text = new StringBuilder();
+        boolean tooLong = false;
+        // One extra character for the CR of a CRLF line ending
+        while (c != -1 && c != '\n') {
+            if (text.length() <= MAX_RECORD_LENGTH) {
+                text.append((char) c);
+            } else {
+                tooLong = true;
+            }
+            c = reader.read();
+        }
+        int end = text.length();
+        if (end > 0 && text.charAt(end - 1) == '\r') {
+            text.setLength(end - 1);
+        }
+        if (tooLong || text.length() > MAX_RECORD_LENGTH) {
+            throw new InvalidRowException("La línea supera el máximo de " + MAX_RECORD_LENGTH + " caracteres");
+        }
+        return text.toString();
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT).replace("_", "").replace("-", "").replace(" ", "");
+    }
+}
@@ -6,10 +6,14 @@ import com.cardealer.model.Car;
 import com.cardealer.model.Message;
 import com.cardealer.model.User;
 import com.cardealer.repository.CarRepository;
+import com.cardealer.repository.DealerStatsRepository;
 import com.cardealer.repository.MessageRepository;
 import com.cardealer.repository.UserRepository;
+import com.cardealer.search.CarInterestEvent;
+import com.cardealer.search.TrendingScores;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -26,6 +30,8 @@ public class MessageService {
     private final MessageRepository messageRepository;
     private final UserRepository userRepository;
     private final CarRepository carRepository;
+    private final DealerStatsRepository dealerStatsRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Send a message
@@ -54,6 +60,10 @@ public class MessageService {
         message.setRead(false);
         
         Message savedMessage = messageRepository.save(message);
+        if (car != null) {
+            dealerStatsRepository.addMessages(car.getId(), 1);
+            eventPublisher.publishEvent(new CarInterestEvent(car.getId(), TrendingScores.Signal.MESSAGE, null));
+        }
         log.info("Message sent successfully with id: {}", savedMessage.getId());
         
         return savedMessage;
@@ -90,6 +100,10 @@ public class MessageService {
         message.setRead(false);
         
         Message savedMessage = messageRepository.save(message);
+        if (car != null) {
+            dealerStatsRepository.addMessages(car.getId(), 1);
+            eventPublisher.publishEvent(new CarInterestEvent(car.getId(), TrendingScores.Signal.MESSAGE, senderId));
+        }
         log.info("Message sent successfully with id: {}", savedMessage.getId());
         
         return savedMessage;
@@ -0,0 +1,91 @@
+package com.cardealer.service;
+
+import com.cardealer.repository.CarRepository;
+import com.cardealer.repository.DealerRepository;
+import com.cardealer.search.ListingVersion;
+import com.cardealer.search.RelatedCarsEngine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Validators (ETag and Last-Modified) for the public car and dealer pages. Each version is
+ * answered by one aggregate query over update timestamps, or by the listing_version row for
+ * listings, without loading the entities the page shows.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class PageVersionService {
+
+    private final CarRepository carRepository;
+    private final DealerRepository dealerRepository;
+    private final RelatedCarsEngine relatedCarsEngine;
+    private final ListingVersion listingVersion;
+
+    /**
+     * Weak entity tag and last modification time (epoch millis) of a rendered page
+     */
+    public record PageVersion(String etag, long lastModified) {
+    }
+
+    /**
+     * Version of the inventory listing pages (/cars, /cars/list) for any filter
+     */
+    public PageVersion listing() {
+        ListingVersion.Version version = listingVersion.current();
+        return new PageVersion(etag("l", version.number()), version.lastModified());
+    }
+
+    /**
+     * Version of a car detail page: the car, its dealer, its related cars and its comments.
+     * Empty when the car does not exist.
+     */
+    public Optional<PageVersion> carDetail(Long carId) {
+        Optional<List<Long>> related = relatedCarsEngine.related(carId, CarService.RELATED_CARS);
+        List<Object[]> rows = carRepository.findDetailVersion(carId, related.filter(ids -> !ids.isEmpty()).orElse(List.of(carId)));
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] row = rows.get(0);
+        long car = millis(row[0]);
+        long dealer = millis(row[1]);
+        long relatedCars = millis(row[2]);
+        long comments = millis(row[4]);
+        // Without precomputed neighbours the page falls back to a query over the whole listing
+        String relatedVersion = related.map(ids -> Integer.toHexString(ids.hashCode()))
+            .orElseGet(() -> "l" + Long.toString(listingVersion.current().number(), 36));
+        return Optional.of(new PageVersion(
+            etag("c" + carId, car, dealer, relatedCars, relatedVersion, millis(row[3]), comments),
+            Math.max(Math.max(car, dealer), Math.max(relatedCars, comments))));
+    }
+
+    /**
+     * Version of a dealer profile page: the dealer and its cars. Empty when the dealer does not exist.
+     */
+    public Optional<PageVersion> dealerDetail(Long dealerId) {
+        List<Object[]> rows = dealerRepository.findPageVersion(dealerId);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] row = rows.get(0);
+        long dealer = millis(row[0]);
+        long cars = millis(row[1]);
+        return Optional.of(new PageVersion(etag("d" + dealerId, dealer, cars, millis(row[2])), Math.max(dealer, cars)));
+    }
+
+    private static String etag(String prefix, Object... parts) {
+        StringBuilder tag = new StringBuilder("W/\"").append(prefix);
+        for (Object part : parts) {
+            tag.append('-').append(part instanceof Long value ? Long.toString(value, 36) : part);
+        }
+        return tag.append('"').toString();
+    }
+
+    private static long millis(Object value) {
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+}
@@ -0,0 +1,113 @@
+package com.cardealer.service;
+
+import com.cardealer.dto.ViewTrend;
+import com.cardealer.dto.VisitorEstimate;
+import com.cardealer.exception.ResourceNotFoundException;
+import com.cardealer.exception.UnauthorizedException;
+import com.cardealer.model.Car;
+import com.cardealer.repository.CarRepository;
+import com.cardealer.stats.HyperLogLog;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * View trends for the dealer dashboard, read from the daily view series. A trend is at most
+ * 90 rows of one dealer (or car) found through the primary key, so its cost
+ * does not grow with traffic or history.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ViewStatsService {
+
+    private static final Set<Integer> PERIODS = Set.of(7, 30, 90);
+
+    private static final String DEALER_TREND_SQL =
+        "SELECT day, views FROM dealer_views_daily WHERE dealer_id = ? AND day > ? ORDER BY day";
+    private static final String CAR_TREND_SQL =
+        "SELECT day, views FROM car_views_daily WHERE car_id = ? AND day > ? ORDER BY day";
+    private static final String VISITORS_SQL =
+        "SELECT sketch FROM car_visitors_daily WHERE car_id = ? AND day > ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CarRepository carRepository;
+
+    /**
+     * Daily views of all of a dealer's cars over the last 7, 30 or 90 days
+     */
+    public ViewTrend getDealerTrend(Long dealerId, int days) {
+        log.info("Fetching {}-day view trend for dealer: {}", days, dealerId);
+        return trend(DEALER_TREND_SQL, dealerId, days);
+    }
+
+    /**
+     * Daily views of one of a dealer's cars over the last 7, 30 or 90 days
+     */
+    public ViewTrend getCarTrend(Long carId, Long dealerId, int days) {
+        log.info("Fetching {}-day view trend for car: {}", days, carId);
+        checkOwner(carId, dealerId);
+        return trend(CAR_TREND_SQL, carId, days);
+    }
+
+    /**
+     * Approximate unique visitors of one of a dealer's cars over the last 7, 30 or 90 days:
+     * the daily sketches of every node are merged, so the cost is bounded by days and nodes
+     */
+    public VisitorEstimate getUniqueVisitors(Long carId, Long dealerId, int days) {
+        log.info("Estimating {}-day unique visitors for car: {}", days, carId);
+        checkOwner(carId, dealerId);
+        checkPeriod(days);
+        HyperLogLog union = new HyperLogLog();
+        jdbcTemplate.query(VISITORS_SQL, rs -> {
+            union.merge(HyperLogLog.fromBytes(rs.getBytes("sketch")));
+        }, carId, LocalDate.now().minusDays(days));
+        return new VisitorEstimate(carId, days, union.estimate());
+    }
+
+    private void checkOwner(Long carId, Long dealerId) {
+        Car car = carRepository.findById(carId)
+            .orElseThrow(() -> new ResourceNotFoundException("Coche no encontrado con id: " + carId));
+        if (car.getDealer() == null || !car.getDealer().getId().equals(dealerId)) {
+            throw new UnauthorizedException("No tienes permisos para ver las estadísticas de este coche");
+        }
+    }
+
+    private static void checkPeriod(int days) {
+        if (!PERIODS.contains(days)) {
+            throw new IllegalArgumentException("El periodo debe ser de 7, 30 o 90 días");
+        }
+    }
+
+    private ViewTrend trend(String sql, Long id, int days) {
+        checkPeriod(days);
+        LocalDate today = LocalDate.now();
+        LocalDate start = today.minusDays(days);
+
+        Map<LocalDate, Long> viewsByDay = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            viewsByDay.put(rs.getObject("day", LocalDate.class), rs.getLong("views"));
+        }, id, start);
+
+        List<LocalDate> dates = new ArrayList<>(days);
+        List<Long> views = new ArrayList<>(days);
+        long total = 0;
+        for (LocalDate day = start.plusDays(1); !day.isAfter(today); day = day.plusDays(1)) {
+            long count = viewsByDay.getOrDefault(day, 0L);
+            dates.add(day);
+            views.add(count);
+            total += count;
+        }
+        return new ViewTrend(days, total, dates, views);
+    }
+}
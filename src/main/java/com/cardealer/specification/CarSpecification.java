@@ -1,11 +1,17 @@
 package com.cardealer.specification;
 
+import com.cardealer.config.FeatureSetFunctions;
+import com.cardealer.config.FullTextSearchFunctions;
 import com.cardealer.dto.CarFilterDTO;
-import com.cardealer.model.Car;
+import com.cardealer.model.CarSearch;
 import com.cardealer.model.enums.BodyType;
 import com.cardealer.model.enums.CarCondition;
 import com.cardealer.model.enums.FuelType;
 import com.cardealer.model.enums.TransmissionType;
+import com.cardealer.search.CarCursor;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import org.springframework.data.jpa.domain.Specification;
 
@@ -14,13 +20,22 @@ import java.util.List;
 
 public class CarSpecification {
 
-    public static Specification<Car> buildSpecification(CarFilterDTO filters) {
+    public static final String SORT_RELEVANCE = "relevance";
+
+    public static Specification<CarSearch> buildSpecification(CarFilterDTO filters) {
+        return buildSpecification(filters, false);
+    }
+
+    /**
+     * Build the filter specification over the car_search read model, which only holds
+     * active cars. With fullTextSearch the search text is matched against
+     * the GIN-indexed search_vector column (and ranked when sorting by relevance);
+     * otherwise the legacy LIKE predicates on make, model and description are used.
+     */
+    public static Specification<CarSearch> buildSpecification(CarFilterDTO filters, boolean fullTextSearch) {
         return (root, query, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
 
-            // Always filter by active = true
-            predicates.add(criteriaBuilder.isTrue(root.get("active")));
-
             // Filter by brands
             if (filters.getBrands() != null && !filters.getBrands().isEmpty()) {
                 predicates.add(root.get("make").in(filters.getBrands()));
@@ -77,26 +92,87 @@ public class CarSpecification {
             }
 
             // Filter by search text (brand, model, description)
-            if (filters.getSearchText() != null && !filters.getSearchText().isEmpty()) {
-                String searchPattern = "%" + filters.getSearchText().toLowerCase() + "%";
-                Predicate brandMatch = criteriaBuilder.like(
-                    criteriaBuilder.lower(root.get("make")), searchPattern);
-                Predicate modelMatch = criteriaBuilder.like(
-                    criteriaBuilder.lower(root.get("model")), searchPattern);
-                Predicate descriptionMatch = criteriaBuilder.like(
-                    criteriaBuilder.lower(root.get("description")), searchPattern);
-                
-                predicates.add(criteriaBuilder.or(brandMatch, modelMatch, descriptionMatch));
+            if (filters.getSearchText() != null && !filters.getSearchText().isBlank()) {
+                String tsQuery = fullTextSearch ? toPrefixTsQuery(filters.getSearchText()) : null;
+                if (tsQuery != null) {
+                    Expression<String> vector = root.get("searchVector");
+                    Expression<String> terms = criteriaBuilder.literal(tsQuery);
+                    predicates.add(criteriaBuilder.isTrue(criteriaBuilder.function(
+                        FullTextSearchFunctions.MATCH, Boolean.class, vector, terms)));
+
+                    // Only order the entity query; count and grouped queries must stay unordered
+                    if (SORT_RELEVANCE.equalsIgnoreCase(filters.getSortBy())
+                            && CarSearch.class.equals(query.getResultType())) {
+                        query.orderBy(
+                            criteriaBuilder.desc(criteriaBuilder.function(
+                                FullTextSearchFunctions.RANK, Double.class, vector, terms)),
+                            criteriaBuilder.desc(root.get("id")));
+                    }
+                } else if (!fullTextSearch) {
+                    String searchPattern = "%" + filters.getSearchText().toLowerCase() + "%";
+                    Predicate brandMatch = criteriaBuilder.like(
+                        criteriaBuilder.lower(root.get("make")), searchPattern);
+                    Predicate modelMatch = criteriaBuilder.like(
+                        criteriaBuilder.lower(root.get("model")), searchPattern);
+                    Predicate descriptionMatch = criteriaBuilder.like(
+                        criteriaBuilder.lower(root.get("description")), searchPattern);
+
+                    predicates.add(criteriaBuilder.or(brandMatch, modelMatch, descriptionMatch));
+                } else {
+                    // Text without letters or digits ("--") matches no car, not the whole inventory
+                    predicates.add(criteriaBuilder.disjunction());
+                }
             }
 
-            // Filter by features (car must have all selected features)
+            // Filter by features (car must have all selected features): one containment check
+            // on the indexed features array instead of a subquery per feature
             if (filters.getFeatures() != null && !filters.getFeatures().isEmpty()) {
-                for (String feature : filters.getFeatures()) {
-                    predicates.add(criteriaBuilder.isMember(feature, root.get("features")));
-                }
+                Expression<String[]> featureSet = root.get("featureSet");
+                Expression<String> wanted = criteriaBuilder.literal(
+                    String.join(FeatureSetFunctions.SEPARATOR, filters.getFeatures()));
+                predicates.add(criteriaBuilder.isTrue(criteriaBuilder.function(
+                    FeatureSetFunctions.CONTAINS_ALL, Boolean.class, featureSet, wanted)));
             }
 
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
     }
-}
\ No newline at end of file
+
+    /**
+     * Turn free text into a prefix tsquery ("bmw 320" -> "bmw:* & 320:*"), keeping only
+     * letters and digits so user input cannot inject tsquery operators. Null when no terms remain.
+     */
+    public static String toPrefixTsQuery(String searchText) {
+        List<String> terms = new ArrayList<>();
+        for (String term : searchText.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (!term.isEmpty()) {
+                terms.add(term + ":*");
+            }
+        }
+        return terms.isEmpty() ? null : String.join(" & ", terms);
+    }
+
+    /**
+     * Rows strictly after the cursor position in its sort order (before it, for a backward cursor).
+     * Ties on the sort column are broken by id.
+     */
+    public static Specification<CarSearch> seek(CarCursor cursor) {
+        return (root, query, criteriaBuilder) -> {
+            boolean greater = cursor.sortKey().isAscending() != cursor.backward();
+            return seekPredicate(criteriaBuilder, root.get(cursor.sortKey().getProperty()), cursor.jpaValue(),
+                root.<Long>get("id"), cursor.id(), greater);
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate seekPredicate(CriteriaBuilder criteriaBuilder, Path attribute, Comparable value,
+                                           Path<Long> id, long lastId, boolean greater) {
+        Predicate beyond = greater
+            ? criteriaBuilder.greaterThan(attribute, value)
+            : criteriaBuilder.lessThan(attribute, value);
+        Predicate tie = criteriaBuilder.and(
+            criteriaBuilder.equal(attribute, value),
+            greater ? criteriaBuilder.greaterThan(id, lastId) : criteriaBuilder.lessThan(id, lastId));
+        return criteriaBuilder.or(beyond, tie);
+    }
+}
@@ -0,0 +1,69 @@
+package com.cardealer.stats;
+
+import com.cardealer.repository.DealerStatsRepository;
+import com.cardealer.search.CarChangedEvent;
+import com.cardealer.search.CarSnapshot;
+import com.cardealer.search.CarsChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps the listing counts of dealer_stats in step with car writes.
+ * Runs inside the write transaction, like CarSearchWriter, so the counters commit or roll
+ * back together with the car change.
+ */
+@Component
+@RequiredArgsConstructor
+public class DealerStatsWriter {
+
+    private final DealerStatsRepository dealerStatsRepository;
+
+    @EventListener
+    public void onCarChanged(CarChangedEvent event) {
+        CarSnapshot before = event.before();
+        CarSnapshot after = event.after();
+        if (before != null && Objects.equals(before.dealerId(), after.dealerId())) {
+            long active = (after.active() ? 1 : 0) - (before.active() ? 1 : 0);
+            if (active != 0) {
+                apply(after.dealerId(), 0, active);
+            }
+            return;
+        }
+        if (before != null) {
+            apply(before.dealerId(), -1, before.active() ? -1 : 0);
+        }
+        apply(after.dealerId(), 1, after.active() ? 1 : 0);
+    }
+
+    /**
+     * Bulk operations keep every car with its dealer (they import new cars or flip the
+     * active flag), so one increment per dealer covers them
+     */
+    @EventListener
+    public void onCarsChanged(CarsChangedEvent event) {
+        Map<Long, long[]> byDealer = new HashMap<>();
+        for (CarChangedEvent change : event.changes()) {
+            CarSnapshot before = change.before();
+            CarSnapshot after = change.after();
+            long total = before == null ? 1 : 0;
+            long active = (after.active() ? 1 : 0) - (before != null && before.active() ? 1 : 0);
+            if ((total != 0 || active != 0) && after.dealerId() != null) {
+                long[] counts = byDealer.computeIfAbsent(after.dealerId(), dealerId -> new long[2]);
+                counts[0] += total;
+                counts[1] += active;
+            }
+        }
+        byDealer.forEach((dealerId, counts) -> apply(dealerId, counts[0], counts[1]));
+    }
+
+    private void apply(Long dealerId, long total, long active) {
+        if (dealerId != null) {
+            dealerStatsRepository.addListings(dealerId, total, active);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.cardealer.stats;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hit/miss metrics of the Hibernate second-level cache regions (Car, its images and
+ * features, Dealer, User). The counters are logged every {@code entity-cache.report-interval}
+ * when there was cache traffic, and are available on demand through {@link #snapshot()}.
+ */
+@Slf4j
+@Component
+public class EntityCacheStats {
+
+    private final Statistics statistics;
+
+    private long lastRequests;
+
+    public record RegionStats(long hits, long misses, long puts, long entries) {
+
+        public double hitRatio() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+    }
+
+    public EntityCacheStats(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Cumulative counters of every second-level cache region, by region name
+     */
+    public Map<String, RegionStats> snapshot() {
+        Map<String, RegionStats> regions = new LinkedHashMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics stats = statistics.getDomainDataRegionStatistics(region);
+            regions.put(region, new RegionStats(
+                stats.getHitCount(), stats.getMissCount(), stats.getPutCount(), stats.getElementCountInMemory()));
+        }
+        return regions;
+    }
+
+    @Scheduled(fixedDelayString = "${entity-cache.report-interval:PT10M}",
+               initialDelayString = "${entity-cache.report-interval:PT10M}")
+    public void report() {
+        try {
+            long requests = statistics.getSecondLevelCacheHitCount() + statistics.getSecondLevelCacheMissCount();
+            if (requests == lastRequests) {
+                return;
+            }
+            lastRequests = requests;
+            snapshot().forEach((region, stats) -> log.info(
+                "Second-level cache {}: {} hits, {} misses ({}% hit ratio), {} puts, {} entries",
+                region, stats.hits(), stats.misses(), Math.round(stats.hitRatio() * 100),
+                stats.puts(), stats.entries()));
+        } catch (RuntimeException e) {
+            log.warn("Could not report second-level cache statistics", e);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.cardealer.stats;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Approximate unique visitors per car and day, as {@link HyperLogLog} sketches.
+ * <p>
+ * A detail page view only updates an in-memory sketch. Every {@code visitors.flush-interval}
+ * the sketches touched since the last flush are merged into car_visitors_daily and dropped
+ * from memory, so memory holds at most one 2 KB sketch per car viewed within an interval.
+ * Each node owns its rows (keyed by {@code visitors.node-id}) and read-merge-writes them,
+ * so nodes never contend; readers merge the rows of all nodes and days.
+ */
+@Slf4j
+@Component
+public class UniqueVisitors {
+
+    private static final String SELECT_SQL =
+        "SELECT car_id, sketch FROM car_visitors_daily WHERE day = ? AND node = ? AND car_id = ANY(?)";
+    private static final String UPSERT_SQL =
+        "INSERT INTO car_visitors_daily (car_id, day, node, sketch) VALUES (?, ?, ?, ?) " +
+        "ON CONFLICT (car_id, day, node) DO UPDATE SET sketch = EXCLUDED.sketch";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String nodeId;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<CarDay, HyperLogLog> pending = new ConcurrentHashMap<>();
+
+    private record CarDay(long carId, LocalDate day) {
+    }
+
+    public UniqueVisitors(JdbcTemplate jdbcTemplate,
+                          TransactionTemplate transactionTemplate,
+                          @Value("${visitors.node-id:${HOSTNAME:local}}") String nodeId) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * Count a visit of a car by a visitor (a session id or a client fingerprint; only its
+     * hash is kept)
+     */
+    public void record(Long carId, String visitorKey) {
+        long hash = HyperLogLog.hash(visitorKey);
+        CarDay key = new CarDay(carId, LocalDate.now());
+        // Shared lock: visits run concurrently, only the flush swap is exclusive
+        lock.readLock().lock();
+        try {
+            HyperLogLog sketch = pending.computeIfAbsent(key, k -> new HyperLogLog());
+            synchronized (sketch) {
+                sketch.add(hash);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Merge the pending sketches into the database
+     */
+    public synchronized void flush() {
+        Map<CarDay, HyperLogLog> batch;
+        lock.writeLock().lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<LocalDate, Map<Long, HyperLogLog>> byDay = new HashMap<>();
+        batch.forEach((key, sketch) -> byDay.computeIfAbsent(key.day(), day -> new HashMap<>()).put(key.carId(), sketch));
+        try {
+            transactionTemplate.executeWithoutResult(status -> byDay.forEach(this::write));
+            log.debug("Flushed unique visitor sketches for {} cars", batch.size());
+        } catch (RuntimeException e) {
+            // Keep the visits for the next flush
+            lock.readLock().lock();
+            try {
+                batch.forEach((key, sketch) -> pending.merge(key, sketch, (current, previous) -> {
+                    synchronized (current) {
+                        current.merge(previous);
+                    }
+                    return current;
+                }));
+            } finally {
+                lock.readLock().unlock();
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushQuietly();
+    }
+
+    private void write(LocalDate day, Map<Long, HyperLogLog> sketches) {
+        Map<Long, HyperLogLog> merged = new HashMap<>();
+        sketches.forEach((carId, sketch) -> merged.put(carId, sketch.copy()));
+
+        Long[] carIds = sketches.keySet().toArray(new Long[0]);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_SQL);
+            statement.setObject(1, day);
+            statement.setString(2, nodeId);
+            statement.setArray(3, connection.createArrayOf("bigint", carIds));
+            return statement;
+        }, rs -> {
+            merged.get(rs.getLong("car_id")).merge(HyperLogLog.fromBytes(rs.getBytes("sketch")));
+        });
+
+        List<Object[]> rows = new ArrayList<>(merged.size());
+        merged.forEach((carId, sketch) -> rows.add(new Object[] {carId, day, nodeId, sketch.toBytes()}));
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+
+    @Scheduled(fixedDelayString = "${visitors.flush-interval:PT1M}", initialDelayString = "${visitors.flush-interval:PT1M}")
+    public void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Could not flush unique visitor sketches, will retry", e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.cardealer.stats;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind counter for car detail views.
+ * <p>
+ * Views are counted in memory (one {@link LongAdder} per car, so concurrent views of the
+ * same car do not contend) and written with batched {@code views = views + ?} updates,
+ * instead of a read-modify-write of the car row on every page view. A flush runs every
+ * {@code views.flush-interval}, as soon as {@code views.max-pending} views are waiting
+ * (the most that a crash can lose), and on graceful shutdown. The same flush feeds the daily
+ * time series of {@link ViewSeries}, in one transaction with the lifetime counters.
+ */
+@Slf4j
+@Component
+public class ViewCounter {
+
+    private static final String INCREMENT_SQL = "UPDATE cars SET views = views + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ViewSeries viewSeries;
+    private final TaskScheduler taskScheduler;
+    private final long maxPending;
+
+    private final Map<Long, LongAdder> counts = new ConcurrentHashMap<>();
+    private final LongAdder pending = new LongAdder();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+
+    public ViewCounter(JdbcTemplate jdbcTemplate,
+                       TransactionTemplate transactionTemplate,
+                       ViewSeries viewSeries,
+                       TaskScheduler taskScheduler,
+                       @Value("${views.max-pending:1000}") long maxPending) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.viewSeries = viewSeries;
+        this.taskScheduler = taskScheduler;
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Count one view of a car
+     */
+    public void record(Long carId) {
+        counts.computeIfAbsent(carId, id -> new LongAdder()).increment();
+        pending.increment();
+        if (pending.sum() >= maxPending && flushQueued.compareAndSet(false, true)) {
+            taskScheduler.schedule(this::flushQuietly, Instant.now());
+        }
+    }
+
+    /**
+     * Write every pending view to the database in one batch
+     */
+    public synchronized void flush() {
+        flushQueued.set(false);
+        List<Object[]> batch = new ArrayList<>();
+        // Entries are kept (at most one per car), so no increment can race with a removal
+        counts.forEach((carId, count) -> {
+            long views = count.sumThenReset();
+            if (views > 0) {
+                batch.add(new Object[] {views, carId});
+            }
+        });
+        if (batch.isEmpty()) {
+            return;
+        }
+        long total = batch.stream().mapToLong(row -> (Long) row[0]).sum();
+        pending.add(-total);
+        try {
+            // Views of a flush are dated by the flush, at most one interval late around midnight
+            LocalDate day = LocalDate.now();
+            viewSeries.ensurePartitions(day);
+            // All or nothing, so a retried batch is never counted twice
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INCREMENT_SQL, batch);
+                viewSeries.append(day, batch);
+            });
+            log.debug("Flushed {} views for {} cars", total, batch.size());
+        } catch (RuntimeException e) {
+            // Put the views back so the next flush retries them
+            for (Object[] row : batch) {
+                counts.computeIfAbsent((Long) row[1], id -> new LongAdder()).add((Long) row[0]);
+            }
+            pending.add(total);
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushQuietly();
+    }
+
+    @Scheduled(fixedDelayString = "${views.flush-interval:PT5S}", initialDelayString = "${views.flush-interval:PT5S}")
+    public void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Could not flush view counts, will retry", e);
+        }
+    }
+}
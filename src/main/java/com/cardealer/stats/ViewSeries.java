@@ -0,0 +1,107 @@
+package com.cardealer.stats;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the daily view time series: car_views_daily (one row per car and day, partitioned
+ * by month) and its per-dealer rollup dealer_views_daily, plus the lifetime views of each
+ * dealer in dealer_stats. Each flush of {@link ViewCounter} adds its aggregated counts with
+ * one batched upsert for the cars and one statement for the dealers; the cars row is only
+ * read, to find the dealer of each car.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ViewSeries {
+
+    private static final int MONTHS_AHEAD = 2;
+
+    private static final String CAR_DAY_SQL =
+        "INSERT INTO car_views_daily (car_id, day, views) VALUES (?, ?, ?) " +
+        "ON CONFLICT (car_id, day) DO UPDATE SET views = car_views_daily.views + EXCLUDED.views";
+
+    // Per-dealer sums of the flush go to both the daily rollup and the dashboard total
+    private static final String DEALER_DAY_SQL =
+        "WITH per_dealer AS (" +
+        "SELECT c.dealer_id, SUM(v.views) AS views " +
+        "FROM unnest(CAST(? AS BIGINT[]), CAST(? AS BIGINT[])) AS v(car_id, views) " +
+        "JOIN cars c ON c.id = v.car_id WHERE c.dealer_id IS NOT NULL GROUP BY c.dealer_id), " +
+        "daily AS (" +
+        "INSERT INTO dealer_views_daily (dealer_id, day, views) " +
+        "SELECT dealer_id, CAST(? AS DATE), views FROM per_dealer " +
+        "ON CONFLICT (dealer_id, day) DO UPDATE SET views = dealer_views_daily.views + EXCLUDED.views) " +
+        "INSERT INTO dealer_stats (dealer_id, total_views) SELECT dealer_id, views FROM per_dealer " +
+        "ON CONFLICT (dealer_id) DO UPDATE SET total_views = dealer_stats.total_views + EXCLUDED.total_views";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Last month whose partitions are known to exist
+    private volatile YearMonth partitionedUntil;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        try {
+            ensurePartitions(LocalDate.now());
+        } catch (RuntimeException e) {
+            log.error("Could not create view series partitions", e);
+        }
+    }
+
+    /**
+     * Create the monthly partitions of car_views_daily from the month of day up to
+     * {@value #MONTHS_AHEAD} months ahead; cheap when they already exist.
+     * There is no default partition, so a flush must call this before it writes: rows of a
+     * month without a partition are rejected, and the flush keeps them for its next attempt.
+     */
+    public void ensurePartitions(LocalDate day) {
+        YearMonth month = YearMonth.from(day);
+        YearMonth until = partitionedUntil;
+        if (until != null && !month.plusMonths(MONTHS_AHEAD).isAfter(until)) {
+            return;
+        }
+        for (int i = 0; i <= MONTHS_AHEAD; i++) {
+            YearMonth partition = month.plusMonths(i);
+            jdbcTemplate.execute(String.format(
+                "CREATE TABLE IF NOT EXISTS car_views_daily_%d_%02d PARTITION OF car_views_daily " +
+                "FOR VALUES FROM ('%s') TO ('%s')",
+                partition.getYear(), partition.getMonthValue(), partition.atDay(1), partition.plusMonths(1).atDay(1)));
+        }
+        partitionedUntil = month.plusMonths(MONTHS_AHEAD);
+        log.debug("View series partitions ready until {}", partitionedUntil);
+    }
+
+    /**
+     * Add one flush worth of views to the series of the given day;
+     * rows are {views, carId} as built by ViewCounter
+     */
+    public void append(LocalDate day, List<Object[]> batch) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        Long[] carIds = new Long[batch.size()];
+        Long[] views = new Long[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            Object[] row = batch.get(i);
+            rows.add(new Object[] {row[1], day, row[0]});
+            carIds[i] = (Long) row[1];
+            views[i] = (Long) row[0];
+        }
+        jdbcTemplate.batchUpdate(CAR_DAY_SQL, rows);
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(DEALER_DAY_SQL);
+            statement.setArray(1, connection.createArrayOf("bigint", carIds));
+            statement.setArray(2, connection.createArrayOf("bigint", views));
+            statement.setObject(3, day);
+            return statement;
+        });
+    }
+}
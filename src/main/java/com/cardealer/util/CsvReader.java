@@ -0,0 +1,115 @@
+package com.cardealer.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming reader of CSV records (RFC 4180: quoted fields, doubled quotes, line breaks
+ * inside quotes, LF or CRLF line endings). Reads one record at a time, so memory is bounded
+ * by the longest record whatever the size of the file. Not thread-safe.
+ */
+public final class CsvReader {
+
+    private final Reader reader;
+    private final char separator;
+    private final int maxRecordLength;
+
+    private int pending = -2;
+    private long line = 1;
+    private long recordLine;
+
+    /**
+     * @param reader          source, ideally buffered
+     * @param separator       field separator (usually ',' or ';')
+     * @param maxRecordLength longest record accepted, in characters; guards against
+     *                        an unclosed quote swallowing the rest of the file
+     */
+    public CsvReader(Reader reader, char separator, int maxRecordLength) {
+        this.reader = reader;
+        this.separator = separator;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    /**
+     * Fields of the next record, or null at the end of the input. Blank lines are skipped.
+     *
+     * @throws IllegalArgumentException if the record is longer than the limit
+     */
+    public List<String> next() throws IOException {
+        int c = read();
+        while (c == '\r' || c == '\n') {
+            c = read();
+        }
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int length = 0;
+        while (true) {
+            if (++length > maxRecordLength) {
+                throw new IllegalArgumentException(
+                    "La fila de la línea " + recordLine + " es demasiado larga o tiene comillas sin cerrar");
+            }
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Comillas sin cerrar en la fila de la línea " + recordLine);
+                }
+                if (c == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        pending = following;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == separator) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    int following = read();
+                    if (following != '\n') {
+                        pending = following;
+                    }
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * Line of the input where the last record returned by {@link #next()} starts (1-based)
+     */
+    public long recordLine() {
+        return recordLine;
+    }
+
+    private int read() throws IOException {
+        int c;
+        if (pending != -2) {
+            c = pending;
+            pending = -2;
+            return c;
+        }
+        c = reader.read();
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+}
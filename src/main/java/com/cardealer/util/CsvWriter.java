@@ -0,0 +1,52 @@
+package com.cardealer.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Streaming writer of CSV records (RFC 4180), the counterpart of {@link CsvReader}.
+ * Fields containing the separator, a quote or a line break are quoted; records end with CRLF.
+ * Not thread-safe.
+ */
+public final class CsvWriter {
+
+    private final Writer writer;
+    private final char separator;
+
+    public CsvWriter(Writer writer, char separator) {
+        this.writer = writer;
+        this.separator = separator;
+    }
+
+    /**
+     * Write one record; null fields are written empty
+     */
+    public void writeRecord(List<String> fields) throws IOException {
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                writer.write(separator);
+            }
+            String field = fields.get(i);
+            if (field != null) {
+                writeField(field);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeField(String field) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < field.length() && !quote; i++) {
+            char c = field.charAt(i);
+            quote = c == separator || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            writer.write(field);
+            return;
+        }
+        writer.write('"');
+        writer.write(field.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,32 @@
+-- Daily views per car, one row per car and day, partitioned by month so old months can be
+-- detached or dropped whole. Written by ViewCounter's aggregated flushes (never per view);
+-- ViewSeries creates the partitions of the coming months ahead of time.
+CREATE TABLE IF NOT EXISTS car_views_daily (
+    car_id BIGINT NOT NULL,
+    day DATE NOT NULL,
+    views BIGINT NOT NULL,
+    PRIMARY KEY (car_id, day)
+) PARTITION BY RANGE (day);
+
+-- Catches rows for months whose partition is missing
+CREATE TABLE IF NOT EXISTS car_views_daily_default PARTITION OF car_views_daily DEFAULT;
+
+DO $$
+DECLARE
+    month_start DATE := date_trunc('month', CURRENT_DATE)::date;
+BEGIN
+    FOR i IN 0..2 LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF car_views_daily FOR VALUES FROM (%L) TO (%L)',
+                       'car_views_daily_' || to_char(month_start + make_interval(months => i), 'YYYY_MM'),
+                       month_start + make_interval(months => i),
+                       month_start + make_interval(months => i + 1));
+    END LOOP;
+END $$;
+
+-- Daily views per dealer, rolled up in the same flush; dashboards read trends from here
+CREATE TABLE IF NOT EXISTS dealer_views_daily (
+    dealer_id BIGINT NOT NULL,
+    day DATE NOT NULL,
+    views BIGINT NOT NULL,
+    PRIMARY KEY (dealer_id, day)
+);
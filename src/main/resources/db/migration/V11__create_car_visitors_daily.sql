@@ -0,0 +1,9 @@
+-- Unique visitor sketches (HyperLogLog registers) per car, day and application node.
+-- Each node rewrites only its own rows; estimates merge the rows of all nodes and days.
+CREATE TABLE IF NOT EXISTS car_visitors_daily (
+    car_id BIGINT NOT NULL,
+    day DATE NOT NULL,
+    node VARCHAR(64) NOT NULL,
+    sketch BYTEA NOT NULL,
+    PRIMARY KEY (car_id, day, node)
+);
@@ -0,0 +1,8 @@
+-- Snapshot of the in-memory trending scores: the decayed score of each car as of scored_at.
+-- Written periodically by the application and loaded on startup.
+CREATE TABLE IF NOT EXISTS car_trending (
+    car_id BIGINT PRIMARY KEY,
+    score DOUBLE PRECISION NOT NULL,
+    scored_at TIMESTAMP NOT NULL,
+    CONSTRAINT fk_car_trending_car FOREIGN KEY (car_id) REFERENCES cars(id) ON DELETE CASCADE
+);
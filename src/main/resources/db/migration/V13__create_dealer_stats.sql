@@ -0,0 +1,25 @@
+-- Dashboard aggregates per dealer, maintained in the transactions that change them:
+-- listings by the car write paths, views by the view counter flush, messages and
+-- favourites by their services. Reading the dashboard no longer scans the inventory.
+CREATE TABLE IF NOT EXISTS dealer_stats (
+    dealer_id BIGINT PRIMARY KEY REFERENCES dealers(id) ON DELETE CASCADE,
+    active_listings BIGINT NOT NULL DEFAULT 0,
+    total_listings BIGINT NOT NULL DEFAULT 0,
+    total_views BIGINT NOT NULL DEFAULT 0,
+    messages BIGINT NOT NULL DEFAULT 0,
+    favorites BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO dealer_stats (dealer_id, active_listings, total_listings, total_views, messages, favorites)
+SELECT d.id,
+       (SELECT COUNT(*) FROM cars c WHERE c.dealer_id = d.id AND c.active),
+       (SELECT COUNT(*) FROM cars c WHERE c.dealer_id = d.id),
+       (SELECT COALESCE(SUM(c.views), 0) FROM cars c WHERE c.dealer_id = d.id),
+       (SELECT COUNT(*) FROM messages m JOIN cars c ON c.id = m.car_id WHERE c.dealer_id = d.id),
+       (SELECT COUNT(*) FROM favorites f JOIN cars c ON c.id = f.car_id WHERE c.dealer_id = d.id)
+FROM dealers d
+ON CONFLICT (dealer_id) DO NOTHING;
+
+-- Latest listings of a dealer (dashboard), newest first; also serves dealer_id lookups
+DROP INDEX IF EXISTS idx_cars_dealer;
+CREATE INDEX IF NOT EXISTS idx_cars_dealer_created ON cars(dealer_id, created_at DESC, id DESC);
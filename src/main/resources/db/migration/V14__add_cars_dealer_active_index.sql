@@ -0,0 +1,3 @@
+-- My listings filtered by status, newest first, seeking from the cursor row;
+-- also serves the per-status counts of a dealer
+CREATE INDEX IF NOT EXISTS idx_cars_dealer_active_created ON cars(dealer_id, active, created_at DESC, id DESC);
@@ -0,0 +1,46 @@
+-- Refresh cars.feature_set once per statement on car_features instead of once per row,
+-- so a multi-row insert of features (inventory import) updates each car once
+
+DROP TRIGGER IF EXISTS trg_car_features_feature_set ON car_features;
+DROP FUNCTION IF EXISTS cars_feature_set_refresh();
+
+CREATE OR REPLACE FUNCTION cars_feature_set_refresh_statement() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE cars c
+        SET feature_set = coalesce(
+            (SELECT array_agg(DISTINCT f.feature ORDER BY f.feature) FROM car_features f WHERE f.car_id = c.id),
+            '{}')
+        WHERE c.id IN (SELECT car_id FROM new_rows);
+    ELSIF TG_OP = 'DELETE' THEN
+        UPDATE cars c
+        SET feature_set = coalesce(
+            (SELECT array_agg(DISTINCT f.feature ORDER BY f.feature) FROM car_features f WHERE f.car_id = c.id),
+            '{}')
+        WHERE c.id IN (SELECT car_id FROM old_rows);
+    ELSE
+        UPDATE cars c
+        SET feature_set = coalesce(
+            (SELECT array_agg(DISTINCT f.feature ORDER BY f.feature) FROM car_features f WHERE f.car_id = c.id),
+            '{}')
+        WHERE c.id IN (SELECT car_id FROM old_rows UNION SELECT car_id FROM new_rows);
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+-- Transition tables allow a single event per trigger
+CREATE TRIGGER trg_car_features_feature_set_insert
+AFTER INSERT ON car_features
+REFERENCING NEW TABLE AS new_rows
+FOR EACH STATEMENT EXECUTE FUNCTION cars_feature_set_refresh_statement();
+
+CREATE TRIGGER trg_car_features_feature_set_update
+AFTER UPDATE ON car_features
+REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+FOR EACH STATEMENT EXECUTE FUNCTION cars_feature_set_refresh_statement();
+
+CREATE TRIGGER trg_car_features_feature_set_delete
+AFTER DELETE ON car_features
+REFERENCING OLD TABLE AS old_rows
+FOR EACH STATEMENT EXECUTE FUNCTION cars_feature_set_refresh_statement();
@@ -0,0 +1,2 @@
+-- Images of a car by car id (exports read every image of each exported car)
+CREATE INDEX IF NOT EXISTS idx_car_images_car_id ON car_images (car_id);
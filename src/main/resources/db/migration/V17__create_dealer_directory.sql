@@ -0,0 +1,36 @@
+-- Dealer directory read model: one row per active dealer with the profile fields the
+-- directory shows and aggregates of its active listings, so a directory page is a single
+-- indexed read. Kept current by the application write paths (DealerDirectoryWriter).
+
+CREATE TABLE IF NOT EXISTS dealer_directory (
+    dealer_id BIGINT PRIMARY KEY,
+    name VARCHAR(200) NOT NULL,
+    email VARCHAR(100),
+    phone VARCHAR(20),
+    address VARCHAR(255),
+    city VARCHAR(100),
+    logo_url VARCHAR(500),
+    active_listings BIGINT NOT NULL DEFAULT 0,
+    min_price DECIMAL(10,2),
+    max_price DECIMAL(10,2),
+    last_listing_at TIMESTAMP,
+    CONSTRAINT fk_dealer_directory_dealer FOREIGN KEY (dealer_id) REFERENCES dealers(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_dealer_directory_name ON dealer_directory (name, dealer_id);
+CREATE INDEX IF NOT EXISTS idx_dealer_directory_listings ON dealer_directory (active_listings DESC, name, dealer_id);
+CREATE INDEX IF NOT EXISTS idx_dealer_directory_city ON dealer_directory (lower(city));
+
+-- Price range of a dealer's active cars straight from the index when a row is refreshed
+CREATE INDEX IF NOT EXISTS idx_cars_dealer_active_price ON cars (dealer_id, price) WHERE active;
+
+-- Backfill existing rows
+INSERT INTO dealer_directory (dealer_id, name, email, phone, address, city, logo_url,
+                              active_listings, min_price, max_price, last_listing_at)
+SELECT d.id, d.name, d.email, d.phone, d.address, d.city, d.logo_url,
+       COUNT(c.id), MIN(c.price), MAX(c.price), MAX(c.created_at)
+FROM dealers d
+LEFT JOIN cars c ON c.dealer_id = d.id AND c.active = true
+WHERE d.active = true
+GROUP BY d.id
+ON CONFLICT (dealer_id) DO NOTHING;
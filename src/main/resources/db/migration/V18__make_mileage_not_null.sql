@@ -0,0 +1,7 @@
+-- Mileage is a sort key of the listings (keyset cursors, the inventory index and the dealer
+-- listing seeks), which all assume a value; listings without one are stored as 0 km
+UPDATE cars SET mileage = 0 WHERE mileage IS NULL;
+ALTER TABLE cars ALTER COLUMN mileage SET NOT NULL;
+
+UPDATE car_search SET mileage = 0 WHERE mileage IS NULL;
+ALTER TABLE car_search ALTER COLUMN mileage SET NOT NULL;
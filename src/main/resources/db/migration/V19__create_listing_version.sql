@@ -0,0 +1,27 @@
+-- Version of the inventory listings, shared by every application node: a single row
+-- bumped by a statement trigger on car_search, inside the transaction that changes the
+-- read model, so a listing ETag changes on all nodes as soon as the change commits
+
+CREATE TABLE IF NOT EXISTS listing_version (
+    id SMALLINT PRIMARY KEY CHECK (id = 1),
+    version BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+INSERT INTO listing_version (id, version, updated_at)
+VALUES (1, 1, now())
+ON CONFLICT (id) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION listing_version_bump() RETURNS trigger AS $$
+BEGIN
+    UPDATE listing_version SET version = version + 1, updated_at = now() WHERE id = 1;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_car_search_listing_version ON car_search;
+
+-- Once per statement: an import or bulk refresh bumps the row a few times, not per car
+CREATE TRIGGER trg_car_search_listing_version
+AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON car_search
+FOR EACH STATEMENT EXECUTE FUNCTION listing_version_bump();
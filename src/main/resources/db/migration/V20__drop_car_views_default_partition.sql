@@ -0,0 +1,22 @@
+-- The default partition made a month's partition impossible to create once a row of that month
+-- had landed in it, leaving the month stuck there. Its rows move to monthly partitions and it
+-- goes: a flush for a month without a partition now fails and is retried, and ViewSeries
+-- creates the partitions before every flush writes.
+ALTER TABLE car_views_daily DETACH PARTITION car_views_daily_default;
+
+DO $$
+DECLARE
+    month_start DATE;
+BEGIN
+    FOR month_start IN SELECT DISTINCT date_trunc('month', day)::date FROM car_views_daily_default LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF car_views_daily FOR VALUES FROM (%L) TO (%L)',
+                       'car_views_daily_' || to_char(month_start, 'YYYY_MM'),
+                       month_start,
+                       month_start + make_interval(months => 1));
+    END LOOP;
+END $$;
+
+INSERT INTO car_views_daily (car_id, day, views)
+SELECT car_id, day, views FROM car_views_daily_default;
+
+DROP TABLE car_views_daily_default;
@@ -0,0 +1,28 @@
+-- Weighted full-text search vector for cars (make > model > description)
+ALTER TABLE cars
+ADD COLUMN IF NOT EXISTS search_vector tsvector;
+
+CREATE OR REPLACE FUNCTION cars_search_vector_update() RETURNS trigger AS $$
+BEGIN
+    NEW.search_vector :=
+        setweight(to_tsvector('spanish', coalesce(NEW.make, '')), 'A') ||
+        setweight(to_tsvector('spanish', coalesce(NEW.model, '')), 'B') ||
+        setweight(to_tsvector('spanish', coalesce(NEW.description, '')), 'C');
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_cars_search_vector ON cars;
+
+CREATE TRIGGER trg_cars_search_vector
+BEFORE INSERT OR UPDATE OF make, model, description ON cars
+FOR EACH ROW EXECUTE FUNCTION cars_search_vector_update();
+
+-- Backfill existing rows
+UPDATE cars
+SET search_vector =
+    setweight(to_tsvector('spanish', coalesce(make, '')), 'A') ||
+    setweight(to_tsvector('spanish', coalesce(model, '')), 'B') ||
+    setweight(to_tsvector('spanish', coalesce(description, '')), 'C');
+
+CREATE INDEX IF NOT EXISTS idx_cars_search_vector ON cars USING GIN (search_vector);
@@ -0,0 +1,44 @@
+-- Denormalized copy of car_features as an array on cars, so "has all of these features"
+-- is a single GIN-indexed containment check instead of one subquery per feature
+ALTER TABLE cars
+ADD COLUMN IF NOT EXISTS feature_set TEXT[] NOT NULL DEFAULT '{}';
+
+CREATE INDEX IF NOT EXISTS idx_car_features_car_id ON car_features (car_id);
+
+CREATE OR REPLACE FUNCTION cars_feature_set_refresh() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        UPDATE cars
+        SET feature_set = coalesce(
+            (SELECT array_agg(DISTINCT feature ORDER BY feature) FROM car_features WHERE car_id = OLD.car_id),
+            '{}')
+        WHERE id = OLD.car_id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        UPDATE cars
+        SET feature_set = coalesce(
+            (SELECT array_agg(DISTINCT feature ORDER BY feature) FROM car_features WHERE car_id = NEW.car_id),
+            '{}')
+        WHERE id = NEW.car_id;
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_car_features_feature_set ON car_features;
+
+CREATE TRIGGER trg_car_features_feature_set
+AFTER INSERT OR UPDATE OR DELETE ON car_features
+FOR EACH ROW EXECUTE FUNCTION cars_feature_set_refresh();
+
+-- Backfill existing rows
+UPDATE cars c
+SET feature_set = f.features
+FROM (
+    SELECT car_id, array_agg(DISTINCT feature ORDER BY feature) AS features
+    FROM car_features
+    GROUP BY car_id
+) f
+WHERE f.car_id = c.id;
+
+CREATE INDEX IF NOT EXISTS idx_cars_feature_set ON cars USING GIN (feature_set);
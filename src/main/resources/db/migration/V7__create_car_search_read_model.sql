@@ -0,0 +1,47 @@
+-- Denormalized read model for browsing: one flat row per active car with its primary image,
+-- features array, dealer name/city and search vector, so listings never join
+-- car_images, car_features or dealers. Kept current by the application write paths.
+CREATE TABLE IF NOT EXISTS car_search (
+    car_id BIGINT PRIMARY KEY,
+    dealer_id BIGINT NOT NULL,
+    make VARCHAR(50) NOT NULL,
+    model VARCHAR(100) NOT NULL,
+    car_year INT NOT NULL,
+    price DECIMAL(10,2) NOT NULL,
+    mileage INT,
+    fuel_type VARCHAR(20) NOT NULL,
+    transmission VARCHAR(20) NOT NULL,
+    body_type VARCHAR(20),
+    "condition" VARCHAR(20) NOT NULL,
+    description TEXT,
+    primary_image VARCHAR(500),
+    features TEXT[] NOT NULL DEFAULT '{}',
+    dealer_name VARCHAR(200),
+    dealer_city VARCHAR(100),
+    search_vector tsvector,
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT fk_car_search_car FOREIGN KEY (car_id) REFERENCES cars(id) ON DELETE CASCADE
+);
+
+-- One index per listing sort, with the id tie-breaker used by keyset pagination
+CREATE INDEX IF NOT EXISTS idx_car_search_created ON car_search (created_at DESC, car_id DESC);
+CREATE INDEX IF NOT EXISTS idx_car_search_price ON car_search (price, car_id);
+CREATE INDEX IF NOT EXISTS idx_car_search_mileage ON car_search (mileage, car_id);
+CREATE INDEX IF NOT EXISTS idx_car_search_year ON car_search (car_year DESC, car_id DESC);
+CREATE INDEX IF NOT EXISTS idx_car_search_make ON car_search (make);
+CREATE INDEX IF NOT EXISTS idx_car_search_dealer ON car_search (dealer_id);
+CREATE INDEX IF NOT EXISTS idx_car_search_features ON car_search USING GIN (features);
+CREATE INDEX IF NOT EXISTS idx_car_search_vector ON car_search USING GIN (search_vector);
+
+-- Backfill from the active inventory
+INSERT INTO car_search (car_id, dealer_id, make, model, car_year, price, mileage, fuel_type, transmission,
+                        body_type, "condition", description, primary_image, features, dealer_name, dealer_city,
+                        search_vector, created_at)
+SELECT c.id, c.dealer_id, c.make, c.model, c.car_year, c.price, c.mileage, c.fuel_type, c.transmission,
+       c.body_type, c."condition", c.description,
+       (SELECT ci.image_url FROM car_images ci WHERE ci.car_id = c.id LIMIT 1),
+       c.feature_set, d.name, d.city, c.search_vector, c.created_at
+FROM cars c
+LEFT JOIN dealers d ON d.id = c.dealer_id
+WHERE c.active = true
+ON CONFLICT (car_id) DO NOTHING;
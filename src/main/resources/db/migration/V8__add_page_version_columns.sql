@@ -0,0 +1,6 @@
+-- Versions behind the ETag/Last-Modified validators of the car and dealer pages.
+-- Dealers get an update timestamp; comments are looked up by car for the count and latest date.
+ALTER TABLE dealers ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP;
+UPDATE dealers SET updated_at = created_at WHERE updated_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_comments_car_created ON comments(car_id, created_at);
@@ -0,0 +1,34 @@
+-- Per-car comment and rating aggregates, maintained by CommentService in the same
+-- transaction as the comment insert or delete. Kept beside cars rather than in it so
+-- reviews never write (or lock) the car row.
+CREATE TABLE IF NOT EXISTS car_review_stats (
+    car_id BIGINT PRIMARY KEY REFERENCES cars(id) ON DELETE CASCADE,
+    comment_count INTEGER NOT NULL DEFAULT 0,
+    rating_count INTEGER NOT NULL DEFAULT 0,
+    rating_sum INTEGER NOT NULL DEFAULT 0,
+    rating_1 INTEGER NOT NULL DEFAULT 0,
+    rating_2 INTEGER NOT NULL DEFAULT 0,
+    rating_3 INTEGER NOT NULL DEFAULT 0,
+    rating_4 INTEGER NOT NULL DEFAULT 0,
+    rating_5 INTEGER NOT NULL DEFAULT 0
+);
+
+INSERT INTO car_review_stats (car_id, comment_count, rating_count, rating_sum,
+                              rating_1, rating_2, rating_3, rating_4, rating_5)
+SELECT car_id,
+       COUNT(*),
+       COUNT(rating) FILTER (WHERE rating BETWEEN 1 AND 5),
+       COALESCE(SUM(rating) FILTER (WHERE rating BETWEEN 1 AND 5), 0),
+       COUNT(*) FILTER (WHERE rating = 1),
+       COUNT(*) FILTER (WHERE rating = 2),
+       COUNT(*) FILTER (WHERE rating = 3),
+       COUNT(*) FILTER (WHERE rating = 4),
+       COUNT(*) FILTER (WHERE rating = 5)
+FROM comments
+WHERE car_id IS NOT NULL
+GROUP BY car_id
+ON CONFLICT (car_id) DO NOTHING;
+
+-- Keyset pagination of a car's comments, newest first
+DROP INDEX IF EXISTS idx_comments_car_created;
+CREATE INDEX IF NOT EXISTS idx_comments_car_keyset ON comments(car_id, created_at DESC, id DESC);
@@ -0,0 +1,95 @@
+package com.cardealer.controller;
+
+import com.cardealer.service.CarDetailAssembler;
+import com.cardealer.service.CarService;
+import com.cardealer.service.CommentService;
+import com.cardealer.service.CompareService;
+import com.cardealer.service.InventoryExportService;
+import com.cardealer.service.PageVersionService;
+import com.cardealer.service.PageVersionService.PageVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.ui.ExtendedModelMap;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CarControllerTest {
+
+    private static final Long CAR_ID = 7L;
+    private static final String ETAG = "W/\"c7-1\"";
+
+    private CarService carService;
+    private CarController controller;
+
+    @BeforeEach
+    void setUp() {
+        carService = mock(CarService.class);
+        PageVersionService pageVersionService = mock(PageVersionService.class);
+        when(pageVersionService.carDetail(CAR_ID)).thenReturn(Optional.of(new PageVersion(ETAG, 0L)));
+        controller = new CarController(carService, mock(CarDetailAssembler.class), pageVersionService,
+            mock(CompareService.class), mock(CommentService.class), mock(InventoryExportService.class));
+    }
+
+    @Test
+    void oneAddressIsOneVisitorWhateverItsUserAgent() {
+        revalidate(request("10.0.0.1", "Mozilla/5.0 (Windows NT 10.0) Firefox/128.0"));
+        revalidate(request("10.0.0.1", "Mozilla/5.0 (iPhone) Safari/604.1"));
+        revalidate(request("10.0.0.2", "Mozilla/5.0 (iPhone) Safari/604.1"));
+
+        verify(carService, times(2)).recordVisitor(CAR_ID, "a:10.0.0.1");
+        verify(carService).recordVisitor(CAR_ID, "a:10.0.0.2");
+    }
+
+    @Test
+    void aSessionIdentifiesTheVisitor() {
+        MockHttpServletRequest request = request("10.0.0.1", "Mozilla/5.0 Firefox/128.0");
+        String sessionId = request.getSession(true).getId();
+
+        revalidate(request);
+
+        verify(carService).recordVisitor(CAR_ID, "s:" + sessionId);
+    }
+
+    @Test
+    void crawlersAreNotCountedAsVisitors() {
+        revalidate(request("66.249.66.1", "Mozilla/5.0 (compatible; Googlebot/2.1)"));
+        revalidate(request("10.0.0.1", null));
+
+        verify(carService, never()).recordVisitor(anyLong(), anyString());
+        verify(carService, times(2)).recordView(CAR_ID);
+    }
+
+    private static MockHttpServletRequest request(String address, String userAgent) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/cars/" + CAR_ID);
+        request.setRemoteAddr(address);
+        if (userAgent != null) {
+            request.addHeader("User-Agent", userAgent);
+        }
+        request.addHeader("If-None-Match", ETAG);
+        return request;
+    }
+
+    /**
+     * An anonymous request that revalidates its copy, answered with a 304
+     */
+    private void revalidate(MockHttpServletRequest request) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        String view = controller.carDetail(CAR_ID, new ExtendedModelMap(), null,
+            new ServletWebRequest(request, response), request);
+
+        assertThat(view).isNull();
+        assertThat(response.getStatus()).isEqualTo(304);
+    }
+}
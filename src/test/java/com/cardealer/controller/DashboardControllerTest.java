@@ -0,0 +1,111 @@
+package com.cardealer.controller;
+
+import com.cardealer.dto.BulkListingRequest;
+import com.cardealer.exception.ResourceNotFoundException;
+import com.cardealer.exception.UnauthorizedException;
+import com.cardealer.model.Dealer;
+import com.cardealer.model.User;
+import com.cardealer.service.CarService;
+import com.cardealer.service.DealerService;
+import com.cardealer.service.FavoriteService;
+import com.cardealer.service.InventoryExportService;
+import com.cardealer.service.InventoryImportService;
+import com.cardealer.service.MessageService;
+import com.cardealer.service.UserService;
+import com.cardealer.service.ViewStatsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class DashboardControllerTest {
+
+    private static final String EMAIL = "ventas@example.com";
+
+    private CarService carService;
+    private DealerService dealerService;
+    private UserService userService;
+    private InventoryImportService inventoryImportService;
+    private InventoryExportService inventoryExportService;
+    private ViewStatsService viewStatsService;
+    private DashboardController controller;
+
+    @BeforeEach
+    void setUp() {
+        carService = mock(CarService.class);
+        dealerService = mock(DealerService.class);
+        userService = mock(UserService.class);
+        inventoryImportService = mock(InventoryImportService.class);
+        inventoryExportService = mock(InventoryExportService.class);
+        viewStatsService = mock(ViewStatsService.class);
+        controller = new DashboardController(carService, dealerService, userService, mock(MessageService.class),
+            mock(FavoriteService.class), viewStatsService, inventoryImportService, inventoryExportService);
+    }
+
+    @Test
+    void bulkOperationsRejectAnonymousCallers() {
+        BulkListingRequest request = new BulkListingRequest(List.of(1L));
+        Authentication anonymous = new AnonymousAuthenticationToken("key", "anonymousUser",
+            AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+
+        assertThatThrownBy(() -> controller.bulkDeactivate(request, null)).isInstanceOf(UnauthorizedException.class);
+        assertThatThrownBy(() -> controller.bulkReactivate(request, anonymous)).isInstanceOf(UnauthorizedException.class);
+        assertThatThrownBy(() -> controller.importListings(new MockMultipartFile("file", new byte[0]), false, null))
+            .isInstanceOf(UnauthorizedException.class);
+        assertThatThrownBy(() -> controller.exportListings("csv", null)).isInstanceOf(UnauthorizedException.class);
+        // No fallback to a development dealer
+        verifyNoInteractions(dealerService, carService, inventoryImportService, inventoryExportService);
+    }
+
+    @Test
+    void viewStatsRejectAnonymousCallers() {
+        Authentication anonymous = new AnonymousAuthenticationToken("key", "anonymousUser",
+            AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+
+        assertThatThrownBy(() -> controller.viewTrend(30, null)).isInstanceOf(UnauthorizedException.class);
+        assertThatThrownBy(() -> controller.carViewTrend(1L, 30, anonymous)).isInstanceOf(UnauthorizedException.class);
+        assertThatThrownBy(() -> controller.carVisitors(1L, 30, null)).isInstanceOf(UnauthorizedException.class);
+        verifyNoInteractions(dealerService, viewStatsService);
+    }
+
+    @Test
+    void aUserWithoutADealerIsRejected() {
+        User user = new User();
+        user.setId(12L);
+        when(userService.getUserByEmail(EMAIL)).thenReturn(user);
+        when(dealerService.getDealerByUserId(12L)).thenThrow(new ResourceNotFoundException("Concesionario no encontrado"));
+
+        assertThatThrownBy(() -> controller.bulkDeactivate(new BulkListingRequest(List.of(1L)), signedIn()))
+            .isInstanceOf(UnauthorizedException.class);
+        verifyNoInteractions(carService);
+    }
+
+    @Test
+    void bulkOperationsRunForTheSignedInDealer() {
+        User user = new User();
+        user.setId(12L);
+        Dealer dealer = new Dealer();
+        dealer.setId(5L);
+        when(userService.getUserByEmail(EMAIL)).thenReturn(user);
+        when(dealerService.getDealerByUserId(12L)).thenReturn(dealer);
+
+        controller.bulkDeactivate(new BulkListingRequest(List.of(1L, 2L)), signedIn());
+
+        verify(carService).deactivateCars(List.of(1L, 2L), 5L);
+    }
+
+    private static Authentication signedIn() {
+        return new UsernamePasswordAuthenticationToken(EMAIL, null, AuthorityUtils.createAuthorityList("ROLE_DEALER"));
+    }
+}
@@ -0,0 +1,88 @@
+package com.cardealer.search;
+
+import com.cardealer.dto.CarCard;
+import com.cardealer.dto.ListingSummary;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CarCursorTest {
+
+    @Test
+    void encodedCursorDecodesToTheSamePosition() {
+        CarCursor cursor = new CarCursor(CarSortKey.PRICE_DESC, true, "18999.90", 42L);
+
+        CarCursor decoded = CarCursor.decode(cursor.encode(), CarSortKey.PRICE_DESC);
+
+        assertThat(decoded).isEqualTo(cursor);
+        assertThat(decoded.jpaValue()).isEqualTo(new BigDecimal("18999.90"));
+        assertThat(decoded.indexValue()).isEqualTo(1_899_990L);
+    }
+
+    @Test
+    void tokenIsUrlSafe() {
+        String token = new CarCursor(CarSortKey.DATE_DESC, false, "2024-03-01T12:30:15.123456", 7L).encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+        assertThat(CarCursor.decode(token, CarSortKey.DATE_DESC).jpaValue())
+            .isEqualTo(LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000));
+    }
+
+    @Test
+    void rejectsACursorIssuedForAnotherSort() {
+        String token = new CarCursor(CarSortKey.MILEAGE_ASC, false, "120000", 3L).encode();
+
+        assertThatThrownBy(() -> CarCursor.decode(token, CarSortKey.YEAR_DESC))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        String badValue = new CarCursor(CarSortKey.YEAR_DESC, false, "dos mil", 3L).encode();
+
+        assertThatThrownBy(() -> CarCursor.decode("no es un cursor", CarSortKey.DATE_DESC))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CarCursor.decode(badValue, CarSortKey.YEAR_DESC))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void mileageCursorsComeFromTheBoundaryRow() {
+        CarCard card = card(120_000);
+
+        CarCursor after = CarCursor.after(CarSortKey.MILEAGE_ASC, card);
+
+        assertThat(CarCursor.decode(after.encode(), CarSortKey.MILEAGE_ASC).indexValue()).isEqualTo(120_000L);
+        assertThat(after.id()).isEqualTo(9L);
+    }
+
+    @Test
+    void neverIssuesACursorForAMissingSortValue() {
+        ListingSummary listing = new ListingSummary(9L, "Seat", "Ibiza", new BigDecimal("12500"), null, 2019,
+            0, true, LocalDateTime.of(2024, 3, 1, 12, 0), null);
+
+        assertThatThrownBy(() -> CarCursor.after(CarSortKey.MILEAGE_ASC, card(null)))
+            .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> CarCursor.before(CarSortKey.MILEAGE_ASC, listing))
+            .isInstanceOf(IllegalStateException.class);
+        // Other sorts do not need the mileage
+        assertThat(CarCursor.after(CarSortKey.PRICE_ASC, listing).value()).isEqualTo("12500");
+    }
+
+    @Test
+    void rejectsANullSortValue() {
+        String token = new CarCursor(CarSortKey.MILEAGE_ASC, false, "null", 9L).encode();
+
+        assertThatThrownBy(() -> CarCursor.decode(token, CarSortKey.MILEAGE_ASC))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static CarCard card(Integer mileage) {
+        return new CarCard(9L, "Seat", "Ibiza", 2019, new BigDecimal("12500"), mileage, null, null, null,
+            LocalDateTime.of(2024, 3, 1, 12, 0), null, null, null, null);
+    }
+}
@@ -0,0 +1,85 @@
+package com.cardealer.search;
+
+import com.cardealer.dto.DealerDirectoryPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DealerDirectoryCacheTest {
+
+    private static final DealerDirectoryPage PAGE = new DealerDirectoryPage(List.of(), 0, 12, 0, 0);
+    private static final DealerDirectoryCache.Key BY_NAME = new DealerDirectoryCache.Key(null, "name", 0, 12);
+
+    private DealerDirectoryCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new DealerDirectoryCache(100);
+    }
+
+    @Test
+    void pagesAreKeptByFiltersAndPage() {
+        cache.put(BY_NAME, PAGE, cache.generation());
+
+        assertThat(cache.get(new DealerDirectoryCache.Key(null, "name", 0, 12))).contains(PAGE);
+        assertThat(cache.get(new DealerDirectoryCache.Key(null, "name", 1, 12))).isEmpty();
+        assertThat(cache.get(new DealerDirectoryCache.Key("madrid", "name", 0, 12))).isEmpty();
+    }
+
+    @Test
+    void pagesComputedAcrossAClearAreNotStored() {
+        long seen = cache.generation();
+
+        // A directory row changed while the query for this page was running
+        cache.clear();
+        cache.put(BY_NAME, PAGE, seen);
+
+        assertThat(cache.get(BY_NAME)).isEmpty();
+        cache.put(BY_NAME, PAGE, cache.generation());
+        assertThat(cache.get(BY_NAME)).contains(PAGE);
+    }
+
+    @Test
+    void citiesFollowTheSameGuard() {
+        long seen = cache.generation();
+        cache.clear();
+        cache.putCities(List.of("Madrid"), seen);
+        assertThat(cache.cities()).isEmpty();
+
+        cache.putCities(List.of("Madrid", "Sevilla"), cache.generation());
+        assertThat(cache.cities()).contains(List.of("Madrid", "Sevilla"));
+    }
+
+    @Test
+    void clearDropsPagesAndCities() {
+        long seen = cache.generation();
+        cache.put(BY_NAME, PAGE, seen);
+        cache.putCities(List.of("Madrid"), seen);
+
+        cache.clear();
+
+        assertThat(cache.get(BY_NAME)).isEmpty();
+        assertThat(cache.cities()).isEmpty();
+        assertThat(cache.generation()).isGreaterThan(seen);
+    }
+
+    @Test
+    void leastRecentlyUsedPagesAreDroppedFirst() {
+        DealerDirectoryCache small = new DealerDirectoryCache(2);
+        DealerDirectoryCache.Key first = new DealerDirectoryCache.Key(null, "name", 0, 12);
+        DealerDirectoryCache.Key second = new DealerDirectoryCache.Key(null, "name", 1, 12);
+        DealerDirectoryCache.Key third = new DealerDirectoryCache.Key(null, "listings", 0, 12);
+        long generation = small.generation();
+        small.put(first, PAGE, generation);
+        small.put(second, PAGE, generation);
+        small.get(first);
+        small.put(third, PAGE, generation);
+
+        assertThat(small.get(first)).isPresent();
+        assertThat(small.get(second)).isEmpty();
+        assertThat(small.get(third)).isPresent();
+    }
+}
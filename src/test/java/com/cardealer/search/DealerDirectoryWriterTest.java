@@ -0,0 +1,116 @@
+package com.cardealer.search;
+
+import com.cardealer.model.enums.BodyType;
+import com.cardealer.model.enums.CarCondition;
+import com.cardealer.model.enums.FuelType;
+import com.cardealer.model.enums.TransmissionType;
+import com.cardealer.repository.DealerDirectoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class DealerDirectoryWriterTest {
+
+    private DealerDirectoryRepository repository;
+    private DealerDirectoryCache cache;
+    private DealerDirectoryWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(DealerDirectoryRepository.class);
+        cache = new DealerDirectoryCache(100);
+        writer = new DealerDirectoryWriter(repository, cache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void aCarMovedBetweenDealersRefreshesBoth() {
+        writer.onCarChanged(new CarChangedEvent(car(10L, 1L, true), car(10L, 2L, true)));
+
+        InOrder order = inOrder(repository);
+        // Pending entity changes reach the source tables before the rows are rebuilt
+        order.verify(repository).flush();
+        order.verify(repository).refresh(Set.of(1L, 2L));
+        order.verify(repository).removeInactive(Set.of(1L, 2L));
+    }
+
+    @Test
+    void bulkChangesRefreshEachDealerOnce() {
+        writer.onCarsChanged(new CarsChangedEvent(List.of(
+            new CarChangedEvent(car(10L, 1L, true), car(10L, 1L, false)),
+            new CarChangedEvent(car(11L, 1L, true), car(11L, 1L, false)),
+            new CarChangedEvent(car(12L, 3L, true), car(12L, 3L, false)))));
+
+        verify(repository).refresh(Set.of(1L, 3L));
+    }
+
+    @Test
+    void carsWithoutADealerTouchNothing() {
+        writer.onCarChanged(new CarChangedEvent(null, car(10L, null, true)));
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void unchangedRowsKeepTheCachedPages() {
+        long seen = cache.generation();
+        when(repository.refresh(anyCollection())).thenReturn(0);
+        when(repository.removeInactive(anyCollection())).thenReturn(0);
+
+        writer.onDealerChanged(new DealerChangedEvent(1L));
+
+        assertThat(cache.generation()).isEqualTo(seen);
+    }
+
+    @Test
+    void aDeactivatedDealerClearsTheCache() {
+        long seen = cache.generation();
+        when(repository.removeInactive(Set.of(1L))).thenReturn(1);
+
+        writer.onDealerChanged(new DealerChangedEvent(1L));
+
+        assertThat(cache.generation()).isGreaterThan(seen);
+    }
+
+    @Test
+    void insideATransactionTheCacheIsClearedAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        long seen = cache.generation();
+        when(repository.refresh(Set.of(1L))).thenReturn(1);
+
+        writer.onDealerChanged(new DealerChangedEvent(1L));
+
+        // Readers keep the old pages until the new rows are visible to them
+        assertThat(cache.generation()).isEqualTo(seen);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertThat(synchronizations).hasSize(1);
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        assertThat(cache.generation()).isGreaterThan(seen);
+    }
+
+    private static CarSnapshot car(Long id, Long dealerId, boolean active) {
+        return new CarSnapshot(id, dealerId, active, "Seat", "Ibiza", FuelType.GASOLINA, TransmissionType.MANUAL,
+            BodyType.HATCHBACK, CarCondition.OCASION, List.of(), new BigDecimal("12000"), 2019, 40_000, null);
+    }
+}
@@ -0,0 +1,162 @@
+package com.cardealer.search;
+
+import com.cardealer.dto.DealerListingFilter;
+import com.cardealer.dto.ListingSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class DealerInventoryQueryTest {
+
+    private static final Long DEALER_ID = 2L;
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private DealerInventoryQuery query;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        query = new DealerInventoryQuery(jdbcTemplate);
+    }
+
+    @Test
+    void forwardCursorSeeksPastTheCursorInSortOrder() {
+        respond(3, 1);
+
+        query.find(DEALER_ID, new DealerListingFilter(), CarSortKey.PRICE_ASC,
+            new CarCursor(CarSortKey.PRICE_ASC, false, "15000", 8L), 11);
+
+        assertThat(sql()).contains("(c.price, c.id) > (:seekValue, :seekId)")
+            .contains("ORDER BY c.price ASC, c.id ASC LIMIT :limit");
+        assertThat(params().getValue("seekValue")).isEqualTo(new BigDecimal("15000"));
+        assertThat(params().getValue("seekId")).isEqualTo(8L);
+    }
+
+    @Test
+    void backwardCursorSeeksTheOtherWayAndReturnsRowsInDisplayOrder() throws Exception {
+        // Read newest-last from the cursor, as the statement orders them
+        respond(3, 0, listing(5L, "2024-03-01T10:00"), listing(6L, "2024-03-02T10:00"));
+
+        DealerInventoryQuery.Result result = query.find(DEALER_ID, new DealerListingFilter(), CarSortKey.DATE_DESC,
+            new CarCursor(CarSortKey.DATE_DESC, true, "2024-02-28T09:00", 4L), 11);
+
+        assertThat(sql()).contains("(c.created_at, c.id) > (:seekValue, :seekId)")
+            .contains("ORDER BY c.created_at ASC, c.id ASC LIMIT :limit");
+        assertThat(result.rows()).extracting(ListingSummary::getId).containsExactly(6L, 5L);
+    }
+
+    @Test
+    void descendingSortSeeksBelowAForwardCursor() {
+        respond(1, 0);
+
+        query.find(DEALER_ID, new DealerListingFilter(), CarSortKey.YEAR_DESC,
+            new CarCursor(CarSortKey.YEAR_DESC, false, "2018", 30L), 11);
+
+        assertThat(sql()).contains("(c.car_year, c.id) < (:seekValue, :seekId)")
+            .contains("ORDER BY c.car_year DESC, c.id DESC LIMIT :limit");
+    }
+
+    @Test
+    void countsFollowTheBrandAndPriceFiltersButNotTheStatus() throws Exception {
+        respond(4, 2, listing(9L, "2024-03-01T10:00"));
+        DealerListingFilter filter = new DealerListingFilter("inactive", " Seat ",
+            new BigDecimal("5000"), new BigDecimal("20000"), null);
+
+        DealerInventoryQuery.Result result = query.find(DEALER_ID, filter, CarSortKey.DATE_DESC, null, 11);
+
+        String counts = sql().substring(0, sql().indexOf("LEFT JOIN"));
+        String page = sql().substring(sql().indexOf("LEFT JOIN"));
+        assertThat(counts).contains("c.make = :brand", "c.price >= :minPrice", "c.price <= :maxPrice")
+            .doesNotContain(":active");
+        assertThat(page).contains("c.make = :brand", "c.price >= :minPrice", "c.price <= :maxPrice",
+            "c.active = :active").doesNotContain(":seekValue");
+        assertThat(params().getValue("brand")).isEqualTo("Seat");
+        assertThat(params().getValue("active")).isEqualTo(false);
+        assertThat(result.activeCount()).isEqualTo(4);
+        assertThat(result.inactiveCount()).isEqualTo(2);
+        assertThat(result.rows()).extracting(ListingSummary::getId).containsExactly(9L);
+    }
+
+    @Test
+    void anEmptyPageStillCarriesTheCounts() {
+        respond(7, 3);
+
+        DealerInventoryQuery.Result result = query.find(DEALER_ID, new DealerListingFilter("active", null, null, null, null),
+            CarSortKey.PRICE_DESC, new CarCursor(CarSortKey.PRICE_DESC, false, "1000", 2L), 11);
+
+        assertThat(result.rows()).isEmpty();
+        assertThat(result.activeCount()).isEqualTo(7);
+        assertThat(result.inactiveCount()).isEqualTo(3);
+    }
+
+    @Test
+    void rejectsACursorOfAnotherSort() {
+        CarCursor mileage = new CarCursor(CarSortKey.MILEAGE_ASC, false, "120000", 3L);
+
+        assertThatThrownBy(() -> query.find(DEALER_ID, new DealerListingFilter(), CarSortKey.DATE_DESC, mileage, 11))
+            .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    /**
+     * Answer the statement with one row per listing, or the counts-only row of an empty page
+     */
+    private void respond(long active, long inactive, ResultSet... listings) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(2);
+            List<ResultSet> rows = listings.length > 0 ? List.of(listings) : List.of(mock(ResultSet.class));
+            for (ResultSet row : rows) {
+                when(row.getLong("active_count")).thenReturn(active);
+                when(row.getLong("inactive_count")).thenReturn(inactive);
+                handler.processRow(row);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(SqlParameterSource.class), any(RowCallbackHandler.class));
+    }
+
+    private static ResultSet listing(long id, String createdAt) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getObject("id")).thenReturn(id);
+        when(rs.getLong("id")).thenReturn(id);
+        when(rs.getString("make")).thenReturn("Seat");
+        when(rs.getString("model")).thenReturn("Ibiza");
+        when(rs.getBigDecimal("price")).thenReturn(new BigDecimal("12500"));
+        when(rs.getObject("mileage", Integer.class)).thenReturn(60_000);
+        when(rs.getObject("car_year", Integer.class)).thenReturn(2019);
+        when(rs.getBoolean("active")).thenReturn(true);
+        when(rs.getObject("created_at", LocalDateTime.class)).thenReturn(LocalDateTime.parse(createdAt));
+        return rs;
+    }
+
+    private String sql() {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).query(sql.capture(), any(SqlParameterSource.class), any(RowCallbackHandler.class));
+        return sql.getValue();
+    }
+
+    private MapSqlParameterSource params() {
+        ArgumentCaptor<MapSqlParameterSource> params = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        verify(jdbcTemplate).query(anyString(), params.capture(), any(RowCallbackHandler.class));
+        return params.getValue();
+    }
+}
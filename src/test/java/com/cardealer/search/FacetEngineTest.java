@@ -0,0 +1,74 @@
+package com.cardealer.search;
+
+import com.cardealer.dto.CarFilterDTO;
+import com.cardealer.dto.FacetCounts;
+import com.cardealer.model.enums.BodyType;
+import com.cardealer.model.enums.CarCondition;
+import com.cardealer.model.enums.FuelType;
+import com.cardealer.model.enums.TransmissionType;
+import com.cardealer.repository.CarSearchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FacetEngineTest {
+
+    private FacetEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        CarSearchRepository repository = mock(CarSearchRepository.class);
+        when(repository.findAll()).thenReturn(List.of());
+        InventoryIndex index = new InventoryIndex(repository, new SearchResultCache(true, 100));
+        ReflectionTestUtils.setField(index, "enabled", true);
+        index.rebuild();
+        index.apply(List.of(
+            car(1, "BMW", FuelType.DIESEL, List.of("GPS", "Cuero")),
+            car(2, "BMW", FuelType.GASOLINA, List.of("GPS")),
+            car(3, "Audi", FuelType.DIESEL, List.of("Cuero")),
+            car(4, "Seat", FuelType.HIBRIDO, List.of())
+        ));
+        engine = new FacetEngine(index);
+    }
+
+    @Test
+    void eachDimensionIgnoresItsOwnSelection() {
+        CarFilterDTO filters = new CarFilterDTO();
+        filters.setBrands(List.of("BMW"));
+        filters.setFuelType("diesel");
+
+        FacetCounts facets = engine.countFacets(filters);
+
+        // Brands under the fuel filter only, fuel types under the brand filter only
+        assertThat(facets.getBrands()).containsOnly(entry("Audi", 1L), entry("BMW", 1L), entry("Seat", 0L));
+        assertThat(facets.getFuelTypes())
+            .containsOnly(entry(FuelType.DIESEL, 1L), entry(FuelType.GASOLINA, 1L), entry(FuelType.HIBRIDO, 0L));
+        // Features under every filter
+        assertThat(facets.getFeatures()).containsOnly(entry("Cuero", 1L), entry("GPS", 1L));
+    }
+
+    @Test
+    void selectedValuesAreListedEvenWithoutMatches() {
+        CarFilterDTO filters = new CarFilterDTO();
+        filters.setBrands(List.of("Lancia"));
+        filters.setFeatures(List.of("Techo solar"));
+
+        FacetCounts facets = engine.countFacets(filters);
+
+        assertThat(facets.getBrands()).contains(entry("Lancia", 0L));
+        assertThat(facets.getFeatures()).contains(entry("Techo solar", 0L), entry("GPS", 0L));
+    }
+
+    private static CarSnapshot car(long id, String make, FuelType fuelType, List<String> features) {
+        return new CarSnapshot(id, 1L, true, make, "Modelo " + id, fuelType, TransmissionType.MANUAL,
+            BodyType.SEDAN, CarCondition.OCASION, features, new BigDecimal("20000"), 2020, 50_000, null);
+    }
+}
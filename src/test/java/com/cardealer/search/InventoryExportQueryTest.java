@@ -0,0 +1,50 @@
+package com.cardealer.search;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InventoryExportQueryTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void dealerCarsAreReadThroughAServerSideCursor() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        new InventoryExportQuery(jdbcTemplate).dealerCars(7L);
+
+        ArgumentCaptor<PreparedStatementCreator> creator = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        ArgumentCaptor<RowMapper<Object[]>> mapper = ArgumentCaptor.forClass(RowMapper.class);
+        verify(jdbcTemplate).queryForStream(creator.capture(), mapper.capture());
+
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        creator.getValue().createPreparedStatement(connection);
+        // A fetch size makes the PostgreSQL driver stream the rows instead of buffering them all
+        verify(statement).setFetchSize(500);
+        verify(statement).setLong(1, 7L);
+
+        ResultSet rs = mock(ResultSet.class);
+        Array features = mock(Array.class);
+        when(features.getArray()).thenReturn(new String[] {"GPS"});
+        when(rs.getArray("feature_set")).thenReturn(features);
+        Object[] row = mapper.getValue().mapRow(rs, 0);
+        assertThat(row).hasSize(InventoryExportQuery.DEALER_COLUMNS.size());
+        assertThat((String[]) row[14]).containsExactly("GPS");
+        // A car without images has an empty list, not a null
+        assertThat((String[]) row[15]).isEmpty();
+    }
+}
@@ -0,0 +1,220 @@
+package com.cardealer.search;
+
+import com.cardealer.dto.CarFilterDTO;
+import com.cardealer.model.CarSearch;
+import com.cardealer.model.enums.BodyType;
+import com.cardealer.model.enums.CarCondition;
+import com.cardealer.model.enums.FuelType;
+import com.cardealer.model.enums.TransmissionType;
+import com.cardealer.repository.CarSearchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InventoryIndexTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    private CarSearchRepository repository;
+    private InventoryIndex index;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(CarSearchRepository.class);
+        when(repository.findAll()).thenReturn(List.of());
+        index = new InventoryIndex(repository, new SearchResultCache(true, 100));
+        ReflectionTestUtils.setField(index, "enabled", true);
+        index.rebuild();
+        index.apply(List.of(
+            car(1, "BMW", FuelType.DIESEL, "30000", List.of("GPS", "Cuero")),
+            car(2, "BMW", FuelType.GASOLINA, "25000", List.of("GPS")),
+            car(3, "Audi", FuelType.DIESEL, "28000", List.of("Cuero")),
+            car(4, "Seat", FuelType.DIESEL, "15000", List.of()),
+            car(5, "BMW", FuelType.DIESEL, "30000", List.of("GPS"))
+        ));
+    }
+
+    @Test
+    void intersectsFilterBitmapsAndSortsThePage() {
+        CarFilterDTO filters = new CarFilterDTO();
+        filters.setBrands(List.of("BMW", "Audi"));
+        filters.setFuelType("diesel");
+        filters.setSortBy("price_asc");
+
+        InventoryIndex.Hits hits = index.search(filters, 0, 10).orElseThrow();
+
+        // Equal prices are ordered by id
+        assertThat(hits.ids()).containsExactly(3L, 1L, 5L);
+        assertThat(hits.total()).isEqualTo(3);
+    }
+
+    @Test
+    void requiresEveryFeatureAndAppliesThePriceRange() {
+        CarFilterDTO filters = new CarFilterDTO();
+        filters.setFeatures(List.of("GPS", "Cuero"));
+        assertThat(index.search(filters, 0, 10).orElseThrow().ids()).containsExactly(1L);
+
+        filters.setFeatures(List.of("Techo solar"));
+        assertThat(index.search(filters, 0, 10).orElseThrow().total()).isZero();
+
+        CarFilterDTO prices = new CarFilterDTO();
+        prices.setMinPrice(new BigDecimal("20000"));
+        prices.setMaxPrice(new BigDecimal("28000"));
+        prices.setSortBy("price_desc");
+        assertThat(index.search(prices, 0, 10).orElseThrow().ids()).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void offsetPagesKeepTheTotal() {
+        CarFilterDTO filters = new CarFilterDTO();
+        filters.setSortBy("price_asc");
+
+        InventoryIndex.Hits second = index.search(filters, 2, 2).orElseThrow();
+
+        assertThat(second.ids()).containsExactly(3L, 1L);
+        assertThat(second.total()).isEqualTo(5);
+    }
+
+    @Test
+    void deactivatedCarsLeaveTheIndex() {
+        index.apply(car(2, "BMW", FuelType.GASOLINA, "25000", List.of("GPS")).withActive(false));
+
+        CarFilterDTO filters = new CarFilterDTO();
+        filters.setBrands(List.of("BMW"));
+
+        assertThat(index.search(filters, 0, 10).orElseThrow().ids()).doesNotContain(2L).hasSize(2);
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void freeTextSearchFallsBackToTheDatabase() {
+        CarFilterDTO filters = new CarFilterDTO();
+        filters.setSearchText("serie 3");
+
+        assertThat(index.search(filters, 0, 10)).isEmpty();
+        assertThat(index.seek(filters, CarSortKey.DATE_DESC, null, 10)).isEmpty();
+    }
+
+    @Test
+    void seekWalksForwardAndBackFromTheCursor() {
+        CarFilterDTO filters = new CarFilterDTO();
+        CarSortKey sortKey = CarSortKey.PRICE_ASC;
+
+        List<Long> first = index.seek(filters, sortKey, null, 2).orElseThrow();
+        assertThat(first).containsExactly(4L, 2L);
+
+        CarCursor afterFirst = new CarCursor(sortKey, false, "25000", 2L);
+        List<Long> second = index.seek(filters, sortKey, afterFirst, 2).orElseThrow();
+        assertThat(second).containsExactly(3L, 1L);
+
+        // Ties on price continue by id after the cursor row
+        CarCursor afterSecond = new CarCursor(sortKey, false, "30000", 1L);
+        assertThat(index.seek(filters, sortKey, afterSecond, 2).orElseThrow()).containsExactly(5L);
+
+        CarCursor beforeSecond = new CarCursor(sortKey, true, "28000", 3L);
+        assertThat(index.seek(filters, sortKey, beforeSecond, 2).orElseThrow()).containsExactly(4L, 2L);
+    }
+
+    @Test
+    void seekCoversEveryMatchExactlyOnce() {
+        CarFilterDTO filters = new CarFilterDTO();
+        filters.setFuelType("DIESEL");
+        CarSortKey sortKey = CarSortKey.PRICE_DESC;
+
+        List<Long> seen = new ArrayList<>();
+        CarCursor cursor = null;
+        List<Long> page;
+        do {
+            page = index.seek(filters, sortKey, cursor, 2).orElseThrow();
+            seen.addAll(page);
+            if (!page.isEmpty()) {
+                long last = page.get(page.size() - 1);
+                cursor = new CarCursor(sortKey, false, price(last), last);
+            }
+        } while (!page.isEmpty());
+
+        assertThat(seen).containsExactly(5L, 1L, 3L, 4L);
+    }
+
+    @Test
+    void changesCommittedDuringARebuildAreNotLost() {
+        CarSearch stale = carSearch(7, "Kia", "12000");
+        when(repository.findAll()).thenAnswer(invocation -> {
+            // Committed while the rows were being read: the car was deactivated
+            index.apply(car(7, "Kia", FuelType.GASOLINA, "12000", List.of()).withActive(false));
+            index.apply(car(8, "Kia", FuelType.GASOLINA, "14000", List.of()));
+            return List.of(stale);
+        });
+
+        index.rebuild();
+
+        CarFilterDTO filters = new CarFilterDTO();
+        filters.setBrands(List.of("Kia"));
+        assertThat(index.search(filters, 0, 10).orElseThrow().ids()).containsExactly(8L);
+    }
+
+    @Test
+    void pagesCachedAfterAnEvictionAlreadySeeTheChange() {
+        CarFilterDTO filters = new CarFilterDTO();
+        filters.setBrands(List.of("Kia"));
+        SearchResultCache.Key key = SearchResultCache.Key.page(filters, 0, 10);
+        SearchResultCache cache = new SearchResultCache(true, 100) {
+            @Override
+            public synchronized void evict(CarChangedEvent event) {
+                super.evict(event);
+                // A listing query that runs right after the eviction, under the new generation
+                long generation = generation();
+                InventoryIndex.Hits hits = index.search(filters, 0, 10).orElseThrow();
+                put(key, new SearchResultCache.Ids(hits.ids(), hits.total()), generation);
+            }
+        };
+        index = new InventoryIndex(repository, cache);
+        ReflectionTestUtils.setField(index, "enabled", true);
+        index.rebuild();
+
+        index.onCarChanged(new CarChangedEvent(null, car(7, "Kia", FuelType.GASOLINA, "12000", List.of())));
+
+        assertThat(cache.get(key)).hasValueSatisfying(page -> assertThat(page.ids()).containsExactly(7L));
+    }
+
+    private static String price(long id) {
+        return switch ((int) id) {
+            case 1, 5 -> "30000";
+            case 2 -> "25000";
+            case 3 -> "28000";
+            default -> "15000";
+        };
+    }
+
+    private static CarSnapshot car(long id, String make, FuelType fuelType, String price, List<String> features) {
+        return new CarSnapshot(id, 1L, true, make, "Modelo " + id, fuelType, TransmissionType.MANUAL,
+            BodyType.SEDAN, CarCondition.OCASION, features, new BigDecimal(price), 2020, 50_000,
+            CREATED.plusHours(id));
+    }
+
+    private static CarSearch carSearch(long id, String make, String price) {
+        CarSearch row = new CarSearch();
+        ReflectionTestUtils.setField(row, "id", id);
+        ReflectionTestUtils.setField(row, "dealerId", 1L);
+        ReflectionTestUtils.setField(row, "make", make);
+        ReflectionTestUtils.setField(row, "model", "Modelo " + id);
+        ReflectionTestUtils.setField(row, "year", 2020);
+        ReflectionTestUtils.setField(row, "price", new BigDecimal(price));
+        ReflectionTestUtils.setField(row, "mileage", 50_000);
+        ReflectionTestUtils.setField(row, "fuelType", FuelType.GASOLINA);
+        ReflectionTestUtils.setField(row, "transmission", TransmissionType.MANUAL);
+        ReflectionTestUtils.setField(row, "condition", CarCondition.OCASION);
+        ReflectionTestUtils.setField(row, "featureSet", new String[0]);
+        ReflectionTestUtils.setField(row, "createdAt", CREATED);
+        return row;
+    }
+}
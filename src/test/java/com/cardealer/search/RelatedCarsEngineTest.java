@@ -0,0 +1,105 @@
+package com.cardealer.search;
+
+import com.cardealer.model.enums.BodyType;
+import com.cardealer.model.enums.CarCondition;
+import com.cardealer.model.enums.FuelType;
+import com.cardealer.model.enums.TransmissionType;
+import com.cardealer.repository.CarSearchRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RelatedCarsEngineTest {
+
+    private RelatedCarsEngine engine;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        CarSearchRepository repository = mock(CarSearchRepository.class);
+        when(repository.findAll()).thenReturn(List.of());
+        engine = new RelatedCarsEngine(repository, true, 2);
+        engine.rebuild();
+        engine.onCarsChanged(new CarsChangedEvent(List.of(
+            added(car(1, "BMW", BodyType.SEDAN, FuelType.DIESEL, "30000", 2020, 50_000)),
+            added(car(2, "BMW", BodyType.SEDAN, FuelType.DIESEL, "31000", 2020, 55_000)),
+            added(car(3, "Audi", BodyType.SEDAN, FuelType.DIESEL, "29000", 2019, 60_000)),
+            added(car(4, "Seat", BodyType.SUV, FuelType.GASOLINA, "12000", 2012, 150_000))
+        )));
+        awaitWorker();
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void listsTheNearestCarsFirst() {
+        assertThat(engine.related(1L, 6)).contains(List.of(2L, 3L));
+        assertThat(engine.related(1L, 1)).contains(List.of(2L));
+        assertThat(engine.related(99L, 6)).isEmpty();
+    }
+
+    @Test
+    void aCarAloneInItsBandsIsComparedWithEveryCar() {
+        // No other SUV, petrol car or car in its price and year bands
+        assertThat(engine.related(4L, 6)).contains(List.of(3L, 2L));
+    }
+
+    @Test
+    void deactivatingACarRepairsTheListsThatContainedIt() throws Exception {
+        CarSnapshot car2 = car(2, "BMW", BodyType.SEDAN, FuelType.DIESEL, "31000", 2020, 55_000);
+
+        engine.onCarChanged(new CarChangedEvent(car2, car2.withActive(false)));
+        awaitWorker();
+
+        assertThat(engine.related(2L, 6)).isEmpty();
+        assertThat(engine.related(1L, 6)).contains(List.of(3L, 4L));
+    }
+
+    @Test
+    void aNewCarEntersTheListsOfTheCarsItIsCloserTo() throws Exception {
+        engine.onCarChanged(added(car(5, "Audi", BodyType.SEDAN, FuelType.DIESEL, "29500", 2019, 60_000)));
+        awaitWorker();
+
+        assertThat(engine.related(3L, 6)).contains(List.of(5L, 1L));
+        assertThat(engine.related(5L, 6).orElseThrow()).first().isEqualTo(3L);
+        // Too far to displace the neighbours of the SUV
+        assertThat(engine.related(4L, 6)).contains(List.of(3L, 5L));
+    }
+
+    @Test
+    void disabledEngineHasNoLists() {
+        RelatedCarsEngine disabled = new RelatedCarsEngine(mock(CarSearchRepository.class), false, 2);
+        disabled.rebuild();
+
+        assertThat(disabled.related(1L, 6)).isEmpty();
+    }
+
+    /**
+     * Changes are applied on the engine's single worker thread, in order
+     */
+    private void awaitWorker() throws Exception {
+        ExecutorService worker = (ExecutorService) ReflectionTestUtils.getField(engine, "worker");
+        worker.submit(() -> { }).get();
+    }
+
+    private static CarChangedEvent added(CarSnapshot car) {
+        return new CarChangedEvent(null, car);
+    }
+
+    private static CarSnapshot car(long id, String make, BodyType bodyType, FuelType fuelType, String price,
+                                   int year, int mileage) {
+        return new CarSnapshot(id, 1L, true, make, "Modelo " + id, fuelType, TransmissionType.MANUAL,
+            bodyType, CarCondition.OCASION, List.of(), new BigDecimal(price), year, mileage, null);
+    }
+}
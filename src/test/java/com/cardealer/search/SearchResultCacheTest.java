@@ -0,0 +1,133 @@
+package com.cardealer.search;
+
+import com.cardealer.dto.CarFilterDTO;
+import com.cardealer.model.enums.BodyType;
+import com.cardealer.model.enums.CarCondition;
+import com.cardealer.model.enums.FuelType;
+import com.cardealer.model.enums.TransmissionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchResultCacheTest {
+
+    private static final SearchResultCache.Ids PAGE = new SearchResultCache.Ids(List.of(1L, 2L), 2);
+
+    private SearchResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SearchResultCache(true, 100);
+    }
+
+    @Test
+    void equivalentFiltersShareAnEntry() {
+        CarFilterDTO filters = filters("BMW", "diesel");
+        filters.setBrands(List.of("BMW", "Audi", "BMW"));
+        cache.put(SearchResultCache.Key.page(filters, 0, 12), PAGE, cache.generation());
+
+        CarFilterDTO same = filters("Audi", "DIESEL");
+        same.setBrands(List.of("Audi", "BMW"));
+        same.setSortBy("date_desc");
+
+        assertThat(cache.get(SearchResultCache.Key.page(same, 0, 12))).contains(PAGE);
+        assertThat(cache.get(SearchResultCache.Key.page(same, 12, 12))).isEmpty();
+    }
+
+    @Test
+    void aChangeEvictsOnlyThePagesTheCarCouldMatch() {
+        SearchResultCache.Key bmw = SearchResultCache.Key.page(filters("BMW", null), 0, 12);
+        SearchResultCache.Key audi = SearchResultCache.Key.page(filters("Audi", null), 0, 12);
+        SearchResultCache.Key all = SearchResultCache.Key.page(new CarFilterDTO(), 0, 12);
+        long generation = cache.generation();
+        cache.put(bmw, PAGE, generation);
+        cache.put(audi, PAGE, generation);
+        cache.put(all, PAGE, generation);
+
+        CarSnapshot after = car("BMW", true);
+        cache.evict(new CarChangedEvent(after, after.withActive(false)));
+
+        assertThat(cache.get(bmw)).isEmpty();
+        assertThat(cache.get(all)).isEmpty();
+        assertThat(cache.get(audi)).contains(PAGE);
+    }
+
+    @Test
+    void theStateBeforeTheChangeAlsoEvicts() {
+        SearchResultCache.Key bmw = SearchResultCache.Key.page(filters("BMW", null), 0, 12);
+        cache.put(bmw, PAGE, cache.generation());
+
+        // The car was a BMW and was edited into another make
+        cache.evict(new CarChangedEvent(car("BMW", true), car("Mini", true)));
+
+        assertThat(cache.get(bmw)).isEmpty();
+    }
+
+    @Test
+    void resultsComputedAcrossAnEvictionAreNotStored() {
+        SearchResultCache.Key key = SearchResultCache.Key.page(filters("Audi", null), 0, 12);
+        long seen = cache.generation();
+
+        // A car changed while the query for this page was running
+        cache.evict(new CarChangedEvent(null, car("BMW", true)));
+        cache.put(key, PAGE, seen);
+
+        assertThat(cache.get(key)).isEmpty();
+        cache.put(key, PAGE, cache.generation());
+        assertThat(cache.get(key)).contains(PAGE);
+    }
+
+    @Test
+    void bulkChangesClearEverything() {
+        SearchResultCache.Key audi = SearchResultCache.Key.page(filters("Audi", null), 0, 12);
+        long seen = cache.generation();
+        cache.put(audi, PAGE, seen);
+
+        cache.evict(new CarsChangedEvent(List.of(new CarChangedEvent(null, car("BMW", true)))));
+
+        assertThat(cache.get(audi)).isEmpty();
+        assertThat(cache.generation()).isGreaterThan(seen);
+    }
+
+    @Test
+    void leastRecentlyUsedPagesAreDroppedFirst() {
+        SearchResultCache small = new SearchResultCache(true, 2);
+        SearchResultCache.Key first = SearchResultCache.Key.page(filters("Audi", null), 0, 12);
+        SearchResultCache.Key second = SearchResultCache.Key.page(filters("BMW", null), 0, 12);
+        SearchResultCache.Key third = SearchResultCache.Key.page(filters("Seat", null), 0, 12);
+        long generation = small.generation();
+        small.put(first, PAGE, generation);
+        small.put(second, PAGE, generation);
+        small.get(first);
+        small.put(third, PAGE, generation);
+
+        assertThat(small.get(first)).isPresent();
+        assertThat(small.get(second)).isEmpty();
+        assertThat(small.get(third)).isPresent();
+    }
+
+    @Test
+    void disabledCacheStoresNothing() {
+        SearchResultCache disabled = new SearchResultCache(false, 100);
+        SearchResultCache.Key key = SearchResultCache.Key.page(new CarFilterDTO(), 0, 12);
+        disabled.put(key, PAGE, disabled.generation());
+
+        assertThat(disabled.get(key)).isEmpty();
+    }
+
+    private static CarFilterDTO filters(String brand, String fuelType) {
+        CarFilterDTO filters = new CarFilterDTO();
+        filters.setBrands(List.of(brand));
+        filters.setFuelType(fuelType);
+        return filters;
+    }
+
+    private static CarSnapshot car(String make, boolean active) {
+        return new CarSnapshot(1L, 1L, active, make, "Modelo", FuelType.GASOLINA, TransmissionType.MANUAL,
+            BodyType.SEDAN, CarCondition.OCASION, List.of(), new BigDecimal("20000"), 2020, 30_000, null);
+    }
+}
@@ -0,0 +1,110 @@
+package com.cardealer.search;
+
+import com.cardealer.dto.Suggestion;
+import com.cardealer.model.enums.BodyType;
+import com.cardealer.model.enums.CarCondition;
+import com.cardealer.model.enums.FuelType;
+import com.cardealer.model.enums.TransmissionType;
+import com.cardealer.repository.CarSearchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SuggestionIndexTest {
+
+    private CarSearchRepository repository;
+    private SuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(CarSearchRepository.class);
+        when(repository.findMakesAndModels()).thenReturn(List.of(
+            new Object[] {1L, "Volkswagen", "Golf"},
+            new Object[] {2L, "Volkswagen", "Golf"},
+            new Object[] {3L, "Seat", "Golf"},
+            new Object[] {4L, "BMW", "320d"},
+            new Object[] {5L, "Mini", "Cooper"},
+            new Object[] {6L, "Rover", "Mini"}
+        ));
+        index = new SuggestionIndex(repository);
+        index.rebuild();
+    }
+
+    @Test
+    void completesMakesAndMakeModelPrefixes() {
+        assertThat(index.suggest("bm", 10))
+            .extracting(Suggestion::getText, Suggestion::getType, Suggestion::getCount)
+            .containsExactly(tuple("BMW", "MAKE", 1L), tuple("BMW 320d", "MODEL", 1L));
+        assertThat(index.suggest("320", 10)).extracting(Suggestion::getText).containsExactly("BMW 320d");
+    }
+
+    @Test
+    void keepsEveryMakeOfASharedModelName() {
+        assertThat(index.suggest("golf", 10))
+            .extracting(Suggestion::getText, Suggestion::getCount)
+            .containsExactly(tuple("Volkswagen Golf", 2L), tuple("Seat Golf", 1L));
+    }
+
+    @Test
+    void keepsAMakeAndAModelWithTheSameName() {
+        assertThat(index.suggest("mini", 10))
+            .extracting(Suggestion::getText, Suggestion::getType)
+            .containsExactly(tuple("Mini", "MAKE"), tuple("Mini Cooper", "MODEL"), tuple("Rover Mini", "MODEL"));
+    }
+
+    @Test
+    void matchesBrandsWithinOneEdit() {
+        assertThat(index.suggest("bmv", 10)).extracting(Suggestion::getText).containsExactly("BMW");
+        assertThat(index.suggest("volksvagen", 10)).extracting(Suggestion::getText).containsExactly("Volkswagen");
+        assertThat(index.suggest("wolksvagen", 10)).isEmpty();
+    }
+
+    @Test
+    void shortPrefixesAreNotMatchedFuzzily() {
+        assertThat(index.suggest("bv", 10)).isEmpty();
+    }
+
+    @Test
+    void deactivatedCarsAreNoLongerSuggested() {
+        CarSnapshot seatGolf = new CarSnapshot(3L, 1L, false, "Seat", "Golf", FuelType.GASOLINA,
+            TransmissionType.MANUAL, BodyType.HATCHBACK, CarCondition.OCASION, List.of(),
+            new BigDecimal("9000"), 2015, 120_000, null);
+
+        index.onCarChanged(new CarChangedEvent(seatGolf.withActive(true), seatGolf));
+
+        assertThat(index.suggest("golf", 10)).extracting(Suggestion::getText).containsExactly("Volkswagen Golf");
+        assertThat(index.suggest("seat", 10)).isEmpty();
+    }
+
+    @Test
+    void changesCommittedDuringARebuildAreNotLost() {
+        when(repository.findMakesAndModels()).thenAnswer(invocation -> {
+            // Committed while the rows were being read: the BMW was deactivated and a Kia listed
+            index.onCarChanged(new CarChangedEvent(null, car(4L, "BMW", "320d", false)));
+            index.onCarChanged(new CarChangedEvent(null, car(7L, "Kia", "Rio", true)));
+            return List.<Object[]>of(new Object[] {4L, "BMW", "320d"});
+        });
+
+        index.rebuild();
+
+        assertThat(index.suggest("bm", 10)).isEmpty();
+        assertThat(index.suggest("kia", 10)).extracting(Suggestion::getText).containsExactly("Kia", "Kia Rio");
+    }
+
+    @Test
+    void honoursTheLimit() {
+        assertThat(index.suggest("mini", 1)).extracting(Suggestion::getText).containsExactly("Mini");
+    }
+
+    private static CarSnapshot car(long id, String make, String model, boolean active) {
+        return new CarSnapshot(id, 1L, active, make, model, FuelType.GASOLINA, TransmissionType.MANUAL,
+            BodyType.HATCHBACK, CarCondition.OCASION, List.of(), new BigDecimal("9000"), 2015, 120_000, null);
+    }
+}
@@ -0,0 +1,176 @@
+package com.cardealer.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TrendingScoresTest {
+
+    private static final Duration HALF_LIFE = Duration.ofHours(24);
+    private static final double LAMBDA = Math.log(2) / HALF_LIFE.toMillis();
+
+    private JdbcTemplate jdbcTemplate;
+    private TrendingScores trending;
+
+    private record Stored(long carId, double score, Duration age) {
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        trending = new TrendingScores(jdbcTemplate, HALF_LIFE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        trending.shutdown();
+    }
+
+    @Test
+    void scoresHalveEveryHalfLife() {
+        load(new Stored(1, 8.0, HALF_LIFE.multipliedBy(3)),
+            new Stored(2, 1.0, Duration.ZERO),
+            new Stored(3, 2.0, HALF_LIFE.multipliedBy(2)));
+
+        // 8 three half-lives ago is worth 1 now; 2 two half-lives ago is worth 0.5
+        assertThat(trending.rankKey(1)).isCloseTo(trending.rankKey(2), within(1e-3));
+        assertThat(trending.rankKey(2) - trending.rankKey(3)).isCloseTo(Math.log(2), within(1e-3));
+        assertThat(trending.top(3)).endsWith(3L);
+    }
+
+    @Test
+    void eventsAddTheirWeightToTheDecayedScore() {
+        long before = System.currentTimeMillis();
+        trending.record(10L, TrendingScores.Signal.VIEW);
+        trending.record(11L, TrendingScores.Signal.FAVORITE);
+        trending.record(11L, TrendingScores.Signal.VIEW);
+        long after = System.currentTimeMillis();
+        trending.refreshTop();
+
+        // rankKey = ln(score) + lambda * time of the last event
+        assertThat(trending.rankKey(10L)).isBetween(LAMBDA * before, LAMBDA * after);
+        assertThat(trending.rankKey(11L) - LAMBDA * after).isCloseTo(Math.log(6.0), within(1e-3));
+        assertThat(trending.top(10)).containsExactly(11L, 10L);
+        assertThat(trending.top(1)).containsExactly(11L);
+    }
+
+    @Test
+    void carsWithoutEventsRankLast() {
+        assertThat(trending.rankKey(99L)).isEqualTo(Double.NEGATIVE_INFINITY);
+        assertThat(trending.top(5)).isEmpty();
+    }
+
+    @Test
+    void recentEventsOutrankOlderLargerScores() {
+        // 100 points ten half-lives ago are worth about 0.1 now
+        load(new Stored(1, 100.0, HALF_LIFE.multipliedBy(10)));
+
+        trending.record(2L, TrendingScores.Signal.VIEW);
+        trending.refreshTop();
+
+        assertThat(trending.top(2)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void snapshotForgetsScoresThatDecayedAway() {
+        load(new Stored(1, 1.0, HALF_LIFE.multipliedBy(10)), new Stored(2, 5.0, Duration.ZERO));
+
+        trending.snapshot();
+
+        assertThat(trending.rankKey(1)).isEqualTo(Double.NEGATIVE_INFINITY);
+        assertThat(trending.top(5)).containsExactly(2L);
+    }
+
+    @Test
+    void deactivatedCarsAreForgotten() {
+        trending.record(5L, TrendingScores.Signal.MESSAGE);
+        trending.refreshTop();
+        CarSnapshot inactive = new CarSnapshot(5L, 1L, false, "Seat", "Ibiza", null, null, null, null,
+            List.of(), null, 2019, 40_000, null);
+
+        trending.onCarChanged(new CarChangedEvent(inactive.withActive(true), inactive));
+        trending.refreshTop();
+
+        assertThat(trending.top(5)).isEmpty();
+        assertThat(trending.rankKey(5L)).isEqualTo(Double.NEGATIVE_INFINITY);
+    }
+
+    @Test
+    void aUserFavouriteIsCreditedOnce() {
+        trending.onCarInterest(new CarInterestEvent(1L, TrendingScores.Signal.FAVORITE, 100L));
+        double once = trending.rankKey(1L);
+
+        // Removed and added again by the same user
+        trending.onCarInterest(new CarInterestEvent(1L, TrendingScores.Signal.FAVORITE, 100L));
+        assertThat(trending.rankKey(1L)).isEqualTo(once);
+
+        trending.onCarInterest(new CarInterestEvent(1L, TrendingScores.Signal.FAVORITE, 101L));
+        trending.onCarInterest(new CarInterestEvent(1L, TrendingScores.Signal.MESSAGE, 100L));
+        trending.onCarInterest(new CarInterestEvent(1L, TrendingScores.Signal.MESSAGE, 100L));
+        assertThat(trending.rankKey(1L) - once).isCloseTo(Math.log(30.0 / 5.0), within(1e-3));
+    }
+
+    @Test
+    void eventsReachTheRankingOnTheNextRefresh() {
+        trending.record(1L, TrendingScores.Signal.VIEW);
+        assertThat(trending.top(5)).isEmpty();
+
+        trending.refreshTop();
+        trending.record(2L, TrendingScores.Signal.MESSAGE);
+
+        assertThat(trending.top(5)).containsExactly(1L);
+        trending.refreshTop();
+        assertThat(trending.top(5)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void aCarOutsideAFullRankingEntersWhenItPassesTheLowestKey() {
+        for (long carId = 1; carId <= 20; carId++) {
+            trending.record(carId, TrendingScores.Signal.FAVORITE);
+        }
+        trending.record(21L, TrendingScores.Signal.VIEW);
+        trending.refreshTop();
+        assertThat(trending.top(20)).hasSize(20).doesNotContain(21L);
+
+        trending.record(21L, TrendingScores.Signal.MESSAGE);
+        trending.refreshTop();
+
+        assertThat(trending.top(20)).hasSize(20).startsWith(21L);
+    }
+
+    private void load(Stored... rows) {
+        long now = System.currentTimeMillis();
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Stored row : rows) {
+                handler.processRow(resultSet(row, now));
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+        trending.load();
+    }
+
+    private static ResultSet resultSet(Stored row, long now) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("car_id")).thenReturn(row.carId());
+        when(rs.getDouble("score")).thenReturn(row.score());
+        when(rs.getTimestamp("scored_at")).thenReturn(new Timestamp(now - row.age().toMillis()));
+        return rs;
+    }
+}
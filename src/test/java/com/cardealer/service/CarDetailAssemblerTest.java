@@ -0,0 +1,75 @@
+package com.cardealer.service;
+
+import com.cardealer.dto.CarDetailView;
+import com.cardealer.dto.CommentPage;
+import com.cardealer.dto.ReviewSummary;
+import com.cardealer.model.Car;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CarDetailAssemblerTest {
+
+    private static final Long CAR_ID = 5L;
+
+    private CarService carService;
+    private CommentService commentService;
+    private CarDetailAssembler assembler;
+
+    @BeforeEach
+    void setUp() {
+        carService = mock(CarService.class);
+        commentService = mock(CommentService.class);
+        Car car = new Car();
+        car.setId(CAR_ID);
+        when(carService.getCarById(CAR_ID)).thenReturn(car);
+        when(carService.getRelatedCars(any(Car.class))).thenReturn(List.of());
+        when(commentService.getCommentPage(eq(CAR_ID), isNull(), anyInt())).thenReturn(new CommentPage(List.of(), null));
+        when(commentService.getReviewSummary(CAR_ID)).thenReturn(ReviewSummary.empty());
+        assembler = new CarDetailAssembler(carService, commentService, mock(FavoriteService.class),
+            mock(UserService.class), Duration.ofMillis(200));
+    }
+
+    @AfterEach
+    void tearDown() {
+        assembler.shutdown();
+    }
+
+    @Test
+    void blocksThatAnsweredInTimeAreAvailable() {
+        CarDetailView view = assembler.assemble(CAR_ID, null);
+
+        assertThat(view.isRelatedCarsAvailable()).isTrue();
+        assertThat(view.isCommentsAvailable()).isTrue();
+        assertThat(view.isFavorite()).isFalse();
+    }
+
+    @Test
+    void lateOrFailedBlocksAreFlaggedUnavailable() {
+        when(carService.getRelatedCars(any(Car.class))).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return List.of();
+        });
+        when(commentService.getCommentPage(eq(CAR_ID), isNull(), anyInt()))
+            .thenThrow(new IllegalStateException("sin conexión"));
+
+        CarDetailView view = assembler.assemble(CAR_ID, null);
+
+        assertThat(view.isRelatedCarsAvailable()).isFalse();
+        assertThat(view.getRelatedCars()).isEmpty();
+        assertThat(view.isCommentsAvailable()).isFalse();
+        assertThat(view.getComments().getComments()).isEmpty();
+        assertThat(view.getReviews().getCommentCount()).isZero();
+    }
+}
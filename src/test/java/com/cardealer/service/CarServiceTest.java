@@ -0,0 +1,255 @@
+package com.cardealer.service;
+
+import com.cardealer.dto.BulkListingResult;
+import com.cardealer.dto.BulkPriceRequest;
+import com.cardealer.dto.CarCard;
+import com.cardealer.dto.CarFilterDTO;
+import com.cardealer.exception.UnauthorizedException;
+import com.cardealer.model.CarSearch;
+import com.cardealer.repository.CarRepository;
+import com.cardealer.repository.CarSearchRepository;
+import com.cardealer.repository.DealerRepository;
+import com.cardealer.repository.DealerStatsRepository;
+import com.cardealer.search.CarChangedEvent;
+import com.cardealer.search.CarSearchWriter;
+import com.cardealer.search.CarsChangedEvent;
+import com.cardealer.search.DealerInventoryQuery;
+import com.cardealer.search.FacetEngine;
+import com.cardealer.search.InventoryIndex;
+import com.cardealer.search.KeysetQuery;
+import com.cardealer.search.RelatedCarsEngine;
+import com.cardealer.search.SearchResultCache;
+import com.cardealer.search.SuggestionIndex;
+import com.cardealer.search.TrendingScores;
+import com.cardealer.stats.UniqueVisitors;
+import com.cardealer.stats.ViewCounter;
+import com.cardealer.util.FileUploadUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class CarServiceTest {
+
+    private static final Long DEALER_ID = 3L;
+
+    private CarRepository carRepository;
+    private CarSearchRepository carSearchRepository;
+    private CarSearchWriter carSearchWriter;
+    private ApplicationEventPublisher eventPublisher;
+    private CarService carService;
+
+    @BeforeEach
+    void setUp() {
+        carRepository = mock(CarRepository.class);
+        carSearchRepository = mock(CarSearchRepository.class);
+        carSearchWriter = mock(CarSearchWriter.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        carService = new CarService(carRepository, carSearchRepository, mock(DealerRepository.class),
+            mock(DealerStatsRepository.class), mock(FileUploadUtil.class), mock(InventoryIndex.class),
+            mock(FacetEngine.class), mock(KeysetQuery.class), mock(DealerInventoryQuery.class),
+            mock(SearchResultCache.class), mock(RelatedCarsEngine.class), mock(ViewCounter.class),
+            mock(UniqueVisitors.class), mock(TrendingScores.class), mock(SuggestionIndex.class),
+            carSearchWriter, eventPublisher);
+    }
+
+    @Test
+    void rejectsASelectionWithCarsOfAnotherDealer() {
+        // Car 8 belongs to someone else, so only two of the three ids are counted
+        when(carRepository.countByDealerIdAndIdIn(DEALER_ID, List.of(1L, 2L, 8L))).thenReturn(2L);
+
+        assertThatThrownBy(() -> carService.deactivateCars(List.of(1L, 2L, 8L), DEALER_ID))
+            .isInstanceOf(UnauthorizedException.class);
+        verify(carRepository, never()).updateActive(anyLong(), anyCollection(), anyBoolean());
+        verifyNoInteractions(carSearchWriter, eventPublisher);
+    }
+
+    @Test
+    void repeatedAndMissingIdsAreCountedOnce() {
+        when(carRepository.countByDealerIdAndIdIn(DEALER_ID, List.of(1L, 2L))).thenReturn(2L);
+        when(carRepository.updateActive(DEALER_ID, List.of(1L, 2L), false)).thenReturn(2);
+
+        BulkListingResult result = carService.deactivateCars(Arrays.asList(1L, 2L, 1L, null), DEALER_ID);
+
+        assertThat(result.getSelected()).isEqualTo(2);
+        assertThat(result.getUpdated()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsEmptyAndOversizedSelections() {
+        List<Long> tooMany = LongStream.rangeClosed(1, 10_001).boxed().toList();
+
+        assertThatThrownBy(() -> carService.deactivateCars(List.of(), DEALER_ID))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> carService.reactivateCars(Collections.singletonList(null), DEALER_ID))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> carService.reactivateCars(tooMany, DEALER_ID))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("10000");
+        verifyNoInteractions(carRepository);
+    }
+
+    @Test
+    void theLargestSelectionIsAccepted() {
+        List<Long> ids = LongStream.rangeClosed(1, 10_000).boxed().toList();
+        when(carRepository.countByDealerIdAndIdIn(DEALER_ID, ids)).thenReturn(10_000L);
+
+        assertThat(carService.reactivateCars(ids, DEALER_ID).getSelected()).isEqualTo(10_000);
+    }
+
+    @Test
+    void deactivationAnnouncesTheCarsThatWereActive() {
+        ownsAll(List.of(1L, 2L));
+        // Car 2 was already inactive, so it is not in the read model
+        when(carSearchRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(row(1L, "15000")));
+        when(carRepository.updateActive(DEALER_ID, List.of(1L, 2L), false)).thenReturn(1);
+
+        BulkListingResult result = carService.deactivateCars(List.of(1L, 2L), DEALER_ID);
+
+        assertThat(result.getUpdated()).isEqualTo(1);
+        verify(carSearchWriter).refresh(List.of(1L, 2L));
+        assertThat(publishedChanges()).extracting(c -> c.before().id(), c -> c.before().active(), c -> c.after().active())
+            .containsExactly(tuple(1L, true, false));
+    }
+
+    @Test
+    void reactivationAnnouncesOnlyTheCarsThatWereInactive() {
+        ownsAll(List.of(1L, 2L));
+        // Car 1 was active already; after the update both are in the read model
+        when(carSearchRepository.findAllById(List.of(1L, 2L)))
+            .thenReturn(List.of(row(1L, "15000")))
+            .thenReturn(List.of(row(1L, "15000"), row(2L, "9000")));
+
+        carService.reactivateCars(List.of(1L, 2L), DEALER_ID);
+
+        assertThat(publishedChanges()).extracting(c -> c.before().id(), c -> c.before().active(), c -> c.after().active())
+            .containsExactly(tuple(2L, false, true));
+    }
+
+    @Test
+    void percentageAdjustmentScalesPricesAndAnnouncesBothStates() {
+        ownsAll(List.of(1L));
+        when(carSearchRepository.findAllById(List.of(1L)))
+            .thenReturn(List.of(row(1L, "20000")))
+            .thenReturn(List.of(row(1L, "18000")));
+        BigDecimal factor = new BigDecimal("0.90");
+        when(carRepository.adjustPrices(DEALER_ID, List.of(1L), factor, BigDecimal.ZERO)).thenReturn(1);
+
+        BulkListingResult result = carService.adjustPrices(
+            new BulkPriceRequest(List.of(1L), "percent", new BigDecimal("-10")), DEALER_ID);
+
+        assertThat(result.getUpdated()).isEqualTo(1);
+        verify(carRepository).countInvalidAdjustedPrices(DEALER_ID, List.of(1L), factor, BigDecimal.ZERO);
+        assertThat(publishedChanges()).extracting(c -> c.before().price(), c -> c.after().price())
+            .containsExactly(tuple(new BigDecimal("20000"), new BigDecimal("18000")));
+    }
+
+    @Test
+    void anAdjustmentThatLeavesAPriceOutOfBoundsChangesNothing() {
+        ownsAll(List.of(1L, 2L));
+        // A cut below 0.01 or a rise past DECIMAL(10,2) for one of the cars
+        when(carRepository.countInvalidAdjustedPrices(DEALER_ID, List.of(1L, 2L), BigDecimal.ONE, new BigDecimal("-9000")))
+            .thenReturn(1L);
+        when(carRepository.countInvalidAdjustedPrices(DEALER_ID, List.of(1L, 2L), new BigDecimal("1000.00"), BigDecimal.ZERO))
+            .thenReturn(2L);
+
+        assertThatThrownBy(() -> carService.adjustPrices(
+            new BulkPriceRequest(List.of(1L, 2L), "amount", new BigDecimal("-9000")), DEALER_ID))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> carService.adjustPrices(
+            new BulkPriceRequest(List.of(1L, 2L), "percent", new BigDecimal("99900")), DEALER_ID))
+            .isInstanceOf(IllegalArgumentException.class);
+        verify(carRepository, never()).adjustPrices(anyLong(), anyCollection(), any(), any());
+        verifyNoInteractions(carSearchWriter, eventPublisher);
+    }
+
+    @Test
+    void rejectsAnAdjustmentWithoutAValidModeOrValue() {
+        ownsAll(List.of(1L));
+
+        assertThatThrownBy(() -> carService.adjustPrices(new BulkPriceRequest(List.of(1L), "percent", null), DEALER_ID))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> carService.adjustPrices(
+            new BulkPriceRequest(List.of(1L), "double", BigDecimal.TEN), DEALER_ID))
+            .isInstanceOf(IllegalArgumentException.class);
+        verify(carRepository, never()).countInvalidAdjustedPrices(anyLong(), anyCollection(), any(), any());
+    }
+
+    @Test
+    void theDealerPageListsActiveCarsFromTheReadModel() {
+        when(carSearchRepository.findByDealerIdOrderByCreatedAtDescIdDesc(DEALER_ID))
+            .thenReturn(List.of(row(2L, "15000"), row(1L, "12000")));
+
+        assertThat(carService.getCarsByDealer(DEALER_ID))
+            .extracting(CarCard::getId, CarCard::getPrice)
+            .containsExactly(tuple(2L, new BigDecimal("15000")), tuple(1L, new BigDecimal("12000")));
+        // Car entities and their lazy collections are not loaded
+        verifyNoInteractions(carRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void theDatabaseFallbackSortsLikeTheIndexWithAnIdTieBreak() {
+        when(carSearchRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(Page.empty());
+        CarFilterDTO filters = new CarFilterDTO();
+
+        carService.findCarsWithFilters(filters, PageRequest.of(1, 12));
+        filters.setSortBy("price_asc");
+        carService.findCarsWithFilters(filters, PageRequest.of(0, 12));
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(carSearchRepository, times(2)).findAll(any(Specification.class), pageable.capture());
+        // No sortBy is the same newest-first order the cache key resolves it to
+        assertThat(pageable.getAllValues()).extracting(Pageable::getPageNumber, Pageable::getSort).containsExactly(
+            tuple(1, Sort.by(Sort.Direction.DESC, "createdAt", "id")),
+            tuple(0, Sort.by(Sort.Direction.ASC, "price", "id")));
+    }
+
+    private void ownsAll(List<Long> ids) {
+        when(carRepository.countByDealerIdAndIdIn(eq(DEALER_ID), eq(ids))).thenReturn((long) ids.size());
+    }
+
+    private List<CarChangedEvent> publishedChanges() {
+        ArgumentCaptor<CarsChangedEvent> event = ArgumentCaptor.forClass(CarsChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        return new ArrayList<>(event.getValue().changes());
+    }
+
+    private static CarSearch row(Long id, String price) {
+        CarSearch row = new CarSearch();
+        ReflectionTestUtils.setField(row, "id", id);
+        ReflectionTestUtils.setField(row, "dealerId", DEALER_ID);
+        ReflectionTestUtils.setField(row, "make", "Seat");
+        ReflectionTestUtils.setField(row, "model", "Ibiza");
+        ReflectionTestUtils.setField(row, "price", new BigDecimal(price));
+        return row;
+    }
+}
@@ -0,0 +1,99 @@
+package com.cardealer.service;
+
+import com.cardealer.dto.CommentPage;
+import com.cardealer.dto.CommentView;
+import com.cardealer.model.Comment;
+import com.cardealer.repository.CarRepository;
+import com.cardealer.repository.CarReviewStatsRepository;
+import com.cardealer.repository.CommentRepository;
+import com.cardealer.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CommentServiceTest {
+
+    private static final Long CAR_ID = 3L;
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 10, 18, 30, 0, 123_456_000);
+
+    private CommentRepository commentRepository;
+    private CommentService commentService;
+
+    @BeforeEach
+    void setUp() {
+        commentRepository = mock(CommentRepository.class);
+        commentService = new CommentService(commentRepository, mock(CarRepository.class),
+            mock(UserRepository.class), mock(CarReviewStatsRepository.class));
+    }
+
+    @Test
+    void firstPageReturnsACursorWhenMoreCommentsFollow() {
+        when(commentRepository.findLatestByCarId(CAR_ID, PageRequest.of(0, 3)))
+            .thenReturn(comments(20, 19, 18));
+
+        CommentPage page = commentService.getCommentPage(CAR_ID, null, 2);
+
+        assertThat(page.getComments()).extracting(CommentView::getId).containsExactly(20L, 19L);
+        assertThat(page.getNextCursor()).isNotNull().matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void cursorContinuesAfterTheLastCommentOfThePage() {
+        when(commentRepository.findLatestByCarId(CAR_ID, PageRequest.of(0, 3)))
+            .thenReturn(comments(20, 19, 18));
+        String cursor = commentService.getCommentPage(CAR_ID, null, 2).getNextCursor();
+        when(commentRepository.findOlderByCarId(eq(CAR_ID), any(), anyLong(), any()))
+            .thenReturn(comments(18));
+
+        CommentPage next = commentService.getCommentPage(CAR_ID, cursor, 2);
+
+        verify(commentRepository).findOlderByCarId(CAR_ID, NOW.minusMinutes(81), 19L, PageRequest.of(0, 3));
+        assertThat(next.getComments()).extracting(CommentView::getId).containsExactly(18L);
+        assertThat(next.getNextCursor()).isNull();
+    }
+
+    @Test
+    void pageSizeIsClamped() {
+        when(commentRepository.findLatestByCarId(eq(CAR_ID), any())).thenReturn(List.of());
+
+        commentService.getCommentPage(CAR_ID, "", 500);
+        commentService.getCommentPage(CAR_ID, null, 0);
+
+        verify(commentRepository).findLatestByCarId(CAR_ID, PageRequest.of(0, 51));
+        verify(commentRepository).findLatestByCarId(CAR_ID, PageRequest.of(0, 2));
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThatThrownBy(() -> commentService.getCommentPage(CAR_ID, "no-es-un-cursor", 10))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Comments newest first; comment n was written 100 - n minutes before NOW
+     */
+    private static List<Comment> comments(long... ids) {
+        List<Comment> comments = new ArrayList<>();
+        for (long id : ids) {
+            Comment comment = new Comment();
+            comment.setId(id);
+            comment.setContent("Comentario " + id);
+            comment.setCreatedAt(NOW.minusMinutes(100 - id));
+            comments.add(comment);
+        }
+        return comments;
+    }
+}
@@ -0,0 +1,55 @@
+package com.cardealer.service;
+
+import com.cardealer.exception.ResourceNotFoundException;
+import com.cardealer.repository.CarRepository;
+import com.cardealer.repository.DealerStatsRepository;
+import com.cardealer.repository.FavoriteRepository;
+import com.cardealer.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FavoriteServiceTest {
+
+    private static final Long USER_ID = 4L;
+    private static final Long CAR_ID = 9L;
+
+    private FavoriteRepository favoriteRepository;
+    private DealerStatsRepository dealerStatsRepository;
+    private FavoriteService favoriteService;
+
+    @BeforeEach
+    void setUp() {
+        favoriteRepository = mock(FavoriteRepository.class);
+        dealerStatsRepository = mock(DealerStatsRepository.class);
+        favoriteService = new FavoriteService(favoriteRepository, mock(UserRepository.class),
+            mock(CarRepository.class), dealerStatsRepository, mock(ApplicationEventPublisher.class));
+    }
+
+    @Test
+    void removingAFavouriteDecrementsTheDealerCountOnce() {
+        when(favoriteRepository.deleteByUserIdAndCarId(USER_ID, CAR_ID)).thenReturn(1);
+
+        favoriteService.removeFavorite(USER_ID, CAR_ID);
+
+        verify(dealerStatsRepository, times(1)).addFavorites(CAR_ID, -1L);
+    }
+
+    @Test
+    void aConcurrentRemovalThatDeletedNothingDoesNotDecrement() {
+        // The other request's delete committed first
+        when(favoriteRepository.deleteByUserIdAndCarId(USER_ID, CAR_ID)).thenReturn(0);
+
+        assertThatThrownBy(() -> favoriteService.removeFavorite(USER_ID, CAR_ID))
+            .isInstanceOf(ResourceNotFoundException.class);
+        verify(dealerStatsRepository, never()).addFavorites(anyLong(), anyLong());
+    }
+}
@@ -0,0 +1,178 @@
+package com.cardealer.service;
+
+import com.cardealer.dto.CarFilterDTO;
+import com.cardealer.dto.ImportReport;
+import com.cardealer.repository.CarSearchRepository;
+import com.cardealer.repository.DealerRepository;
+import com.cardealer.search.CarSearchWriter;
+import com.cardealer.search.InventoryExportQuery;
+import com.cardealer.service.InventoryExportService.Format;
+import com.cardealer.util.FileUploadUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InventoryExportServiceTest {
+
+    private static final Long DEALER_ID = 1L;
+
+    private InventoryExportQuery exportQuery;
+    private InventoryExportService exportService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        exportQuery = mock(InventoryExportQuery.class);
+        exportService = new InventoryExportService(exportQuery, objectMapper);
+        ReflectionTestUtils.setField(exportService, "searchMaxRows", 3);
+    }
+
+    @Test
+    void csvQuotesTextAndJoinsLists() throws Exception {
+        when(exportQuery.dealerCars(DEALER_ID)).thenReturn(dealerRows());
+
+        String csv = export(Format.CSV);
+
+        assertThat(csv).startsWith(String.join(",", InventoryExportQuery.DEALER_COLUMNS) + "\r\n");
+        assertThat(csv.split("\r\n", -1)).containsExactly(
+            String.join(",", InventoryExportQuery.DEALER_COLUMNS),
+            "41,Seat,Ibiza,2019,12500.50,48000,GASOLINA,MANUAL,HATCHBACK,OCASION,Rojo,5,1.0 TSI,"
+                + "\"Muy cuidado, \"\"como nuevo\"\"\nITV pasada\",GPS|Bluetooth,ibiza-1.jpg|ibiza-2.jpg,120,true,2024-03-01T12:30",
+            "42,BMW,320d,2021,32000.00,0,DIESEL,AUTOMATICO,,NUEVO,,,,,,bmw.jpg,0,false,2024-02-01T09:00",
+            "");
+    }
+
+    @Test
+    void ndjsonWritesOneTypedObjectPerLine() throws Exception {
+        when(exportQuery.dealerCars(DEALER_ID)).thenReturn(dealerRows());
+
+        String[] lines = export(Format.NDJSON).split("\n");
+
+        assertThat(lines).hasSize(2).allMatch(line -> line.startsWith("{") && line.endsWith("}"));
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("id").isNumber()).isTrue();
+        assertThat(first.get("price").decimalValue()).isEqualByComparingTo("12500.50");
+        assertThat(first.get("description").asText()).isEqualTo("Muy cuidado, \"como nuevo\"\nITV pasada");
+        assertThat(first.get("features")).extracting(JsonNode::asText).containsExactly("GPS", "Bluetooth");
+        assertThat(first.get("active").booleanValue()).isTrue();
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertThat(second.get("bodyType").isNull()).isTrue();
+        assertThat(second.get("features").isArray()).isTrue();
+        assertThat(second.get("features")).isEmpty();
+    }
+
+    @Test
+    void theRowStreamIsClosedEvenWhenTheClientGoesAway() {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(exportQuery.dealerCars(DEALER_ID)).thenReturn(dealerRows().onClose(() -> closed.set(true)));
+        OutputStream brokenPipe = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThatThrownBy(() -> exportService.exportDealerInventory(DEALER_ID, Format.CSV, brokenPipe))
+            .isInstanceOf(IOException.class);
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void rowsAreWrittenAsTheyAreReadFromTheCursor() throws Exception {
+        // A stream that can only be walked once, row by row
+        when(exportQuery.dealerCars(DEALER_ID)).thenReturn(Stream.iterate(1L, id -> id + 1)
+            .limit(2_000)
+            .map(id -> new Object[] {id, "Seat", "Ibiza", 2019, new BigDecimal("9000.00"), 1000, "GLP", "MANUAL", null,
+                "OCASION", null, null, null, null, new String[0], new String[] {"ibiza.jpg"}, 0, true,
+                LocalDateTime.of(2024, 1, 1, 0, 0)}));
+
+        String csv = export(Format.CSV);
+
+        assertThat(csv.split("\r\n")).hasSize(2_001);
+    }
+
+    @Test
+    void searchExportAsksForNoMoreThanTheConfiguredRows() throws Exception {
+        CarFilterDTO filters = new CarFilterDTO();
+        when(exportQuery.searchResults(filters, 3)).thenReturn(Stream.empty());
+
+        exportService.exportSearch(filters, Format.CSV, new ByteArrayOutputStream());
+
+        verify(exportQuery).searchResults(filters, 3);
+    }
+
+    @Test
+    void aDealerExportCanBeImportedAgain() throws Exception {
+        InventoryImportService importService = importService();
+        for (Format format : Format.values()) {
+            when(exportQuery.dealerCars(DEALER_ID)).thenReturn(dealerRows());
+            byte[] exported = export(format).getBytes(StandardCharsets.UTF_8);
+
+            ImportReport report = importService.importListings(new MockMultipartFile("file",
+                "inventario." + format.getExtension(), format.getMediaType().toString(), exported), true, DEALER_ID);
+
+            assertThat(report.getErrors()).as(format.name()).isEmpty();
+            assertThat(report.getValid()).as(format.name()).isEqualTo(2);
+        }
+    }
+
+    private String export(Format format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportDealerInventory(DEALER_ID, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Rows as InventoryExportQuery.dealerCars reads them
+     */
+    private static Stream<Object[]> dealerRows() {
+        return Stream.of(
+            new Object[] {41L, "Seat", "Ibiza", 2019, new BigDecimal("12500.50"), 48000, "GASOLINA", "MANUAL", "HATCHBACK",
+                "OCASION", "Rojo", 5, "1.0 TSI", "Muy cuidado, \"como nuevo\"\nITV pasada",
+                new String[] {"GPS", "Bluetooth"}, new String[] {"ibiza-1.jpg", "ibiza-2.jpg"}, 120, true,
+                LocalDateTime.of(2024, 3, 1, 12, 30)},
+            new Object[] {42L, "BMW", "320d", 2021, new BigDecimal("32000.00"), 0, "DIESEL", "AUTOMATICO", null,
+                "NUEVO", null, null, null, null, new String[0], new String[] {"bmw.jpg"}, 0, false,
+                LocalDateTime.of(2024, 2, 1, 9, 0)});
+    }
+
+    private InventoryImportService importService() {
+        DealerRepository dealerRepository = mock(DealerRepository.class);
+        when(dealerRepository.existsById(DEALER_ID)).thenReturn(true);
+        FileUploadUtil fileUploadUtil = mock(FileUploadUtil.class);
+        when(fileUploadUtil.fileExists(anyString())).thenReturn(true);
+        return new InventoryImportService(dealerRepository, mock(CarSearchRepository.class),
+            mock(CarSearchWriter.class), fileUploadUtil, Validation.buildDefaultValidatorFactory().getValidator(),
+            objectMapper, mock(JdbcTemplate.class), mock(TransactionTemplate.class),
+            mock(ApplicationEventPublisher.class), 1000);
+    }
+}
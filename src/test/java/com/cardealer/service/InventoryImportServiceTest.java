@@ -0,0 +1,181 @@
+package com.cardealer.service;
+
+import com.cardealer.dto.ImportReport;
+import com.cardealer.dto.ImportRowError;
+import com.cardealer.repository.CarSearchRepository;
+import com.cardealer.repository.DealerRepository;
+import com.cardealer.search.CarSearchWriter;
+import com.cardealer.util.FileUploadUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InventoryImportServiceTest {
+
+    private static final Long DEALER_ID = 1L;
+    private static final String CSV_HEADER = "brand,model,year,price,mileage,fuelType,transmission,condition,images\n";
+
+    private InventoryImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        DealerRepository dealerRepository = mock(DealerRepository.class);
+        when(dealerRepository.existsById(DEALER_ID)).thenReturn(true);
+        FileUploadUtil fileUploadUtil = mock(FileUploadUtil.class);
+        when(fileUploadUtil.fileExists(anyString())).thenReturn(true);
+
+        importService = new InventoryImportService(dealerRepository, mock(CarSearchRepository.class),
+            mock(CarSearchWriter.class), fileUploadUtil, Validation.buildDefaultValidatorFactory().getValidator(),
+            new ObjectMapper(), mock(JdbcTemplate.class), mock(TransactionTemplate.class),
+            mock(ApplicationEventPublisher.class), 1000);
+    }
+
+    @Test
+    void readsSemicolonCsvWithQuotedFieldsAndByteOrderMark() throws Exception {
+        String csv = "\uFEFFbrand;model;year;price;mileage;fuel_type;transmission;condition;images;features;description\r\n"
+            + "Seat;Ibiza;2019;12500.50;48000;gasolina;manual;ocasion;ibiza.jpg;GPS|Bluetooth;"
+            + "\"Muy cuidado; \"\"como nuevo\"\"\r\nITV pasada\"\r\n"
+            + "BMW;320d;2021;32000;0;diesel;automatico;nuevo;bmw-1.jpg|bmw-2.jpg;;\r\n";
+
+        ImportReport report = importService.importListings(csv("inventario.csv", csv), true, DEALER_ID);
+
+        assertThat(report.isDryRun()).isTrue();
+        assertThat(report.getRows()).isEqualTo(2);
+        assertThat(report.getValid()).isEqualTo(2);
+        assertThat(report.getImported()).isZero();
+        assertThat(report.getErrors()).isEmpty();
+    }
+
+    @Test
+    void reportsInvalidCsvRowsWithTheirLine() throws Exception {
+        String csv = CSV_HEADER
+            + "Seat,Ibiza,dos mil,12500,40000,gasolina,manual,ocasion,ibiza.jpg\n"
+            + "\n"
+            + "Audi,A3,2018,18000,40000,nuclear,manual,ocasion,a3.jpg\n"
+            + "Audi,A4,2018,18000,40000,diesel,manual,ocasion,a4.jpg,extra\n"
+            + "Audi,A5,2018,19000,40000,diesel,manual,ocasion,../a5.jpg\n"
+            + "Audi,A6,2020,29000,40000,diesel,automatico,ocasion,a6.jpg\n";
+
+        ImportReport report = importService.importListings(csv("inventario.csv", csv), true, DEALER_ID);
+
+        assertThat(report.getRows()).isEqualTo(5);
+        assertThat(report.getValid()).isEqualTo(1);
+        assertThat(report.getErrors()).extracting(ImportRowError::getLine).containsExactly(2L, 4L, 5L, 6L);
+        assertThat(report.getErrors()).extracting(ImportRowError::getMessage).satisfiesExactly(
+            message -> assertThat(message).contains("El año no es un número entero: dos mil"),
+            message -> assertThat(message).contains("Tipo de combustible no válido: nuclear"),
+            message -> assertThat(message).contains("más columnas"),
+            message -> assertThat(message).contains("Imagen no encontrada: ../a5.jpg"));
+    }
+
+    @Test
+    void requiresTheMileage() throws Exception {
+        String csv = CSV_HEADER + "Seat,Ibiza,2019,12500,,gasolina,manual,ocasion,ibiza.jpg\n";
+
+        ImportReport report = importService.importListings(csv("inventario.csv", csv), true, DEALER_ID);
+
+        assertThat(report.getValid()).isZero();
+        assertThat(report.getErrors()).singleElement()
+            .satisfies(error -> assertThat(error.getMessage()).contains("El kilometraje es obligatorio"));
+        assertThatThrownBy(() -> importService.importListings(
+                csv("inventario.csv", "brand,model,year,price,fuelType,transmission,condition,images\n"), true, DEALER_ID))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Faltan columnas obligatorias: mileage");
+    }
+
+    @Test
+    void stopsAtAnUnclosedQuote() throws Exception {
+        String csv = CSV_HEADER
+            + "Seat,Ibiza,2019,12500,40000,gasolina,manual,ocasion,ibiza.jpg\n"
+            + "Seat,\"Leon,2019,14500,40000,gasolina,manual,ocasion,leon.jpg\n"
+            + "Seat,Arona,2020,17500,40000,gasolina,manual,ocasion,arona.jpg\n";
+
+        ImportReport report = importService.importListings(csv("inventario.csv", csv), true, DEALER_ID);
+
+        assertThat(report.getValid()).isEqualTo(1);
+        assertThat(report.getErrors()).singleElement()
+            .satisfies(error -> assertThat(error.getLine()).isEqualTo(3));
+    }
+
+    @Test
+    void rejectsUnusableCsvHeaders() {
+        assertThatThrownBy(() -> importService.importListings(
+                csv("inventario.csv", "brand,model,colour\n"), true, DEALER_ID))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Columna desconocida: colour");
+        assertThatThrownBy(() -> importService.importListings(
+                csv("inventario.csv", "brand,model\nSeat,Ibiza\n"), true, DEALER_ID))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Faltan columnas obligatorias");
+        assertThatThrownBy(() -> importService.importListings(
+                csv("inventario.csv", "brand," + "x".repeat(70_000) + "\n"), true, DEALER_ID))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("La cabecera supera el máximo");
+    }
+
+    @Test
+    void readsNdjsonAndReportsBadLines() throws Exception {
+        String ndjson = "{\"brand\":\"Seat\",\"model\":\"Ibiza\",\"year\":2019,\"price\":12500,\"mileage\":40000,"
+            + "\"fuelType\":\"GASOLINA\",\"transmission\":\"MANUAL\",\"condition\":\"OCASION\",\"images\":[\"ibiza.jpg\"],\"features\":[\"GPS\"]}\n"
+            + "\n"
+            + "{\"brand\": \"Seat\"\n"
+            + "[1, 2]\n"
+            + "{\"marca\":\"Seat\"}\n"
+            + "{\"make\":\"BMW\",\"model\":\"320d\",\"year\":\"2021\",\"price\":\"32000.00\",\"mileage\":\"0\","
+            + "\"fuel_type\":\"diesel\",\"transmission\":\"automatico\",\"condition\":\"nuevo\",\"images\":\"bmw-1.jpg|bmw-2.jpg\"}\n";
+
+        ImportReport report = importService.importListings(
+            new MockMultipartFile("file", "inventario.ndjson", "application/x-ndjson", ndjson.getBytes(StandardCharsets.UTF_8)),
+            true, DEALER_ID);
+
+        assertThat(report.getRows()).isEqualTo(5);
+        assertThat(report.getValid()).isEqualTo(2);
+        assertThat(report.getErrors()).extracting(ImportRowError::getLine, ImportRowError::getMessage).containsExactly(
+            tuple(3L, "JSON no válido"),
+            tuple(4L, "Cada línea debe ser un objeto JSON"),
+            tuple(5L, "Campo desconocido: marca"));
+    }
+
+    @Test
+    void skipsOverLongNdjsonLines() throws Exception {
+        String ndjson = "{\"description\":\"" + "x".repeat(70_000) + "\"}\r\n"
+            + "{\"brand\":\"Seat\",\"model\":\"Ibiza\",\"year\":2019,\"price\":12500,\"mileage\":40000,"
+            + "\"fuelType\":\"GASOLINA\",\"transmission\":\"MANUAL\",\"condition\":\"OCASION\",\"images\":[\"ibiza.jpg\"]}\r\n";
+
+        ImportReport report = importService.importListings(
+            new MockMultipartFile("file", "inventario.jsonl", null, ndjson.getBytes(StandardCharsets.UTF_8)),
+            true, DEALER_ID);
+
+        assertThat(report.getRows()).isEqualTo(2);
+        assertThat(report.getValid()).isEqualTo(1);
+        assertThat(report.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getLine()).isEqualTo(1);
+            assertThat(error.getMessage()).contains("supera el máximo");
+        });
+    }
+
+    @Test
+    void rejectsUnknownFileTypes() {
+        assertThatThrownBy(() -> importService.importListings(
+                new MockMultipartFile("file", "inventario.xlsx", null, new byte[] {1}), true, DEALER_ID))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static MockMultipartFile csv(String name, String content) {
+        return new MockMultipartFile("file", name, "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+}
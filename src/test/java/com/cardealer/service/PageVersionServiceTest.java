@@ -0,0 +1,79 @@
+package com.cardealer.service;
+
+import com.cardealer.repository.CarRepository;
+import com.cardealer.repository.DealerRepository;
+import com.cardealer.search.ListingVersion;
+import com.cardealer.search.RelatedCarsEngine;
+import com.cardealer.service.PageVersionService.PageVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PageVersionServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 11, 20, 10, 0);
+
+    // The listing_version row both nodes read
+    private long version;
+    private LocalDateTime updatedAt;
+
+    private PageVersionService nodeA;
+    private PageVersionService nodeB;
+
+    @BeforeEach
+    void setUp() {
+        version = 1;
+        updatedAt = START;
+        nodeA = node();
+        nodeB = node();
+    }
+
+    @Test
+    void nodesShareTheListingVersion() {
+        PageVersion listing = nodeA.listing();
+
+        assertThat(nodeB.listing()).isEqualTo(listing);
+        assertThat(listing.lastModified()).isEqualTo(Timestamp.valueOf(START).getTime());
+    }
+
+    @Test
+    void aChangeCommittedThroughAnotherNodeInvalidatesTheListingETag() {
+        PageVersion before = nodeB.listing();
+
+        // A car saved on node A: the car_search trigger bumps the row in that transaction
+        version++;
+        updatedAt = START.plusMinutes(3);
+
+        PageVersion after = nodeB.listing();
+        assertThat(after.etag()).isNotEqualTo(before.etag());
+        assertThat(after.lastModified()).isGreaterThan(before.lastModified());
+        assertThat(nodeA.listing()).isEqualTo(after);
+    }
+
+    /**
+     * A page version service of its own application context, reading the shared row
+     */
+    @SuppressWarnings("unchecked")
+    private PageVersionService node() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(anyString(), any(RowMapper.class))).thenAnswer(invocation -> {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getLong(1)).thenReturn(version);
+            when(rs.getTimestamp(2)).thenReturn(Timestamp.valueOf(updatedAt));
+            return invocation.<RowMapper<?>>getArgument(1).mapRow(rs, 0);
+        });
+        return new PageVersionService(mock(CarRepository.class), mock(DealerRepository.class),
+            mock(RelatedCarsEngine.class), new ListingVersion(jdbcTemplate));
+    }
+}
@@ -0,0 +1,54 @@
+package com.cardealer.specification;
+
+import com.cardealer.dto.CarFilterDTO;
+import com.cardealer.model.CarSearch;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CarSpecificationTest {
+
+    @Test
+    void searchTextBecomesAPrefixQueryOfItsTerms() {
+        assertThat(CarSpecification.toPrefixTsQuery("BMW 320d")).isEqualTo("bmw:* & 320d:*");
+        assertThat(CarSpecification.toPrefixTsQuery("a|b & !c")).isEqualTo("a:* & b:* & c:*");
+        assertThat(CarSpecification.toPrefixTsQuery("--")).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void searchTextWithoutTermsMatchesNothing() {
+        CarFilterDTO filters = new CarFilterDTO();
+        filters.setSearchText("--");
+        Root<CarSearch> root = mock(Root.class);
+        CriteriaBuilder criteriaBuilder = mock(CriteriaBuilder.class);
+        Predicate none = mock(Predicate.class);
+        when(criteriaBuilder.disjunction()).thenReturn(none);
+
+        CarSpecification.buildSpecification(filters, true).toPredicate(root, mock(CriteriaQuery.class), criteriaBuilder);
+
+        verify(criteriaBuilder).and(new Predicate[] {none});
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void blankSearchTextIsNoFilter() {
+        CarFilterDTO filters = new CarFilterDTO();
+        filters.setSearchText("  ");
+        CriteriaBuilder criteriaBuilder = mock(CriteriaBuilder.class);
+
+        CarSpecification.buildSpecification(filters, true)
+            .toPredicate(mock(Root.class), mock(CriteriaQuery.class), criteriaBuilder);
+
+        verify(criteriaBuilder, never()).disjunction();
+        verify(criteriaBuilder).and(new Predicate[0]);
+    }
+}
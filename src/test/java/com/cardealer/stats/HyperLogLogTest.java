@@ -0,0 +1,81 @@
+package com.cardealer.stats;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+
+    @Test
+    void emptySketchEstimatesZero() {
+        assertThat(new HyperLogLog().estimate()).isZero();
+    }
+
+    @Test
+    void repeatedVisitorsAreCountedOnce() {
+        HyperLogLog sketch = new HyperLogLog();
+
+        assertThat(sketch.add(HyperLogLog.hash("visitor-1"))).isTrue();
+        assertThat(sketch.add(HyperLogLog.hash("visitor-1"))).isFalse();
+        for (int i = 0; i < 1_000; i++) {
+            sketch.add(HyperLogLog.hash("visitor-" + (i % 10)));
+        }
+
+        assertThat(sketch.estimate()).isCloseTo(10, within(1L));
+    }
+
+    @Test
+    void estimatesSmallAndLargeCardinalities() {
+        assertThat(estimateOf(0, 100)).isCloseTo(100, within(8L));
+        assertThat(estimateOf(0, 20_000)).isCloseTo(20_000, within(2_000L));
+        assertThat(estimateOf(0, 200_000)).isCloseTo(200_000, within(20_000L));
+    }
+
+    @Test
+    void mergeEstimatesTheUnion() {
+        HyperLogLog monday = sketchOf(0, 30_000);
+        HyperLogLog tuesday = sketchOf(20_000, 50_000);
+
+        HyperLogLog week = monday.copy();
+        week.merge(tuesday);
+
+        assertThat(week.estimate()).isCloseTo(50_000, within(5_000L));
+        // Merging is idempotent and leaves the source untouched
+        week.merge(tuesday);
+        assertThat(week.estimate()).isEqualTo(sketchOf(0, 50_000).estimate());
+        assertThat(monday.estimate()).isEqualTo(sketchOf(0, 30_000).estimate());
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        HyperLogLog sketch = sketchOf(0, 5_000);
+
+        byte[] bytes = sketch.toBytes();
+
+        assertThat(bytes).hasSize(HyperLogLog.REGISTERS + 1);
+        assertThat(HyperLogLog.fromBytes(bytes).estimate()).isEqualTo(sketch.estimate());
+    }
+
+    @Test
+    void rejectsUnknownFormats() {
+        byte[] bytes = new HyperLogLog().toBytes();
+        bytes[0] = 9;
+
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(bytes)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[10])).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static long estimateOf(int from, int to) {
+        return sketchOf(from, to).estimate();
+    }
+
+    private static HyperLogLog sketchOf(int from, int to) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = from; i < to; i++) {
+            sketch.add(HyperLogLog.hash("visitor-" + i));
+        }
+        return sketch;
+    }
+}
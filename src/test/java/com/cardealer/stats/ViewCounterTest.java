@@ -0,0 +1,128 @@
+package com.cardealer.stats;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ViewCounterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private ViewSeries viewSeries;
+    private TaskScheduler taskScheduler;
+    private ViewCounter counter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        viewSeries = mock(ViewSeries.class);
+        taskScheduler = mock(TaskScheduler.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        counter = new ViewCounter(jdbcTemplate, transactionTemplate, viewSeries, taskScheduler, 5);
+    }
+
+    @Test
+    void flushWritesOneIncrementPerCar() {
+        counter.record(1L);
+        counter.record(2L);
+        counter.record(1L);
+
+        counter.flush();
+
+        List<Object[]> batch = capturedBatch();
+        assertThat(batch).extracting(row -> row[1], row -> row[0])
+            .containsExactlyInAnyOrder(tuple(1L, 2L), tuple(2L, 1L));
+        verify(viewSeries).ensurePartitions(LocalDate.now());
+        verify(viewSeries).append(eq(LocalDate.now()), eq(batch));
+    }
+
+    @Test
+    void flushWithoutViewsWritesNothing() {
+        counter.record(1L);
+        counter.flush();
+
+        counter.flush();
+
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void viewsOfAFailedFlushAreRetried() {
+        counter.record(1L);
+        counter.record(1L);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+            .thenThrow(new DataAccessResourceFailureException("sin conexión"))
+            .thenReturn(new int[] {1});
+
+        assertThatThrownBy(counter::flush).isInstanceOf(DataAccessResourceFailureException.class);
+        counter.record(1L);
+        counter.flush();
+
+        List<Object[]> batches = capturedBatches(2).get(1);
+        assertThat(batches).singleElement().satisfies(row -> assertThat(row).containsExactly(3L, 1L));
+    }
+
+    @Test
+    void aFullBufferQueuesOneEarlyFlush() {
+        for (int i = 0; i < 4; i++) {
+            counter.record(7L);
+        }
+        verifyNoInteractions(taskScheduler);
+
+        counter.record(7L);
+        counter.record(8L);
+
+        verify(taskScheduler, times(1)).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void shutdownFlushesPendingViews() {
+        counter.shutdown();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+
+        counter.record(3L);
+        counter.shutdown();
+
+        assertThat(capturedBatch()).singleElement().satisfies(row -> assertThat(row).containsExactly(1L, 3L));
+    }
+
+    private List<Object[]> capturedBatch() {
+        return capturedBatches(1).get(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Object[]>> capturedBatches(int flushes) {
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(flushes)).batchUpdate(eq("UPDATE cars SET views = views + ? WHERE id = ?"), batch.capture());
+        return batch.getAllValues();
+    }
+}
@@ -0,0 +1,77 @@
+package com.cardealer.stats;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ViewSeriesTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 11, 20);
+
+    private JdbcTemplate jdbcTemplate;
+    private ViewSeries viewSeries;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        viewSeries = new ViewSeries(jdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void appendAddsTheDailyRowsOfEveryCarAndOneDealerRollup() {
+        viewSeries.append(DAY, List.of(new Object[] {3L, 10L}, new Object[] {1L, 11L}));
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO car_views_daily"), rows.capture());
+        assertThat(rows.getValue()).extracting(row -> row[0], row -> row[1], row -> row[2])
+            .containsExactly(tuple(10L, DAY, 3L), tuple(11L, DAY, 1L));
+        verify(jdbcTemplate, times(1)).update(any(PreparedStatementCreator.class));
+    }
+
+    @Test
+    void partitionsAreCreatedAheadOnlyWhenMissing() {
+        viewSeries.ensurePartitions(DAY);
+
+        ArgumentCaptor<String> statements = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(3)).execute(statements.capture());
+        assertThat(statements.getAllValues()).satisfiesExactly(
+            sql -> assertThat(sql).contains("car_views_daily_2024_11").contains("'2024-11-01'").contains("'2024-12-01'"),
+            sql -> assertThat(sql).contains("car_views_daily_2024_12"),
+            sql -> assertThat(sql).contains("car_views_daily_2025_01").contains("'2025-02-01'"));
+
+        // Already covered until January
+        viewSeries.ensurePartitions(DAY.plusDays(5));
+        verify(jdbcTemplate, times(3)).execute(anyString());
+
+        viewSeries.ensurePartitions(DAY.plusMonths(1));
+        verify(jdbcTemplate, times(6)).execute(anyString());
+    }
+
+    @Test
+    void aFailedPartitionCreationIsRetriedOnTheNextFlush() {
+        doThrow(new DataAccessResourceFailureException("sin conexión")).doNothing().when(jdbcTemplate).execute(anyString());
+
+        assertThatThrownBy(() -> viewSeries.ensurePartitions(DAY)).isInstanceOf(DataAccessResourceFailureException.class);
+        viewSeries.ensurePartitions(DAY);
+
+        verify(jdbcTemplate, times(4)).execute(anyString());
+    }
+}